@@ -0,0 +1,85 @@
+package org.dga4kp.benchmarks;
+
+import java.util.Random;
+
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.adt.CrossoverStrategy;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.RepairStrategy;
+import org.dga4kp.adt.SelectionStrategy;
+
+/**
+ * Generates the random but reproducible knapsack instances that the benchmarks
+ * run on and configures PopulationGenerator for them.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class BenchmarkInstances {
+	// Seed of the generated instances, so that all runs measure the same data
+	public static final long SEED = 20161017L;
+
+	private BenchmarkInstances() {
+	}
+
+	/**
+	 * Creates a catalog of items with values between 10 and 100 and weights
+	 * between 5 and 60.
+	 * 
+	 * @param numberOfItems
+	 *            - the number of items
+	 * @return the catalog
+	 */
+	public static ItemCatalog randomCatalog(int numberOfItems) {
+		Random randomGenerator = new Random(SEED);
+		int[] values = new int[numberOfItems];
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			values[i] = 10 + randomGenerator.nextInt(91);
+			weights[i] = 5 + randomGenerator.nextInt(56);
+		}
+		return new ItemCatalog(values, weights);
+	}
+
+	/**
+	 * Returns a PopulationGenerator configured for a run on a random instance
+	 * whose backpack holds roughly a quarter of the total weight.
+	 * 
+	 * @param numberOfItems
+	 *            - the number of items
+	 * @param populationSize
+	 *            - the size of the population
+	 * @param threadCount
+	 *            - the number of worker threads
+	 * @param repairStrategy
+	 *            - the repair strategy for overweight sequences
+	 * @return the configured generator
+	 */
+	public static PopulationGenerator configure(int numberOfItems, int populationSize, int threadCount,
+			RepairStrategy repairStrategy) {
+		PopulationGenerator generator = new PopulationGenerator();
+		generator.itemCatalog = randomCatalog(numberOfItems);
+		generator.numberOfItems = numberOfItems;
+		generator.backpackLimit = backpackLimit(generator.itemCatalog);
+		generator.populationSize = populationSize;
+		generator.threadCount = threadCount;
+		generator.repairStrategy = repairStrategy;
+		generator.crossoverStrategy = CrossoverStrategy.TWO_POINT_CROSSOVER;
+		generator.selectionStrategy = SelectionStrategy.UNIFORM_TOP_HALF;
+		generator.doCrossobverProbability = 0.7;
+		generator.percentageOfInheritedPopulation = 0.1;
+		return generator;
+	}
+
+	/**
+	 * Returns a backpack limit of a quarter of the total weight of the items.
+	 */
+	public static int backpackLimit(ItemCatalog catalog) {
+		long totalWeight = 0;
+		for (int i = 0; i < catalog.size(); i++) {
+			totalWeight += catalog.getWeight(i);
+		}
+		return (int) (totalWeight / 4);
+	}
+}
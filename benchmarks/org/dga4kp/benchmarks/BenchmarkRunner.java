@@ -0,0 +1,30 @@
+package org.dga4kp.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that every benchmark reports
+ * its allocation rate next to its throughput. All standard JMH command line
+ * options are accepted, e.g. a benchmark name pattern or "-p itemCount=1000".
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions).addProfiler(GCProfiler.class);
+		if (commandLineOptions.getIncludes().isEmpty()) {
+			options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+		}
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,63 @@
+package org.dga4kp.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dga4kp.adt.FitnessKernel;
+import org.dga4kp.adt.FitnessKernelType;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.RepairStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the fitness kernels that calculate the totals of a genome
+ * from scratch. The vector kernel is only measured when the forked JVM gets
+ * --add-modules=jdk.incubator.vector (e.g. through -jvmArgsAppend), otherwise
+ * it falls back to the scalar kernel.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FitnessKernelBenchmark {
+
+	@Param({ "1000", "50000" })
+	public int itemCount;
+
+	@Param({ "SCALAR", "VECTOR" })
+	public FitnessKernelType kernel;
+
+	private OrderedItemSequence sequence;
+	private FitnessKernel fitnessKernel;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		ItemCatalog catalog = BenchmarkInstances.configure(itemCount, 1, 1, RepairStrategy.GREEDY_REPAIR).itemCatalog;
+		fitnessKernel = FitnessKernel.select(kernel, catalog, itemCount);
+		sequence = new OrderedItemSequence(catalog, itemCount, new Random(BenchmarkInstances.SEED));
+	}
+
+	@Benchmark
+	public int recomputeTotals() {
+		sequence.recomputeTotals(fitnessKernel);
+		return sequence.getTotalValue();
+	}
+}
@@ -0,0 +1,77 @@
+package org.dga4kp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.adt.Population;
+import org.dga4kp.adt.RepairStrategy;
+import org.dga4kp.stopping.GenerationLimitCriterion;
+import org.dga4kp.stopping.StoppingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of one full generation of PopulationGenerator.evolve() on the
+ * shared worker pool. The population keeps evolving across invocations, like it
+ * does in a real run, while the generation counter is reset before every
+ * invocation, so evolve() does not take the run for a resumed one that has
+ * already met its generation limit.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark {
+
+	@Param({ "1000", "50000" })
+	public int itemCount;
+
+	@Param({ "1000", "10000" })
+	public int populationSize;
+
+	@Param({ "1", "4" })
+	public int threadCount;
+
+	@Param({ "GREEDY_REPAIR" })
+	public RepairStrategy repairStrategy;
+
+	private PopulationGenerator generator;
+	private StoppingEngine stoppingEngine;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		generator = BenchmarkInstances.configure(itemCount, populationSize, threadCount, repairStrategy);
+		stoppingEngine = new StoppingEngine().addCriterion(new GenerationLimitCriterion(1));
+		generator.stoppingEngine = stoppingEngine;
+		Population initialPopulation = generator.generateInitialPopulation(generator.itemCatalog);
+		generator.population = new Population(initialPopulation);
+	}
+
+	@Setup(Level.Invocation)
+	public void resetGeneration() {
+		generator.generationNumber = 0;
+	}
+
+	@Benchmark
+	public int evolveOneGeneration() throws Exception {
+		stoppingEngine.start();
+		generator.evolve();
+		return generator.bestFitnessValue;
+	}
+}
@@ -0,0 +1,69 @@
+package org.dga4kp.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.adt.MutationStrategy;
+import org.dga4kp.adt.MutationTable;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.RepairStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the mutation strategies. The per-bit and exact-bits strategies
+ * flip numberOfMutationBits bits (on average), so their cost should not grow
+ * with the number of items.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int itemCount;
+
+	@Param({ "RANDOM_DRAWS", "PER_BIT_RATE", "EXACT_BITS" })
+	public MutationStrategy mutationStrategy;
+
+	@Param({ "3" })
+	public int numberOfMutationBits;
+
+	private PopulationGenerator generator;
+	private Random randomGenerator;
+	private OrderedItemSequence child;
+	private MutationTable mutationTable = new MutationTable();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		generator = BenchmarkInstances.configure(itemCount, 1, 1, RepairStrategy.GREEDY_REPAIR);
+		generator.mutationStrategy = mutationStrategy;
+		generator.numberOfMutationBits = numberOfMutationBits;
+		randomGenerator = new Random(BenchmarkInstances.SEED);
+		child = new OrderedItemSequence(generator.itemCatalog, itemCount, randomGenerator);
+	}
+
+	@Benchmark
+	public OrderedItemSequence mutate() {
+		generator.mutate(child, randomGenerator, mutationTable);
+		return child;
+	}
+}
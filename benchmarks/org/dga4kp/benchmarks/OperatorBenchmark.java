@@ -0,0 +1,117 @@
+package org.dga4kp.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.RepairStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the genetic operators of OrderedItemSequence. The fitness
+ * benchmarks first copy a template child over the benchmarked one, so that
+ * every invocation evaluates the same genome; {@link #copy()} measures that
+ * copy on its own.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperatorBenchmark {
+
+	@Param({ "1000", "50000" })
+	public int itemCount;
+
+	@Param({ "RANDOM_REPAIR", "GREEDY_REPAIR" })
+	public RepairStrategy repairStrategy;
+
+	private ItemCatalog catalog;
+	private int backpackLimit;
+	private Random randomGenerator;
+	private OrderedItemSequence firstParent;
+	private OrderedItemSequence secondParent;
+	private OrderedItemSequence child;
+	// A child whose items fit into the backpack
+	private OrderedItemSequence feasibleTemplate;
+	// A child with all items taken, which always needs a repair
+	private OrderedItemSequence overweightTemplate;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		catalog = BenchmarkInstances.configure(itemCount, 1, 1, repairStrategy).itemCatalog;
+		backpackLimit = BenchmarkInstances.backpackLimit(catalog);
+		randomGenerator = new Random(BenchmarkInstances.SEED);
+		firstParent = new OrderedItemSequence(catalog, itemCount, randomGenerator);
+		secondParent = new OrderedItemSequence(catalog, itemCount, randomGenerator);
+		child = new OrderedItemSequence(catalog, itemCount, randomGenerator);
+		feasibleTemplate = new OrderedItemSequence(catalog, itemCount, randomGenerator);
+		feasibleTemplate.greedyRepair(catalog, backpackLimit);
+		overweightTemplate = new OrderedItemSequence(feasibleTemplate);
+		for (int i = 0; i < itemCount; i++) {
+			overweightTemplate.set(i, true);
+		}
+	}
+
+	@Benchmark
+	public OrderedItemSequence mutate() {
+		child.mutate(randomGenerator);
+		return child;
+	}
+
+	@Benchmark
+	public OrderedItemSequence onePointCrossover() {
+		child.onePointCrossover(randomGenerator.nextInt(itemCount), firstParent, secondParent);
+		return child;
+	}
+
+	@Benchmark
+	public OrderedItemSequence twoPointCrossover() {
+		child.twoPointCrossover(randomGenerator.nextInt(itemCount), randomGenerator.nextInt(itemCount), firstParent,
+				secondParent);
+		return child;
+	}
+
+	@Benchmark
+	public OrderedItemSequence uniformCrossover() {
+		child.uniformCrossover(randomGenerator, firstParent, secondParent);
+		return child;
+	}
+
+	@Benchmark
+	public OrderedItemSequence copy() {
+		child.copyFrom(overweightTemplate);
+		return child;
+	}
+
+	@Benchmark
+	public int updateFitnessValueWithoutRepair() {
+		child.copyFrom(feasibleTemplate);
+		child.updateFitnessValue(randomGenerator, catalog, backpackLimit, repairStrategy);
+		return child.getFitnessValue();
+	}
+
+	@Benchmark
+	public int updateFitnessValueWithRepair() {
+		child.copyFrom(overweightTemplate);
+		child.updateFitnessValue(randomGenerator, catalog, backpackLimit, repairStrategy);
+		return child.getFitnessValue();
+	}
+}
@@ -0,0 +1,84 @@
+package org.dga4kp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.Population;
+import org.dga4kp.selection.TopKSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of ordering a population by fitness value. Every invocation first
+ * restores the same unordered population.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulationBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int populationSize;
+
+	private List<OrderedItemSequence> unordered;
+	private Population population;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random randomGenerator = new Random(BenchmarkInstances.SEED);
+		unordered = new ArrayList<OrderedItemSequence>(populationSize);
+		for (int i = 0; i < populationSize; i++) {
+			OrderedItemSequence sequence = new OrderedItemSequence();
+			sequence.setFitnessValue(randomGenerator.nextInt(populationSize));
+			unordered.add(sequence);
+		}
+		population = new Population(new ArrayList<OrderedItemSequence>(unordered));
+	}
+
+	private void restore() {
+		List<OrderedItemSequence> individuals = population.getIndividuals();
+		for (int i = 0; i < populationSize; i++) {
+			individuals.set(i, unordered.get(i));
+		}
+	}
+
+	@Benchmark
+	public Population restoreOnly() {
+		restore();
+		return population;
+	}
+
+	@Benchmark
+	public Population sort() {
+		restore();
+		population.sort();
+		return population;
+	}
+
+	@Benchmark
+	public Population selectTopTenPercent() {
+		restore();
+		TopKSelector.selectTop(population.getIndividuals(), populationSize / 10);
+		return population;
+	}
+}
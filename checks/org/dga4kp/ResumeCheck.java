@@ -0,0 +1,114 @@
+package org.dga4kp;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.dga4kp.adt.CrossoverStrategy;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.SelectionStrategy;
+import org.dga4kp.checkpoint.Checkpoint;
+import org.dga4kp.checkpoint.CheckpointWriter;
+import org.dga4kp.checks.Check;
+import org.dga4kp.stopping.GenerationLimitCriterion;
+import org.dga4kp.stopping.StoppingEngine;
+
+/**
+ * Checks that a run that is stopped after k generations and resumed from its
+ * final checkpoint ends with the same best sequence and the same population,
+ * in the same order, as the run that was not interrupted, for every parent
+ * selection strategy and for checkpoints after the first, an early and a
+ * later generation.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class ResumeCheck extends Check {
+	private static final int NUMBER_OF_ITEMS = 200;
+	private static final int BACKPACK_LIMIT = 2000;
+	private static final int POPULATION_SIZE = 100;
+	private static final int THREADS = 2;
+	private static final int GENERATIONS = 40;
+	// Generations after which the interrupted runs are stopped
+	private static final int[] RESUME_AFTER = { 1, 7, 20 };
+	private static final long[] SEEDS = { 11, 12, 13, 14 };
+
+	@Override
+	public void run() throws Exception {
+		ItemCatalog catalog = randomCatalog(NUMBER_OF_ITEMS, new Random(SEED));
+		ForkJoinPool pool = new ForkJoinPool(THREADS);
+		Path directory = Files.createTempDirectory("dga4kp-resume-check");
+		Path file = directory.resolve("run.ckpt");
+		try {
+			for (SelectionStrategy strategy : SelectionStrategy.values()) {
+				for (long seed : SEEDS) {
+					PopulationGenerator uninterrupted = generator(pool, catalog, strategy, seed, GENERATIONS);
+					uninterrupted.solve();
+					for (int k : RESUME_AFTER) {
+						PopulationGenerator interrupted = generator(pool, catalog, strategy, seed, k);
+						interrupted.checkpointWriter = new CheckpointWriter(file, GENERATIONS, catalog,
+								NUMBER_OF_ITEMS, BACKPACK_LIMIT);
+						try {
+							interrupted.solve();
+						} finally {
+							interrupted.checkpointWriter.close();
+						}
+						PopulationGenerator resumed = generator(pool, catalog, strategy, seed, GENERATIONS);
+						resumed.resumeFrom(Checkpoint.read(file, catalog, NUMBER_OF_ITEMS, BACKPACK_LIMIT));
+						resumed.solve();
+						compare(resumed, uninterrupted,
+								String.format("%s, seed %d, resumed after %d generations", strategy, seed, k));
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	private static PopulationGenerator generator(ForkJoinPool pool, ItemCatalog catalog,
+			SelectionStrategy strategy, long seed, int numberOfGenerations) {
+		PopulationGenerator generator = new PopulationGenerator(pool);
+		generator.seed = seed;
+		generator.itemCatalog = catalog;
+		generator.numberOfItems = NUMBER_OF_ITEMS;
+		generator.backpackLimit = BACKPACK_LIMIT;
+		generator.populationSize = POPULATION_SIZE;
+		generator.doCrossobverProbability = 0.7;
+		generator.crossoverStrategy = CrossoverStrategy.TWO_POINT_CROSSOVER;
+		generator.numberOfMutationBits = 3;
+		generator.percentageOfInheritedPopulation = 0.1;
+		generator.threadCount = THREADS;
+		generator.selectionStrategy = strategy;
+		generator.numberOfGenerations = numberOfGenerations;
+		generator.stoppingEngine = new StoppingEngine()
+				.addCriterion(new GenerationLimitCriterion(numberOfGenerations));
+		return generator;
+	}
+
+	private static void compare(PopulationGenerator resumed, PopulationGenerator uninterrupted, String what) {
+		check(resumed.generationNumber == uninterrupted.generationNumber, "%s: stopped after %d generations, not %d",
+				what, resumed.generationNumber, uninterrupted.generationNumber);
+		check(resumed.bestFitnessValue == uninterrupted.bestFitnessValue
+				&& Arrays.equals(resumed.bestFitnessSequence.getGenes(), uninterrupted.bestFitnessSequence.getGenes()),
+				"%s: best fitness value %d, expected %d", what, resumed.bestFitnessValue,
+				uninterrupted.bestFitnessValue);
+		List<OrderedItemSequence> individuals = resumed.population.getIndividuals();
+		List<OrderedItemSequence> expected = uninterrupted.population.getIndividuals();
+		check(individuals.size() == expected.size(), "%s: %d individuals, expected %d", what, individuals.size(),
+				expected.size());
+		for (int i = 0; i < individuals.size(); i++) {
+			check(Arrays.equals(individuals.get(i).getGenes(), expected.get(i).getGenes())
+					&& individuals.get(i).getFitnessValue() == expected.get(i).getFitnessValue(),
+					"%s: individual %d differs", what, i);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+package org.dga4kp.adt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks the 64x64 bit transpose of BatchEvaluator against its bit by bit
+ * definition and checks that the batch evaluation gives every sequence of a
+ * range the same totals and hash as the scalar kernel, leaves the sequences
+ * outside the range alone and adds the right item counts, for ranges that
+ * end inside and at the boundaries of the blocks of 64 sequences.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class BatchEvaluatorCheck extends Check {
+	// Number of random matrices that are transposed
+	private static final int MATRICES = 100;
+	// Numbers of sequences around the block boundaries
+	private static final int[] POPULATION_SIZES = { 1, 2, 63, 64, 65, 128, 130 };
+	// Totals the sequences have before the evaluation
+	private static final int STALE = -1;
+
+	@Override
+	public void run() {
+		Random randomGenerator = new Random(SEED);
+		checkTranspose(randomGenerator);
+		ItemCatalog catalog = randomCatalog(LENGTHS[LENGTHS.length - 1], randomGenerator);
+		for (int length : LENGTHS) {
+			BatchEvaluator evaluator = new BatchEvaluator(catalog, length);
+			for (int populationSize : POPULATION_SIZES) {
+				checkEvaluation(evaluator, catalog, length, populationSize, 0, populationSize, randomGenerator);
+				if (populationSize > 2) {
+					checkEvaluation(evaluator, catalog, length, populationSize, 1, populationSize - 1,
+							randomGenerator);
+				}
+			}
+		}
+	}
+
+	private static void checkTranspose(Random randomGenerator) {
+		long[] identity = new long[BatchEvaluator.BLOCK_SIZE];
+		for (int r = 0; r < identity.length; r++) {
+			identity[r] = 1L << r;
+		}
+		long[] transposed = identity.clone();
+		BatchEvaluator.transpose(transposed);
+		check(Arrays.equals(transposed, identity), "the transposed identity matrix differs");
+		for (int m = 0; m < MATRICES; m++) {
+			long[] matrix = new long[BatchEvaluator.BLOCK_SIZE];
+			for (int r = 0; r < matrix.length; r++) {
+				matrix[r] = randomGenerator.nextLong();
+			}
+			transposed = matrix.clone();
+			BatchEvaluator.transpose(transposed);
+			for (int r = 0; r < matrix.length; r++) {
+				for (int c = 0; c < matrix.length; c++) {
+					check(((matrix[r] >>> c) & 1L) == ((transposed[c] >>> r) & 1L),
+							"bit %d of row %d did not move to bit %d of row %d", c, r, r, c);
+				}
+			}
+		}
+	}
+
+	private static void checkEvaluation(BatchEvaluator evaluator, ItemCatalog catalog, int length,
+			int populationSize, int from, int to, Random randomGenerator) {
+		List<OrderedItemSequence> sequences = new ArrayList<OrderedItemSequence>();
+		for (int i = 0; i < populationSize; i++) {
+			OrderedItemSequence sequence = new OrderedItemSequence(catalog, length, randomGenerator);
+			sequence.setTotals(STALE, STALE, STALE, STALE);
+			sequences.add(sequence);
+		}
+		int[] itemCounts = new int[length];
+		int[] expectedCounts = new int[length];
+		for (int i = 0; i < length; i++) {
+			itemCounts[i] = i;
+			expectedCounts[i] = i;
+			for (int k = from; k < to; k++) {
+				if (sequences.get(k).get(i)) {
+					expectedCounts[i]++;
+				}
+			}
+		}
+		evaluator.evaluate(sequences, from, to, itemCounts);
+		for (int k = 0; k < populationSize; k++) {
+			OrderedItemSequence sequence = sequences.get(k);
+			String what = String.format("sequence %d of %d of %d items evaluated from %d to %d", k, populationSize,
+					length, from, to);
+			if (k >= from && k < to) {
+				checkTotals(sequence, what);
+			} else {
+				check(sequence.getTotalWeight() == STALE && sequence.getTotalValue() == STALE
+						&& sequence.getHashHigh() == STALE && sequence.getHashLow() == STALE,
+						"%s: a sequence outside the range was changed", what);
+			}
+		}
+		check(Arrays.equals(itemCounts, expectedCounts),
+				"the item counts of %d sequences of %d items evaluated from %d to %d differ", populationSize, length,
+				from, to);
+	}
+}
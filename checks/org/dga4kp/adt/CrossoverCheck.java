@@ -0,0 +1,110 @@
+package org.dga4kp.adt;
+
+import java.util.Random;
+
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks the word-mask crossovers of OrderedItemSequence against the bit by
+ * bit definition of every crossover, for genome lengths around the word
+ * boundaries and cut points at both ends of the genome. The child is a used
+ * buffer, like in the generation loop, so the incremental update of its
+ * totals and hash from the changed bits is checked as well.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class CrossoverCheck extends Check {
+	// Number of random cut points and masks per genome length
+	private static final int TRIALS = 200;
+
+	@Override
+	public void run() {
+		Random randomGenerator = new Random(SEED);
+		ItemCatalog catalog = randomCatalog(LENGTHS[LENGTHS.length - 1], randomGenerator);
+		for (int length : LENGTHS) {
+			OrderedItemSequence first = new OrderedItemSequence(catalog, length, randomGenerator);
+			OrderedItemSequence second = new OrderedItemSequence(catalog, length, randomGenerator);
+			OrderedItemSequence child = new OrderedItemSequence(catalog, length, randomGenerator);
+			checkOnePoint(child, first, second, 0);
+			checkOnePoint(child, first, second, length - 1);
+			checkTwoPoint(child, first, second, 0, length - 1);
+			checkTwoPoint(child, first, second, length - 1, 0);
+			checkTwoPoint(child, first, second, length / 2, length / 2);
+			for (int trial = 0; trial < TRIALS; trial++) {
+				checkOnePoint(child, first, second, randomGenerator.nextInt(length));
+				checkTwoPoint(child, first, second, randomGenerator.nextInt(length), randomGenerator.nextInt(length));
+				checkUniform(child, first, second, randomGenerator.nextLong());
+			}
+		}
+	}
+
+	/**
+	 * The child takes the items before the index from the second parent and
+	 * the others from the first parent.
+	 */
+	private static void checkOnePoint(OrderedItemSequence child, OrderedItemSequence first,
+			OrderedItemSequence second, int index) {
+		child.onePointCrossover(index, first, second);
+		String what = String.format("one point crossover of %d items at %d", child.getLength(), index);
+		for (int i = 0; i < child.getLength(); i++) {
+			checkBit(child, i, i < index ? second : first, what);
+		}
+		checkTail(child, what);
+		checkTotals(child, what);
+	}
+
+	/**
+	 * The child takes the items strictly between the two indices from the
+	 * second parent and the others from the first parent.
+	 */
+	private static void checkTwoPoint(OrderedItemSequence child, OrderedItemSequence first,
+			OrderedItemSequence second, int firstIndex, int secondIndex) {
+		child.twoPointCrossover(firstIndex, secondIndex, first, second);
+		String what = String.format("two point crossover of %d items at %d and %d", child.getLength(), firstIndex,
+				secondIndex);
+		int low = Math.min(firstIndex, secondIndex);
+		int high = Math.max(firstIndex, secondIndex);
+		for (int i = 0; i < child.getLength(); i++) {
+			checkBit(child, i, i > low && i < high ? second : first, what);
+		}
+		checkTail(child, what);
+		checkTotals(child, what);
+	}
+
+	/**
+	 * The child takes every item from the second parent if the bit of the item
+	 * in the random words of the crossover is set, otherwise from the first
+	 * parent.
+	 */
+	private static void checkUniform(OrderedItemSequence child, OrderedItemSequence first,
+			OrderedItemSequence second, long seed) {
+		child.uniformCrossover(new Random(seed), first, second);
+		String what = String.format("uniform crossover of %d items with seed %d", child.getLength(), seed);
+		Random masks = new Random(seed);
+		long mask = 0;
+		for (int i = 0; i < child.getLength(); i++) {
+			if (i % Long.SIZE == 0) {
+				mask = masks.nextLong();
+			}
+			checkBit(child, i, (mask & (1L << i)) != 0 ? second : first, what);
+		}
+		checkTail(child, what);
+		checkTotals(child, what);
+	}
+
+	private static void checkBit(OrderedItemSequence child, int index, OrderedItemSequence parent, String what) {
+		check(child.get(index) == parent.get(index), "%s: item %d is not taken from the expected parent", what,
+				index);
+	}
+
+	/**
+	 * The bits after the last item must stay cleared.
+	 */
+	private static void checkTail(OrderedItemSequence child, String what) {
+		long[] genes = child.getGenes();
+		int tail = child.getLength() % Long.SIZE;
+		check(tail == 0 || (genes[genes.length - 1] >>> tail) == 0, "%s: bits after the last item are set", what);
+	}
+}
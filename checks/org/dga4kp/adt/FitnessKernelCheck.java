@@ -0,0 +1,91 @@
+package org.dga4kp.adt;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks that the scalar and, if the JVM provides the jdk.incubator.vector
+ * module, the vector fitness kernel calculate the same totals and hash as a
+ * plain loop over the items. The genomes are empty, full, dense and sparse,
+ * of lengths around the word and vector boundaries, both of whole catalogs
+ * and of prefixes of a larger one, and random sequences that are built with
+ * either kernel.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class FitnessKernelCheck extends Check {
+	// Number of random genomes per density and length
+	private static final int GENOMES = 20;
+
+	@Override
+	public void run() {
+		FitnessKernel vector = FitnessKernel.vector();
+		if (vector == null) {
+			System.out.println("       the vector kernel is not available, start the JVM with "
+					+ "--add-modules jdk.incubator.vector to check it");
+		}
+		Random randomGenerator = new Random(SEED);
+		ItemCatalog largeCatalog = randomCatalog(LENGTHS[LENGTHS.length - 1] + 1, randomGenerator);
+		for (int length : LENGTHS) {
+			ItemCatalog catalog = randomCatalog(length, randomGenerator);
+			for (ItemCatalog checkedCatalog : new ItemCatalog[] { catalog, largeCatalog }) {
+				checkGenome(checkedCatalog, new long[OrderedItemSequence.wordCount(length)], length, vector);
+				long[] full = new long[OrderedItemSequence.wordCount(length)];
+				Arrays.fill(full, -1L);
+				checkGenome(checkedCatalog, full, length, vector);
+				for (int g = 0; g < GENOMES; g++) {
+					long[] dense = new long[OrderedItemSequence.wordCount(length)];
+					long[] sparse = new long[dense.length];
+					for (int w = 0; w < dense.length; w++) {
+						dense[w] = randomGenerator.nextLong();
+						sparse[w] = randomGenerator.nextLong() & randomGenerator.nextLong()
+								& randomGenerator.nextLong();
+					}
+					checkGenome(checkedCatalog, dense, length, vector);
+					checkGenome(checkedCatalog, sparse, length, vector);
+				}
+				for (FitnessKernel kernel : new FitnessKernel[] { FitnessKernel.scalar(), vector }) {
+					if (kernel != null) {
+						checkTotals(new OrderedItemSequence(checkedCatalog, length, randomGenerator, kernel),
+								String.format("random sequence of %d items built with the %s kernel", length,
+										kernel.getName()));
+					}
+				}
+			}
+		}
+	}
+
+	private static void checkGenome(ItemCatalog catalog, long[] genes, int length, FitnessKernel vector) {
+		OrderedItemSequence sequence = new OrderedItemSequence(catalog, length, genes);
+		int totalWeight = 0;
+		int totalValue = 0;
+		long hashHigh = 0;
+		long hashLow = 0;
+		for (int i = 0; i < length; i++) {
+			if (sequence.get(i)) {
+				totalWeight += catalog.weights[i];
+				totalValue += catalog.values[i];
+				hashHigh ^= catalog.zobristHigh[i];
+				hashLow ^= catalog.zobristLow[i];
+			}
+		}
+		for (FitnessKernel kernel : new FitnessKernel[] { FitnessKernel.scalar(), vector }) {
+			if (kernel == null) {
+				continue;
+			}
+			sequence.setTotals(0, 0, 0L, 0L);
+			sequence.recomputeTotals(kernel);
+			String what = String.format("%s kernel on a genome of %d items of a catalog of %d", kernel.getName(),
+					length, catalog.size());
+			check(sequence.getTotalWeight() == totalWeight && sequence.getTotalValue() == totalValue,
+					"%s: weight %d and value %d, expected %d and %d", what, sequence.getTotalWeight(),
+					sequence.getTotalValue(), totalWeight, totalValue);
+			check(sequence.getHashHigh() == hashHigh && sequence.getHashLow() == hashLow, "%s: the hash differs",
+					what);
+		}
+	}
+}
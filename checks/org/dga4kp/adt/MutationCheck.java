@@ -0,0 +1,134 @@
+package org.dga4kp.adt;
+
+import java.util.Random;
+
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks the mutation operators: the exact-bits mutation flips exactly the
+ * requested number of distinct bits, every set of bits equally often, also
+ * when one scratch table is reused for mutations of different sizes; the
+ * per-bit mutation flips nothing at rate 0, everything at rate 1 and every bit
+ * with the given probability otherwise. All mutations must keep the totals and
+ * the hash up to date and must not touch the bits after the end of the genome.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class MutationCheck extends Check {
+	// Number of mutations whose frequencies are counted
+	private static final int DRAWS = 200000;
+	// Allowed difference of a frequency from its probability in standard
+	// deviations of the frequency
+	private static final double DEVIATIONS = 6;
+	// Length and number of bits of the exact-bits mutation whose sets of
+	// flipped bits are counted, C(10, 3) = 120 sets
+	private static final int SET_LENGTH = 10;
+	private static final int SET_BITS = 3;
+	private static final double[] RATES = { 0.01, 0.1, 0.5, 0.9 };
+
+	@Override
+	public void run() {
+		Random randomGenerator = new Random(SEED);
+		ItemCatalog catalog = randomCatalog(LENGTHS[LENGTHS.length - 1], randomGenerator);
+		MutationTable table = new MutationTable();
+		for (int length : LENGTHS) {
+			for (int numberOfBits : new int[] { 0, 1, 2, 3, length / 2, length - 1, length, length + 5, 3 }) {
+				OrderedItemSequence sequence = new OrderedItemSequence(catalog, length, randomGenerator);
+				OrderedItemSequence original = new OrderedItemSequence(sequence);
+				sequence.mutateExactBits(randomGenerator, numberOfBits, table);
+				String what = String.format("exact-bits mutation of %d bits of %d", numberOfBits, length);
+				int flipped = difference(sequence, original);
+				check(flipped == Math.max(0, Math.min(numberOfBits, length)), "%s flipped %d bits", what, flipped);
+				checkMutated(sequence, what);
+			}
+			OrderedItemSequence sequence = new OrderedItemSequence(catalog, length, randomGenerator);
+			OrderedItemSequence original = new OrderedItemSequence(sequence);
+			sequence.mutatePerBit(randomGenerator, 0);
+			check(difference(sequence, original) == 0, "per-bit mutation of %d bits at rate 0 flipped bits",
+					length);
+			sequence.mutatePerBit(randomGenerator, 1);
+			check(difference(sequence, original) == length, "per-bit mutation of %d bits at rate 1 flipped %d bits",
+					length, difference(sequence, original));
+			checkMutated(sequence, "per-bit mutation at rate 1 of " + length + " bits");
+			for (double rate : RATES) {
+				sequence.mutatePerBit(randomGenerator, rate);
+				checkMutated(sequence, "per-bit mutation at rate " + rate + " of " + length + " bits");
+			}
+			sequence.mutate(randomGenerator);
+			checkMutated(sequence, "random draws mutation of " + length + " bits");
+		}
+		checkSetFrequencies(catalog, table, randomGenerator);
+		for (double rate : RATES) {
+			checkBitFrequencies(catalog, rate, randomGenerator);
+		}
+	}
+
+	private static void checkSetFrequencies(ItemCatalog catalog, MutationTable table, Random randomGenerator) {
+		OrderedItemSequence sequence = new OrderedItemSequence(catalog, SET_LENGTH, new long[1]);
+		int[] counts = new int[1 << SET_LENGTH];
+		for (int d = 0; d < DRAWS; d++) {
+			long before = sequence.getGenes()[0];
+			sequence.mutateExactBits(randomGenerator, SET_BITS, table);
+			counts[(int) (before ^ sequence.getGenes()[0])]++;
+		}
+		int sets = 0;
+		for (int set = 0; set < counts.length; set++) {
+			if (Integer.bitCount(set) == SET_BITS) {
+				sets++;
+			} else {
+				check(counts[set] == 0, "the exact-bits mutation flipped the %d bits %s", Integer.bitCount(set),
+						Integer.toBinaryString(set));
+			}
+		}
+		double probability = 1.0 / sets;
+		double deviation = Math.sqrt(probability * (1 - probability) / DRAWS);
+		for (int set = 0; set < counts.length; set++) {
+			if (Integer.bitCount(set) == SET_BITS) {
+				double frequency = (double) counts[set] / DRAWS;
+				check(Math.abs(frequency - probability) <= DEVIATIONS * deviation,
+						"the exact-bits mutation flipped the bits %s with frequency %.5f instead of %.5f",
+						Integer.toBinaryString(set), frequency, probability);
+			}
+		}
+	}
+
+	private static void checkBitFrequencies(ItemCatalog catalog, double rate, Random randomGenerator) {
+		int length = 129;
+		OrderedItemSequence sequence = new OrderedItemSequence(catalog, length, randomGenerator);
+		int[] counts = new int[length];
+		int draws = DRAWS / 10;
+		for (int d = 0; d < draws; d++) {
+			OrderedItemSequence before = new OrderedItemSequence(sequence);
+			sequence.mutatePerBit(randomGenerator, rate);
+			for (int i = 0; i < length; i++) {
+				if (sequence.get(i) != before.get(i)) {
+					counts[i]++;
+				}
+			}
+		}
+		double deviation = Math.sqrt(rate * (1 - rate) / draws);
+		for (int i = 0; i < length; i++) {
+			double frequency = (double) counts[i] / draws;
+			check(Math.abs(frequency - rate) <= DEVIATIONS * deviation,
+					"the per-bit mutation at rate %s flipped bit %d with frequency %.5f", rate, i, frequency);
+		}
+	}
+
+	private static int difference(OrderedItemSequence sequence, OrderedItemSequence original) {
+		int count = 0;
+		for (int w = 0; w < sequence.getGenes().length; w++) {
+			count += Long.bitCount(sequence.getGenes()[w] ^ original.getGenes()[w]);
+		}
+		return count;
+	}
+
+	private static void checkMutated(OrderedItemSequence sequence, String what) {
+		checkTotals(sequence, what);
+		int length = sequence.getLength();
+		long[] genes = sequence.getGenes();
+		check(length % 64 == 0 || (genes[genes.length - 1] >>> (length % 64)) == 0,
+				"%s set bits after the end of the genome", what);
+	}
+}
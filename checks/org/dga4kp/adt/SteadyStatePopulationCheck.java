@@ -0,0 +1,189 @@
+package org.dga4kp.adt;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.checks.Check;
+import org.dga4kp.stopping.ConvergenceCriterion;
+import org.dga4kp.stopping.GenerationLimitCriterion;
+import org.dga4kp.stopping.StoppingEngine;
+
+/**
+ * Checks SteadyStatePopulation under concurrent use: several threads offer
+ * the same children to random slots while others read the slots, and
+ * afterwards no genome may be in the population twice, no slot may have lost
+ * fitness and no read may have seen a half replaced individual. A steady-state
+ * evolution with several workers must end with a population of distinct,
+ * consistent individuals that fit into the backpack and a best sequence that
+ * is at least as fit as every individual.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class SteadyStatePopulationCheck extends Check {
+	private static final int NUMBER_OF_ITEMS = 130;
+	private static final int POPULATION_SIZE = 32;
+	// Children that all writers offer, so they compete for the same genomes
+	private static final int CHILDREN = 500;
+	private static final int WRITERS = 4;
+	private static final int READERS = 2;
+	private static final int OFFERS_PER_WRITER = 50000;
+	private static final int BACKPACK_LIMIT = 2000;
+
+	@Override
+	public void run() throws Exception {
+		Random randomGenerator = new Random(SEED);
+		ItemCatalog catalog = randomCatalog(NUMBER_OF_ITEMS, randomGenerator);
+		checkConcurrentReplacements(catalog, randomGenerator);
+		checkEvolution(catalog);
+	}
+
+	private static void checkConcurrentReplacements(ItemCatalog catalog, Random randomGenerator)
+			throws InterruptedException {
+		List<OrderedItemSequence> individuals = new ArrayList<OrderedItemSequence>();
+		Set<Long> hashes = new HashSet<Long>();
+		while (individuals.size() < POPULATION_SIZE) {
+			OrderedItemSequence individual = evaluated(new OrderedItemSequence(catalog, NUMBER_OF_ITEMS,
+					randomGenerator));
+			if (hashes.add(individual.getHashHigh())) {
+				individuals.add(individual);
+			}
+		}
+		int[] initialFitness = new int[POPULATION_SIZE];
+		for (int i = 0; i < POPULATION_SIZE; i++) {
+			initialFitness[i] = individuals.get(i).getFitnessValue();
+		}
+		final List<OrderedItemSequence> children = new ArrayList<OrderedItemSequence>();
+		for (int c = 0; c < CHILDREN; c++) {
+			// Copies of the individuals are offered as well, which must be
+			// rejected as duplicates
+			children.add(c % 10 == 0 ? new OrderedItemSequence(individuals.get(c % POPULATION_SIZE))
+					: evaluated(new OrderedItemSequence(catalog, NUMBER_OF_ITEMS, randomGenerator)));
+		}
+		final SteadyStatePopulation population = new SteadyStatePopulation(new Population(individuals));
+		final AtomicInteger replacements = new AtomicInteger();
+		final AtomicInteger writersRunning = new AtomicInteger(WRITERS);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < WRITERS; t++) {
+			final long seed = SEED + t;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Random random = new Random(seed);
+						for (int n = 0; n < OFFERS_PER_WRITER; n++) {
+							OrderedItemSequence child = children.get(random.nextInt(children.size()));
+							if (population.replace(random.nextInt(POPULATION_SIZE),
+									child) == SteadyStatePopulation.Replacement.REPLACED) {
+								replacements.incrementAndGet();
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						writersRunning.decrementAndGet();
+					}
+				}
+			}));
+		}
+		for (int t = 0; t < READERS; t++) {
+			final long seed = SEED - t;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Random random = new Random(seed);
+						OrderedItemSequence copy = new OrderedItemSequence(children.get(0));
+						while (writersRunning.get() > 0) {
+							int slot = random.nextInt(POPULATION_SIZE);
+							population.copyTo(slot, copy);
+							checkTotals(copy, "an individual copied under its read lock");
+							long stamp = population.tryOptimisticRead(slot);
+							copy.copyFrom(population.getIndividuals().get(slot));
+							if (population.validate(slot, stamp)) {
+								checkTotals(copy, "an individual read optimistically");
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure.get() != null) {
+			throw new AssertionError("a concurrent replacement failed", failure.get());
+		}
+		check(replacements.get() > 0, "no child replaced an individual");
+		hashes.clear();
+		for (int i = 0; i < POPULATION_SIZE; i++) {
+			OrderedItemSequence individual = individuals.get(i);
+			checkTotals(individual, "individual " + i);
+			check(individual.getFitnessValue() >= initialFitness[i], "slot %d lost fitness: %d, initially %d", i,
+					individual.getFitnessValue(), initialFitness[i]);
+			check(hashes.add(individual.getHashHigh()), "the genome of slot %d is in the population twice", i);
+		}
+		check(population.distinctGenomes() == POPULATION_SIZE, "%d genome hashes are kept for %d individuals",
+				population.distinctGenomes(), POPULATION_SIZE);
+	}
+
+	private static void checkEvolution(ItemCatalog catalog) throws Exception {
+		PopulationGenerator generator = new PopulationGenerator();
+		generator.seed = SEED;
+		generator.itemCatalog = catalog;
+		generator.numberOfItems = NUMBER_OF_ITEMS;
+		generator.backpackLimit = BACKPACK_LIMIT;
+		generator.populationSize = 200;
+		generator.doCrossobverProbability = 0.7;
+		generator.crossoverStrategy = CrossoverStrategy.UNIFORM_CROSSOVER;
+		generator.numberOfMutationBits = 2;
+		generator.percentageOfInheritedPopulation = 0.1;
+		generator.threadCount = 4;
+		generator.steadyState = true;
+		generator.stoppingEngine = new StoppingEngine().addCriterion(new GenerationLimitCriterion(200))
+				.addCriterion(new ConvergenceCriterion(0.95));
+		try {
+			generator.solve();
+		} finally {
+			generator.getWorkerPool().shutdown();
+		}
+		check(generator.generationNumber > 0, "the steady-state evolution did not finish a generation");
+		Set<Long> hashes = new HashSet<Long>();
+		for (OrderedItemSequence individual : generator.population.getIndividuals()) {
+			checkTotals(individual, "an evolved individual");
+			check(individual.getFitnessValue() == individual.getTotalValue(),
+					"an evolved individual has fitness value %d but total value %d", individual.getFitnessValue(),
+					individual.getTotalValue());
+			check(individual.getTotalWeight() <= BACKPACK_LIMIT, "an evolved individual weighs %d",
+					individual.getTotalWeight());
+			check(hashes.add(individual.getHashHigh()), "the evolved population contains clones");
+			check(individual.getFitnessValue() <= generator.bestFitnessValue,
+					"an individual of fitness value %d is better than the best sequence of %d",
+					individual.getFitnessValue(), generator.bestFitnessValue);
+		}
+		check(generator.bestFitnessSequence.getFitnessValue() == generator.bestFitnessValue
+				&& generator.bestFitnessSequence.getTotalValue() == generator.bestFitnessValue,
+				"the best sequence has fitness value %d and total value %d, expected %d",
+				generator.bestFitnessSequence.getFitnessValue(), generator.bestFitnessSequence.getTotalValue(),
+				generator.bestFitnessValue);
+		checkTotals(generator.bestFitnessSequence, "the best sequence");
+	}
+
+	private static OrderedItemSequence evaluated(OrderedItemSequence sequence) {
+		sequence.updateFitnessValue(null, sequence.getCatalog(), Integer.MAX_VALUE, RepairStrategy.RANDOM_REPAIR);
+		return sequence;
+	}
+}
@@ -0,0 +1,234 @@
+package org.dga4kp.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.RepairStrategy;
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks FitnessCache: a hit restores exactly the stored genome, totals,
+ * fitness value and hash and a miss leaves the sequence alone; random lookups
+ * and stores hit, miss and evict exactly as a plain model of the CLOCK policy
+ * of every set; several threads that look up and store the same genomes on
+ * caches whose sets share their locks never see a torn entry; and sizes that
+ * are not positive or whose genomes do not fit into an array are rejected.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class FitnessCacheCheck extends Check {
+	private static final int NUMBER_OF_ITEMS = 130;
+	private static final int BACKPACK_LIMIT = 500;
+	// Capacities of the caches that are compared with the model, from a
+	// single set to more sets than keys
+	private static final int[] CAPACITIES = { 1, 4, 5, 16, 64, 1024 };
+	// Number of different genomes that are looked up
+	private static final int KEYS = 300;
+	private static final int OPERATIONS = 100000;
+	// Capacities of the caches that are used concurrently, the last with
+	// more sets than locks
+	private static final int[] CONCURRENT_CAPACITIES = { 4, 64, 16384 };
+	private static final int THREADS = 4;
+	private static final int OPERATIONS_PER_THREAD = 200000;
+
+	@Override
+	public void run() throws Exception {
+		Random randomGenerator = new Random(SEED);
+		ItemCatalog catalog = randomCatalog(NUMBER_OF_ITEMS, randomGenerator);
+		// Overweight genomes and their repaired versions
+		List<OrderedItemSequence> keys = new ArrayList<OrderedItemSequence>();
+		List<OrderedItemSequence> repaired = new ArrayList<OrderedItemSequence>();
+		while (keys.size() < KEYS) {
+			OrderedItemSequence key = new OrderedItemSequence(catalog, NUMBER_OF_ITEMS, randomGenerator);
+			if (key.getTotalWeight() > BACKPACK_LIMIT) {
+				OrderedItemSequence sequence = new OrderedItemSequence(key);
+				sequence.updateFitnessValue(randomGenerator, catalog, BACKPACK_LIMIT, RepairStrategy.RANDOM_REPAIR);
+				keys.add(key);
+				repaired.add(sequence);
+			}
+		}
+		checkHitAndMiss(keys, repaired);
+		for (int capacity : CAPACITIES) {
+			checkClock(capacity, keys, repaired, randomGenerator);
+		}
+		for (int capacity : CONCURRENT_CAPACITIES) {
+			checkConcurrentUse(capacity, keys, repaired);
+		}
+		checkSizes();
+	}
+
+	private static void checkHitAndMiss(List<OrderedItemSequence> keys, List<OrderedItemSequence> repaired) {
+		FitnessCache cache = new FitnessCache(KEYS * 4, NUMBER_OF_ITEMS);
+		OrderedItemSequence key = keys.get(0);
+		OrderedItemSequence sequence = new OrderedItemSequence(key);
+		check(!cache.lookup(sequence) && sameSequence(sequence, key),
+				"a lookup in an empty cache hit or changed the sequence");
+		cache.store(key.getHashHigh(), key.getHashLow(), repaired.get(0));
+		check(cache.lookup(sequence), "the stored genome was not found");
+		check(sameSequence(sequence, repaired.get(0)),
+				"a hit restored fitness value %d, weight %d and value %d instead of %d, %d and %d",
+				sequence.getFitnessValue(), sequence.getTotalWeight(), sequence.getTotalValue(),
+				repaired.get(0).getFitnessValue(), repaired.get(0).getTotalWeight(), repaired.get(0).getTotalValue());
+		checkTotals(sequence, "a restored sequence");
+		check(!cache.lookup(new OrderedItemSequence(keys.get(1))), "an unknown genome was found");
+		check(cache.getHits() == 1 && cache.getMisses() == 2 && cache.getEvictions() == 0,
+				"%d hits, %d misses and %d evictions counted instead of 1, 2 and 0", cache.getHits(), cache.getMisses(),
+				cache.getEvictions());
+	}
+
+	private static void checkClock(int capacity, List<OrderedItemSequence> keys, List<OrderedItemSequence> repaired,
+			Random randomGenerator) {
+		FitnessCache cache = new FitnessCache(capacity, NUMBER_OF_ITEMS);
+		check(cache.getCapacity() >= capacity && Integer.bitCount(cache.getCapacity()) == 1
+				&& cache.getCapacity() % FitnessCache.WAYS == 0, "a cache of %d entries has %d entries", capacity,
+				cache.getCapacity());
+		ClockModel model = new ClockModel(cache.getCapacity() / FitnessCache.WAYS);
+		// A small working set, so that entries are hit as well as evicted
+		int workingSet = Math.min(KEYS, 2 * cache.getCapacity());
+		for (int n = 0; n < OPERATIONS; n++) {
+			int k = randomGenerator.nextInt(workingSet);
+			OrderedItemSequence key = keys.get(k);
+			OrderedItemSequence sequence = new OrderedItemSequence(key);
+			boolean hit = cache.lookup(sequence);
+			check(hit == model.lookup(key.getHashLow(), k), "operation %d in a cache of %d entries: %s instead of %s",
+					n, capacity, hit ? "a hit" : "a miss", hit ? "a miss" : "a hit");
+			if (hit) {
+				check(sameSequence(sequence, repaired.get(k)), "operation %d restored another genome", n);
+			} else {
+				cache.store(key.getHashHigh(), key.getHashLow(), repaired.get(k));
+				model.store(key.getHashLow(), k);
+			}
+		}
+		check(cache.getEvictions() == model.evictions && cache.getHits() == model.hits,
+				"a cache of %d entries counted %d hits and %d evictions, the model %d and %d", capacity,
+				cache.getHits(), cache.getEvictions(), model.hits, model.evictions);
+		check(capacity >= KEYS || model.evictions > 0, "a cache of %d entries did not evict", capacity);
+	}
+
+	private static void checkConcurrentUse(int capacity, final List<OrderedItemSequence> keys,
+			final List<OrderedItemSequence> repaired) throws InterruptedException {
+		final FitnessCache cache = new FitnessCache(capacity, NUMBER_OF_ITEMS);
+		final AtomicLong lookups = new AtomicLong();
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < THREADS; t++) {
+			final long seed = SEED + t;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Random random = new Random(seed);
+						OrderedItemSequence sequence = new OrderedItemSequence(keys.get(0));
+						for (int n = 0; n < OPERATIONS_PER_THREAD; n++) {
+							int k = random.nextInt(KEYS);
+							OrderedItemSequence key = keys.get(k);
+							sequence.copyFrom(key);
+							lookups.incrementAndGet();
+							if (cache.lookup(sequence)) {
+								check(sameSequence(sequence, repaired.get(k)),
+										"a concurrent hit restored a torn entry");
+							} else {
+								cache.store(key.getHashHigh(), key.getHashLow(), repaired.get(k));
+							}
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure.get() != null) {
+			throw new AssertionError("a concurrent use of a cache of " + capacity + " entries failed", failure.get());
+		}
+		check(cache.getHits() + cache.getMisses() == lookups.get() && cache.getHits() > 0,
+				"a cache of %d entries counted %d hits and %d misses of %d lookups", capacity, cache.getHits(),
+				cache.getMisses(), lookups.get());
+	}
+
+	private static void checkSizes() {
+		int[][] rejected = { { 0, 10 }, { -1, 10 }, { Integer.MIN_VALUE, 10 }, { Integer.MAX_VALUE, 1 },
+				{ Integer.MAX_VALUE - 3, 64 }, { 1 << 28, 1000 }, { 1 << 25, 100000 } };
+		for (int[] size : rejected) {
+			try {
+				FitnessCache cache = new FitnessCache(size[0], size[1]);
+				throw new AssertionError(String.format("a cache of %d entries of %d items was created with %d entries",
+						size[0], size[1], cache.getCapacity()));
+			} catch (IllegalArgumentException e) {
+				// Rejected as expected
+			}
+		}
+	}
+
+	private static boolean sameSequence(OrderedItemSequence sequence, OrderedItemSequence expected) {
+		return Arrays.equals(sequence.getGenes(), expected.getGenes())
+				&& sequence.getFitnessValue() == expected.getFitnessValue()
+				&& sequence.getTotalWeight() == expected.getTotalWeight()
+				&& sequence.getTotalValue() == expected.getTotalValue()
+				&& sequence.getHashHigh() == expected.getHashHigh() && sequence.getHashLow() == expected.getHashLow();
+	}
+
+	/**
+	 * Sets of keys replaced by the CLOCK policy, one entry at a time.
+	 */
+	private static class ClockModel {
+		private int sets;
+		private int[][] keys;
+		private boolean[][] referenced;
+		private int[] hands;
+		private long hits;
+		private long evictions;
+
+		ClockModel(int sets) {
+			this.sets = sets;
+			this.keys = new int[sets][FitnessCache.WAYS];
+			this.referenced = new boolean[sets][FitnessCache.WAYS];
+			this.hands = new int[sets];
+			for (int[] set : keys) {
+				Arrays.fill(set, -1);
+			}
+		}
+
+		boolean lookup(long hashLow, int key) {
+			int set = (int) hashLow & (sets - 1);
+			for (int way = 0; way < FitnessCache.WAYS; way++) {
+				if (keys[set][way] == key) {
+					referenced[set][way] = true;
+					hits++;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void store(long hashLow, int key) {
+			int set = (int) hashLow & (sets - 1);
+			for (int way = 0; way < FitnessCache.WAYS; way++) {
+				if (keys[set][way] < 0) {
+					keys[set][way] = key;
+					return;
+				}
+			}
+			while (referenced[set][hands[set]]) {
+				referenced[set][hands[set]] = false;
+				hands[set] = (hands[set] + 1) % FitnessCache.WAYS;
+			}
+			keys[set][hands[set]] = key;
+			hands[set] = (hands[set] + 1) % FitnessCache.WAYS;
+			evictions++;
+		}
+	}
+}
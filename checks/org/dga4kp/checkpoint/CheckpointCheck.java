@@ -0,0 +1,168 @@
+package org.dga4kp.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.Population;
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks that a checkpoint written by CheckpointWriter is read back by
+ * Checkpoint with the same counters, random states, best sequence and
+ * population, also when only a prefix of the items is evolved or no best
+ * sequence has been found yet, and that checkpoints of another run,
+ * truncated files and files with corrupt counts of random states or
+ * individuals are rejected with an IOException.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class CheckpointCheck extends Check {
+	private static final int NUMBER_OF_ITEMS = 200;
+	private static final int BACKPACK_LIMIT = 2000;
+	private static final int POPULATION_SIZE = 7;
+	// Position of the number of random states in the file
+	private static final long STATES_COUNT_POSITION = 48;
+
+	@Override
+	public void run() throws IOException {
+		Random randomGenerator = new Random(SEED);
+		ItemCatalog catalog = randomCatalog(NUMBER_OF_ITEMS, randomGenerator);
+		Path directory = Files.createTempDirectory("dga4kp-checkpoint-check");
+		Path file = directory.resolve("run.ckpt");
+		try {
+			for (int genomeLength : new int[] { NUMBER_OF_ITEMS, 150, 64, 1 }) {
+				List<OrderedItemSequence> individuals = new ArrayList<OrderedItemSequence>();
+				for (int i = 0; i < POPULATION_SIZE; i++) {
+					OrderedItemSequence individual = new OrderedItemSequence(catalog, genomeLength,
+							randomGenerator);
+					individual.setFitnessValue(randomGenerator.nextInt(10000));
+					individuals.add(individual);
+				}
+				OrderedItemSequence best = new OrderedItemSequence(catalog, genomeLength, randomGenerator);
+				best.setFitnessValue(10000);
+				long[] randomStates = new long[6];
+				for (int s = 0; s < randomStates.length; s++) {
+					randomStates[s] = randomGenerator.nextLong();
+				}
+				write(file, catalog, genomeLength, individuals, best, randomStates);
+				Checkpoint checkpoint = Checkpoint.read(file, catalog, genomeLength, BACKPACK_LIMIT);
+				String what = String.format("checkpoint of genomes of %d items", genomeLength);
+				check(checkpoint.getGeneration() == 42 && checkpoint.getEvaluations() == 12345L
+						&& checkpoint.getElapsedNanos() == 987654321L, "%s: the counters differ: %s", what,
+						checkpoint);
+				check(Arrays.equals(checkpoint.getRandomStates(), randomStates), "%s: the random states differ",
+						what);
+				checkSequence(checkpoint.getBestSequence(), best, what + ", best sequence");
+				check(checkpoint.getIndividuals().size() == POPULATION_SIZE, "%s: %d individuals read", what,
+						checkpoint.getIndividuals().size());
+				for (int i = 0; i < POPULATION_SIZE; i++) {
+					checkSequence(checkpoint.getIndividuals().get(i), individuals.get(i),
+							what + ", individual " + i);
+				}
+
+				// Before the first generation there is no best sequence yet
+				write(file, catalog, genomeLength, individuals, new OrderedItemSequence(), randomStates);
+				OrderedItemSequence fittest = individuals.get(0);
+				for (OrderedItemSequence individual : individuals) {
+					if (individual.getFitnessValue() > fittest.getFitnessValue()) {
+						fittest = individual;
+					}
+				}
+				checkSequence(Checkpoint.read(file, catalog, genomeLength, BACKPACK_LIMIT).getBestSequence(),
+						fittest, what + " without a best sequence");
+
+				checkRejected(file, catalog, genomeLength == 1 ? 2 : genomeLength - 1, BACKPACK_LIMIT,
+						what + " read with another genome length");
+				checkRejected(file, catalog, genomeLength, BACKPACK_LIMIT + 1,
+						what + " read with another backpack limit");
+				try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+					channel.truncate(channel.size() - 1);
+				}
+				checkRejected(file, catalog, genomeLength, BACKPACK_LIMIT, "truncated " + what);
+				for (long size : new long[] { 0, 4, 12, STATES_COUNT_POSITION }) {
+					try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+						channel.truncate(size);
+					}
+					checkRejected(file, catalog, genomeLength, BACKPACK_LIMIT,
+							what + " truncated to " + size + " bytes");
+				}
+
+				// Counts that do not match the rest of the file
+				long populationSizePosition = STATES_COUNT_POSITION + 4 + 8 * randomStates.length;
+				for (int count : new int[] { -1, Integer.MIN_VALUE, Integer.MAX_VALUE, randomStates.length + 1,
+						randomStates.length - 1 }) {
+					write(file, catalog, genomeLength, individuals, best, randomStates);
+					overwrite(file, STATES_COUNT_POSITION, count);
+					checkRejected(file, catalog, genomeLength, BACKPACK_LIMIT,
+							what + " with " + count + " random states");
+				}
+				for (int count : new int[] { -1, Integer.MIN_VALUE, Integer.MAX_VALUE, POPULATION_SIZE + 1,
+						POPULATION_SIZE - 1 }) {
+					write(file, catalog, genomeLength, individuals, best, randomStates);
+					overwrite(file, populationSizePosition, count);
+					checkRejected(file, catalog, genomeLength, BACKPACK_LIMIT,
+							what + " with " + count + " individuals");
+				}
+
+				individuals.set(0, new OrderedItemSequence(catalog, genomeLength == 1 ? 2 : genomeLength - 1,
+						randomGenerator));
+				CheckpointWriter writer = new CheckpointWriter(file, 1, catalog, genomeLength, BACKPACK_LIMIT);
+				try {
+					writer.write(1, new Population(individuals), best, 0, 0, randomStates);
+					throw new AssertionError(what + ": an individual of another length was written");
+				} catch (IllegalArgumentException e) {
+					// Expected
+				} finally {
+					writer.close();
+				}
+			}
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".tmp"));
+			Files.deleteIfExists(directory);
+		}
+	}
+
+	private static void write(Path file, ItemCatalog catalog, int genomeLength,
+			List<OrderedItemSequence> individuals, OrderedItemSequence best, long[] randomStates) throws IOException {
+		CheckpointWriter writer = new CheckpointWriter(file, 1, catalog, genomeLength, BACKPACK_LIMIT);
+		writer.writeFinal(42, new Population(individuals), best, 12345L, 987654321L, randomStates);
+		writer.close();
+	}
+
+	private static void overwrite(Path file, long position, int value) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			channel.write((ByteBuffer) ByteBuffer.allocate(4).putInt(value).flip(), position);
+		}
+	}
+
+	private static void checkSequence(OrderedItemSequence read, OrderedItemSequence written, String what) {
+		check(read.getLength() == written.getLength() && Arrays.equals(read.getGenes(), written.getGenes()),
+				"%s: the genome differs", what);
+		check(read.getFitnessValue() == written.getFitnessValue(), "%s: fitness value %d, expected %d", what,
+				read.getFitnessValue(), written.getFitnessValue());
+		checkTotals(read, what);
+	}
+
+	private static void checkRejected(Path file, ItemCatalog catalog, int genomeLength, int backpackLimit,
+			String what) {
+		try {
+			Checkpoint.read(file, catalog, genomeLength, backpackLimit);
+		} catch (IOException e) {
+			return;
+		}
+		throw new AssertionError(String.format("the %s was accepted", what));
+	}
+}
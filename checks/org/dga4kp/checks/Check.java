@@ -0,0 +1,98 @@
+package org.dga4kp.checks;
+
+import java.util.Random;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * Check is a behaviour check of one component. It compares the optimized code
+ * with a straightforward reference on random but reproducible data and throws
+ * an AssertionError at the first difference. The checks are run by
+ * {@link CheckRunner}.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public abstract class Check {
+	// Seed of the random data, so that every run checks the same cases
+	public static final long SEED = 20161017L;
+
+	// Genome lengths around the word boundaries of the packed genomes
+	public static final int[] LENGTHS = { 1, 2, 63, 64, 65, 127, 128, 129, 200, 1000 };
+
+	public String getName() {
+		return getClass().getSimpleName();
+	}
+
+	/**
+	 * Runs the check.
+	 *
+	 * @throws Exception
+	 *             if the check could not be run
+	 * @throws AssertionError
+	 *             if the component does not behave as expected
+	 */
+	public abstract void run() throws Exception;
+
+	/**
+	 * Fails the check with the formatted message if the condition is false.
+	 */
+	public static void check(boolean condition, String format, Object... args) {
+		if (!condition) {
+			throw new AssertionError(String.format(format, args));
+		}
+	}
+
+	/**
+	 * Creates a catalog of items with values between 10 and 100 and weights
+	 * between 5 and 60.
+	 *
+	 * @param numberOfItems
+	 *            - the number of items
+	 * @param randomGenerator
+	 *            - the random generator of the check
+	 * @return the catalog
+	 */
+	public static ItemCatalog randomCatalog(int numberOfItems, Random randomGenerator) {
+		int[] values = new int[numberOfItems];
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			values[i] = 10 + randomGenerator.nextInt(91);
+			weights[i] = 5 + randomGenerator.nextInt(56);
+		}
+		return new ItemCatalog(values, weights);
+	}
+
+	/**
+	 * Fails the check if the totals of the sequence differ from the sums of
+	 * the values and weights of its selected items or its hash differs from
+	 * the hash of a copy whose totals are calculated from scratch.
+	 *
+	 * @param sequence
+	 *            - the sequence to check
+	 * @param what
+	 *            - the description of the sequence for the message
+	 */
+	public static void checkTotals(OrderedItemSequence sequence, String what) {
+		ItemCatalog catalog = sequence.getCatalog();
+		int totalWeight = 0;
+		int totalValue = 0;
+		for (int i = 0; i < sequence.getLength(); i++) {
+			if (sequence.get(i)) {
+				totalWeight += catalog.getWeight(i);
+				totalValue += catalog.getValue(i);
+			}
+		}
+		check(sequence.getTotalWeight() == totalWeight, "%s: total weight %d, expected %d", what,
+				sequence.getTotalWeight(), totalWeight);
+		check(sequence.getTotalValue() == totalValue, "%s: total value %d, expected %d", what,
+				sequence.getTotalValue(), totalValue);
+		OrderedItemSequence scratch = new OrderedItemSequence(catalog, sequence.getLength(),
+				sequence.getGenes().clone());
+		check(sequence.getHashHigh() == scratch.getHashHigh() && sequence.getHashLow() == scratch.getHashLow(),
+				"%s: hash %x%x, expected %x%x", what, sequence.getHashHigh(), sequence.getHashLow(),
+				scratch.getHashHigh(), scratch.getHashLow());
+	}
+}
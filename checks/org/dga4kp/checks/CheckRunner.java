@@ -0,0 +1,60 @@
+package org.dga4kp.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dga4kp.ResumeCheck;
+import org.dga4kp.adt.BatchEvaluatorCheck;
+import org.dga4kp.adt.CrossoverCheck;
+import org.dga4kp.adt.FitnessKernelCheck;
+import org.dga4kp.adt.MutationCheck;
+import org.dga4kp.adt.SteadyStatePopulationCheck;
+import org.dga4kp.cache.FitnessCacheCheck;
+import org.dga4kp.checkpoint.CheckpointCheck;
+import org.dga4kp.exact.DynamicProgrammingSolverCheck;
+import org.dga4kp.instance.InstanceLoaderCheck;
+import org.dga4kp.island.GenomeCodecCheck;
+import org.dga4kp.metrics.WorkerIdleCheck;
+import org.dga4kp.reduction.ReductionCheck;
+import org.dga4kp.selection.AliasTableCheck;
+import org.dga4kp.server.ProgressCheck;
+
+/**
+ * Runs the behaviour checks and exits with status 1 if one of them fails. The
+ * names of checks given as arguments, e.g. "CrossoverCheck", restrict the run
+ * to those checks.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class CheckRunner {
+	private static final Check[] CHECKS = { new CrossoverCheck(), new GenomeCodecCheck(), new AliasTableCheck(),
+			new CheckpointCheck(), new FitnessKernelCheck(), new BatchEvaluatorCheck(), new ResumeCheck(),
+			new InstanceLoaderCheck(), new SteadyStatePopulationCheck(), new MutationCheck(),
+			new WorkerIdleCheck(), new ProgressCheck(), new ReductionCheck(),
+			new DynamicProgrammingSolverCheck(), new FitnessCacheCheck() };
+
+	public static void main(String[] args) {
+		List<String> names = Arrays.asList(args);
+		int failed = 0;
+		for (Check check : CHECKS) {
+			if (!names.isEmpty() && !names.contains(check.getName())) {
+				continue;
+			}
+			long start = System.nanoTime();
+			try {
+				check.run();
+				System.out.println(String.format("OK     %s (%d ms)", check.getName(),
+						(System.nanoTime() - start) / 1000000));
+			} catch (Throwable e) {
+				failed++;
+				System.out.println(String.format("FAILED %s: %s", check.getName(), e));
+				e.printStackTrace(System.out);
+			}
+		}
+		if (failed > 0) {
+			System.exit(1);
+		}
+	}
+}
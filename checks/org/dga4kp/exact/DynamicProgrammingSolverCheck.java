@@ -0,0 +1,192 @@
+package org.dga4kp.exact;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks DynamicProgrammingSolver: the exact solutions of small random
+ * instances against a brute force search over all subsets, the exact
+ * solutions of instances whose capacities are split between the workers at
+ * word boundaries against a plain sequential dynamic program and, for items
+ * of the same weight, against the most valuable items that fit, and the seeds
+ * of scaled down instances, which must all fit into the real capacity, be
+ * distinct and be sorted best first, the first one optimal if nothing was
+ * scaled.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class DynamicProgrammingSolverCheck extends Check {
+	// Largest number of items of the instances that are searched exhaustively
+	private static final int BRUTE_FORCE_ITEMS = 14;
+	private static final int SMALL_INSTANCES = 300;
+	// Capacities around and above 2^16, from which on the capacities of an
+	// item are split between the workers, most of them not word aligned
+	private static final int[] LARGE_CAPACITIES = { (1 << 16) - 2, (1 << 16) - 1, 1 << 16, (1 << 17) + 13,
+			300007 };
+	private static final int LARGE_ITEMS = 40;
+	// Items of the weight of a word and a capacity of whole words above 2^16,
+	// so the solution passes every word boundary and thus every split of the
+	// capacities
+	private static final int WORD_ITEMS = 1100;
+	private static final int WORD_CAPACITY = (1 << 16) + Long.SIZE;
+	private static final int[] SEED_COUNTS = { 1, 2, 5, 20 };
+	// Cell limits of the scaled tables, from tables that fit without scaling
+	// down to tables of a few capacities
+	private static final long[] MAX_CELLS = { DynamicProgrammingSolver.DEFAULT_MAX_CELLS, 1 << 20, 1 << 16, 1 << 13 };
+
+	@Override
+	public void run() {
+		Random randomGenerator = new Random(SEED);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int n = 0; n < SMALL_INSTANCES; n++) {
+				int numberOfItems = 1 + randomGenerator.nextInt(BRUTE_FORCE_ITEMS);
+				ItemCatalog catalog = catalog(numberOfItems, 60, randomGenerator);
+				int capacity = randomGenerator.nextInt(30 * numberOfItems + 1);
+				checkSmall(catalog, numberOfItems, capacity, n % 2 == 0 ? pool : null);
+			}
+			for (int capacity : LARGE_CAPACITIES) {
+				ItemCatalog catalog = catalog(LARGE_ITEMS, 20000, randomGenerator);
+				checkLarge(catalog, capacity, pool);
+			}
+			checkWordWeights(randomGenerator, pool);
+			for (long maxCells : MAX_CELLS) {
+				for (int count : SEED_COUNTS) {
+					int numberOfItems = 20 + randomGenerator.nextInt(100);
+					ItemCatalog catalog = catalog(numberOfItems, 2000, randomGenerator);
+					int capacity = 1 + randomGenerator.nextInt(500 * numberOfItems);
+					checkScaled(catalog, numberOfItems, capacity, maxCells, count, pool);
+				}
+			}
+			checkUnmanageable(pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Returns a random catalog with some items that are worth nothing and some
+	 * that weigh nothing.
+	 */
+	private static ItemCatalog catalog(int numberOfItems, int maxWeight, Random randomGenerator) {
+		int[] values = new int[numberOfItems];
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			values[i] = randomGenerator.nextInt(10) == 0 ? 0 : 1 + randomGenerator.nextInt(1000);
+			weights[i] = randomGenerator.nextInt(20) == 0 ? 0 : 1 + randomGenerator.nextInt(maxWeight);
+		}
+		return new ItemCatalog(values, weights);
+	}
+
+	private static void checkSmall(ItemCatalog catalog, int numberOfItems, int capacity, ForkJoinPool pool) {
+		long best = 0;
+		for (int subset = 0; subset < 1 << numberOfItems; subset++) {
+			long weight = 0;
+			long value = 0;
+			for (int i = 0; i < numberOfItems; i++) {
+				if ((subset & (1 << i)) != 0) {
+					weight += catalog.getWeight(i);
+					value += catalog.getValue(i);
+				}
+			}
+			if (weight <= capacity) {
+				best = Math.max(best, value);
+			}
+		}
+		String what = String.format("an instance of %d items and capacity %d", numberOfItems, capacity);
+		checkSolution(new DynamicProgrammingSolver(catalog, numberOfItems, pool).solve(capacity), numberOfItems,
+				capacity, best, what);
+	}
+
+	private static void checkLarge(ItemCatalog catalog, int capacity, ForkJoinPool pool) {
+		// Plain dynamic program over the capacities, one item after the other
+		long[] best = new long[capacity + 1];
+		for (int i = 0; i < LARGE_ITEMS; i++) {
+			int weight = catalog.getWeight(i);
+			int value = catalog.getValue(i);
+			for (int x = capacity; x >= weight; x--) {
+				best[x] = Math.max(best[x], best[x - weight] + value);
+			}
+		}
+		String what = String.format("an instance of %d items and capacity %d", LARGE_ITEMS, capacity);
+		checkSolution(new DynamicProgrammingSolver(catalog, LARGE_ITEMS, pool).solve(capacity), LARGE_ITEMS,
+				capacity, best[capacity], what);
+	}
+
+	private static void checkWordWeights(Random randomGenerator, ForkJoinPool pool) {
+		int[] values = new int[WORD_ITEMS];
+		int[] weights = new int[WORD_ITEMS];
+		for (int i = 0; i < WORD_ITEMS; i++) {
+			values[i] = 1 + randomGenerator.nextInt(1000);
+			weights[i] = Long.SIZE;
+		}
+		// The optimum takes the most valuable items that fit
+		int[] sorted = values.clone();
+		Arrays.sort(sorted);
+		long best = 0;
+		for (int i = WORD_ITEMS - 1; i >= WORD_ITEMS - WORD_CAPACITY / Long.SIZE; i--) {
+			best += sorted[i];
+		}
+		checkSolution(new DynamicProgrammingSolver(new ItemCatalog(values, weights), WORD_ITEMS, pool)
+				.solve(WORD_CAPACITY), WORD_ITEMS, WORD_CAPACITY, best,
+				String.format("an instance of %d items of weight 64 and capacity %d", WORD_ITEMS, WORD_CAPACITY));
+	}
+
+	private static void checkSolution(OrderedItemSequence solution, int numberOfItems, int capacity, long best,
+			String what) {
+		check(solution.getLength() == numberOfItems, "%s: the solution has %d items", what, solution.getLength());
+		checkTotals(solution, what);
+		check(solution.getTotalWeight() <= capacity, "%s: the solution weighs %d", what, solution.getTotalWeight());
+		check(solution.getTotalValue() == best && solution.getFitnessValue() == best,
+				"%s: the solution is worth %d with fitness value %d, the optimum is %d", what,
+				solution.getTotalValue(), solution.getFitnessValue(), best);
+	}
+
+	private static void checkScaled(ItemCatalog catalog, int numberOfItems, int capacity, long maxCells, int count,
+			ForkJoinPool pool) {
+		DynamicProgrammingSolver solver = new DynamicProgrammingSolver(catalog, numberOfItems, pool);
+		String what = String.format("%d seeds of an instance of %d items and capacity %d in %d cells", count,
+				numberOfItems, capacity, maxCells);
+		List<OrderedItemSequence> seeds = solver.solveScaled(capacity, maxCells, count);
+		check(!seeds.isEmpty() && seeds.size() <= count, "%s: %d seeds", what, seeds.size());
+		for (int s = 0; s < seeds.size(); s++) {
+			OrderedItemSequence seed = seeds.get(s);
+			checkTotals(seed, what);
+			check(seed.getLength() == numberOfItems && seed.getTotalWeight() <= capacity
+					&& seed.getFitnessValue() == seed.getTotalValue(),
+					"%s: seed %d of %d items weighs %d and has fitness value %d and total value %d", what, s,
+					seed.getLength(), seed.getTotalWeight(), seed.getFitnessValue(), seed.getTotalValue());
+			if (s > 0) {
+				check(seed.getTotalValue() <= seeds.get(s - 1).getTotalValue(),
+						"%s: seed %d is better than seed %d", what, s, s - 1);
+			}
+			for (int t = 0; t < s; t++) {
+				check(!Arrays.equals(seed.getGenes(), seeds.get(t).getGenes()), "%s: seeds %d and %d are equal",
+						what, t, s);
+			}
+		}
+		if (DynamicProgrammingSolver.isManageable(numberOfItems, capacity, maxCells)) {
+			long best = solver.solve(capacity).getTotalValue();
+			check(seeds.get(0).getTotalValue() == best, "%s: the first seed is worth %d, the optimum is %d", what,
+					seeds.get(0).getTotalValue(), best);
+		}
+	}
+
+	private static void checkUnmanageable(ForkJoinPool pool) {
+		ItemCatalog catalog = catalog(1000, 100, new Random(SEED));
+		try {
+			new DynamicProgrammingSolver(catalog, 1000, pool).solveScaled(50000, 1000, 1);
+		} catch (IllegalArgumentException e) {
+			return;
+		}
+		throw new AssertionError("a table of 1000 items was scaled into 1000 cells");
+	}
+}
@@ -0,0 +1,129 @@
+package org.dga4kp.instance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks that InstanceLoader reads random instances in the two file and both
+ * single file formats, from files with and without the binary cache and from
+ * text in memory, with the values, weights and capacity they were written
+ * with, and that malformed texts, including negative and huge numbers of
+ * items, are rejected with an IOException before anything is allocated for
+ * them.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class InstanceLoaderCheck extends Check {
+	// Numbers of items of the random instances
+	private static final int[] SIZES = { 0, 1, 2, 100, 1000 };
+	// Texts that are no valid single file instances
+	private static final String[] MALFORMED = { "", "5", "-1 100\n", "-2147483648 100\n1 2\n",
+			"2147483647 100\n1 2\n", "1000000 100\n1 2\n3 4\n", "5 100\n1 2\n3 4\n", "3 100\n1 2\n3 4\n",
+			"2 100\n1 2\n3 x\n", "2 100\n1 2\n3 99999999999\n", "name\nc 100\n1,2,3,0\n", "name\nn -5\nc 100\n",
+			"name\nn 2147483647\nc 100\n1,2,3,0\n", "name\nn 3\nc 100\n1,2,3,0\n2,4,5,0\n" };
+
+	@Override
+	public void run() throws IOException {
+		Random randomGenerator = new Random(SEED);
+		Path directory = Files.createTempDirectory("dga4kp-instance-loader-check");
+		try {
+			for (int size : SIZES) {
+				int[] values = new int[size];
+				int[] weights = new int[size];
+				for (int i = 0; i < size; i++) {
+					// Include zeros and numbers of every length up to the
+					// largest int
+					values[i] = randomGenerator.nextInt(10) == 0 ? 0
+							: randomGenerator.nextInt(Integer.MAX_VALUE >> randomGenerator.nextInt(31));
+					weights[i] = randomGenerator.nextInt(Integer.MAX_VALUE >> randomGenerator.nextInt(31));
+				}
+				int capacity = randomGenerator.nextInt(Integer.MAX_VALUE);
+				checkFormats(directory, values, weights, capacity);
+			}
+			for (String text : MALFORMED) {
+				try {
+					InstanceLoader.read(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)), "text");
+				} catch (IOException e) {
+					continue;
+				}
+				throw new AssertionError(String.format("the malformed instance \"%s\" was accepted", text));
+			}
+		} finally {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+				for (Path file : files) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+
+	private static void checkFormats(Path directory, int[] values, int[] weights, int capacity) throws IOException {
+		StringBuilder valuesText = new StringBuilder();
+		StringBuilder weightsText = new StringBuilder();
+		StringBuilder sizeAndCapacityText = new StringBuilder();
+		StringBuilder pisingerText = new StringBuilder();
+		sizeAndCapacityText.append(values.length).append(' ').append(capacity).append('\n');
+		pisingerText.append("knapPI_1_").append(values.length).append("_1000_1\nn ").append(values.length)
+				.append("\nc ").append(capacity).append("\nz 0\ntime 0.00\n");
+		for (int i = 0; i < values.length; i++) {
+			valuesText.append(values[i]).append(i % 2 == 0 ? " " : "\r\n");
+			weightsText.append(weights[i]).append('\t');
+			sizeAndCapacityText.append(values[i]).append(' ').append(weights[i]).append('\n');
+			pisingerText.append(i + 1).append(',').append(values[i]).append(',').append(weights[i]).append(",0\n");
+		}
+		// A trailing instance of a Pisinger file is not read
+		pisingerText.append("-----\n\nknapPI_1_1_1000_2\nn 1\nc 5\nz 0\ntime 0.00\n1,7,7,0\n");
+		String what = String.format("instance of %d items", values.length);
+
+		Path valuesFile = write(directory, "values.txt", valuesText);
+		Path weightsFile = write(directory, "weights.txt", weightsText);
+		for (boolean useCache : new boolean[] { false, true, true }) {
+			checkInstance(InstanceLoader.load(valuesFile, weightsFile, useCache), values, weights,
+					KnapsackInstance.UNKNOWN_CAPACITY, what + " in value and weight files, cached " + useCache);
+		}
+		Path sizeAndCapacityFile = write(directory, "size.txt", sizeAndCapacityText);
+		Path pisingerFile = write(directory, "pisinger.csv", pisingerText);
+		for (boolean useCache : new boolean[] { false, true, true }) {
+			checkInstance(InstanceLoader.load(sizeAndCapacityFile, useCache), values, weights, capacity,
+					what + " in size and capacity format, cached " + useCache);
+			checkInstance(InstanceLoader.load(pisingerFile, useCache), values, weights, capacity,
+					what + " in Pisinger's format, cached " + useCache);
+		}
+		checkInstance(
+				InstanceLoader.read(
+						ByteBuffer.wrap(sizeAndCapacityText.toString().getBytes(StandardCharsets.US_ASCII)), "text"),
+				values, weights, capacity, what + " in size and capacity format in memory");
+		checkInstance(
+				InstanceLoader.read(ByteBuffer.wrap(pisingerText.toString().getBytes(StandardCharsets.US_ASCII)),
+						"text"),
+				values, weights, capacity, what + " in Pisinger's format in memory");
+	}
+
+	private static Path write(Path directory, String name, StringBuilder text) throws IOException {
+		return Files.write(directory.resolve(name), text.toString().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static void checkInstance(KnapsackInstance instance, int[] values, int[] weights, int capacity,
+			String what) {
+		ItemCatalog catalog = instance.getCatalog();
+		check(catalog.size() == values.length, "%s: %d items read", what, catalog.size());
+		for (int i = 0; i < values.length; i++) {
+			check(catalog.getValue(i) == values[i] && catalog.getWeight(i) == weights[i],
+					"%s: item %d has value %d and weight %d, expected %d and %d", what, i, catalog.getValue(i),
+					catalog.getWeight(i), values[i], weights[i]);
+		}
+		check(instance.getCapacity() == capacity, "%s: capacity %d, expected %d", what, instance.getCapacity(),
+				capacity);
+	}
+}
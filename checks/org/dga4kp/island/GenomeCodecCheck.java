@@ -0,0 +1,91 @@
+package org.dga4kp.island;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks that batches of migrants survive the round trip through GenomeCodec
+ * with their genomes, fitness values and totals, and that batches that do not
+ * belong to the local run are rejected.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class GenomeCodecCheck extends Check {
+	// Number of migrants per batch
+	private static final int MIGRANTS = 5;
+
+	@Override
+	public void run() throws IOException {
+		Random randomGenerator = new Random(SEED);
+		ItemCatalog catalog = randomCatalog(LENGTHS[LENGTHS.length - 1], randomGenerator);
+		for (int length : LENGTHS) {
+			List<OrderedItemSequence> migrants = new ArrayList<OrderedItemSequence>();
+			for (int i = 0; i < MIGRANTS; i++) {
+				OrderedItemSequence migrant = new OrderedItemSequence(catalog, length, randomGenerator);
+				migrant.setFitnessValue(randomGenerator.nextInt(1000));
+				migrants.add(migrant);
+			}
+			byte[] batch = encode(migrants);
+			check(batch.length == 3 * 4 + MIGRANTS * (2 * 4 + 8 * OrderedItemSequence.wordCount(length)),
+					"a batch of %d genomes of %d items has %d bytes", MIGRANTS, length, batch.length);
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch));
+			List<OrderedItemSequence> received = GenomeCodec.readBatch(in, catalog, length);
+			check(in.read() < 0, "the batch of genomes of %d items is not read to its end", length);
+			check(received.size() == MIGRANTS, "%d of %d migrants of %d items received", received.size(),
+					MIGRANTS, length);
+			for (int i = 0; i < MIGRANTS; i++) {
+				OrderedItemSequence sent = migrants.get(i);
+				OrderedItemSequence migrant = received.get(i);
+				String what = String.format("migrant %d of %d items", i, length);
+				check(migrant.getLength() == length && Arrays.equals(migrant.getGenes(), sent.getGenes()),
+						"%s: the genome differs", what);
+				check(migrant.getFitnessValue() == sent.getFitnessValue(), "%s: fitness value %d, expected %d",
+						what, migrant.getFitnessValue(), sent.getFitnessValue());
+				checkTotals(migrant, what);
+			}
+			if (length > 1) {
+				checkRejected(batch, catalog, length - 1, "genomes of another length");
+			}
+		}
+		byte[] batch = encode(new ArrayList<OrderedItemSequence>());
+		checkRejected(replaceInt(batch, 0, 0), catalog, 1, "a batch without the magic number");
+		checkRejected(replaceInt(batch, 8, -1), catalog, 1, "a negative number of migrants");
+		checkRejected(replaceInt(batch, 8, GenomeCodec.MAX_MIGRANTS + 1), catalog, 1, "too many migrants");
+	}
+
+	private static byte[] encode(List<OrderedItemSequence> migrants) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GenomeCodec.writeBatch(new DataOutputStream(bytes), 1, migrants);
+		return bytes.toByteArray();
+	}
+
+	private static byte[] replaceInt(byte[] batch, int offset, int value) {
+		byte[] copy = batch.clone();
+		for (int b = 0; b < 4; b++) {
+			copy[offset + b] = (byte) (value >>> (24 - 8 * b));
+		}
+		return copy;
+	}
+
+	private static void checkRejected(byte[] batch, ItemCatalog catalog, int numberOfItems, String what) {
+		try {
+			GenomeCodec.readBatch(new DataInputStream(new ByteArrayInputStream(batch)), catalog, numberOfItems);
+		} catch (IOException e) {
+			return;
+		}
+		throw new AssertionError(String.format("a batch with %s was accepted", what));
+	}
+}
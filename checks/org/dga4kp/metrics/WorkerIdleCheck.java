@@ -0,0 +1,85 @@
+package org.dga4kp.metrics;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.adt.CrossoverStrategy;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.checks.Check;
+import org.dga4kp.stopping.GenerationLimitCriterion;
+import org.dga4kp.stopping.StoppingEngine;
+
+/**
+ * Checks the worker idle time of the generational and the steady-state
+ * evolution: on its own pool a solver never reports more idle time than its
+ * workers spent in the generations, and on a pool shared with other solvers,
+ * whose workers outnumber its threads, it reports none.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class WorkerIdleCheck extends Check {
+	private static final int NUMBER_OF_ITEMS = 200;
+	private static final int BACKPACK_LIMIT = 2000;
+	private static final int GENERATIONS = 30;
+	private static final int POOL_THREADS = 4;
+
+	@Override
+	public void run() throws Exception {
+		ItemCatalog catalog = randomCatalog(NUMBER_OF_ITEMS, new Random(SEED));
+		ForkJoinPool pool = new ForkJoinPool(POOL_THREADS);
+		try {
+			for (boolean steadyState : new boolean[] { false, true }) {
+				for (int threadCount : new int[] { 1, POOL_THREADS }) {
+					PopulationGenerator own = generator(new PopulationGenerator(), catalog, threadCount, steadyState);
+					try {
+						own.solve();
+					} finally {
+						own.getWorkerPool().shutdown();
+					}
+					EvolutionMetrics metrics = own.metrics;
+					String what = String.format("%s evolution with %d threads on its own pool",
+							steadyState ? "a steady-state" : "a generational", threadCount);
+					check(metrics.getTotalWorkerIdleMillis() >= 0, "%s reported %.3f ms idle time", what,
+							metrics.getTotalWorkerIdleMillis());
+					check(metrics.getTotalWorkerIdleMillis() <= threadCount * metrics.getTotalGenerationMillis(),
+							"%s reported %.3f ms idle time in %.3f ms", what, metrics.getTotalWorkerIdleMillis(),
+							metrics.getTotalGenerationMillis());
+
+					PopulationGenerator shared = generator(new PopulationGenerator(pool), catalog, threadCount,
+							steadyState);
+					shared.solve();
+					what = String.format("%s evolution with %d threads on a shared pool",
+							steadyState ? "a steady-state" : "a generational", threadCount);
+					check(shared.metrics.getTotalWorkerIdleMillis() == 0, "%s reported %.3f ms idle time", what,
+							shared.metrics.getTotalWorkerIdleMillis());
+					check(shared.metrics.getGeneration() > 0, "%s recorded no generation", what);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static PopulationGenerator generator(PopulationGenerator generator, ItemCatalog catalog,
+			int threadCount, boolean steadyState) {
+		generator.seed = SEED;
+		generator.itemCatalog = catalog;
+		generator.numberOfItems = NUMBER_OF_ITEMS;
+		generator.backpackLimit = BACKPACK_LIMIT;
+		generator.populationSize = 100;
+		generator.doCrossobverProbability = 0.7;
+		generator.crossoverStrategy = CrossoverStrategy.ONE_POINT_CROSSOVER;
+		generator.numberOfMutationBits = 2;
+		generator.percentageOfInheritedPopulation = 0.1;
+		generator.threadCount = threadCount;
+		generator.steadyState = steadyState;
+		generator.numberOfGenerations = GENERATIONS;
+		generator.stoppingEngine = new StoppingEngine().addCriterion(new GenerationLimitCriterion(GENERATIONS));
+		// Not registered, so the solvers do not replace each other's MBean
+		generator.metrics = new EvolutionMetrics();
+		return generator;
+	}
+}
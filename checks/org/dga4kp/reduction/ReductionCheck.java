@@ -0,0 +1,118 @@
+package org.dga4kp.reduction;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.checks.Check;
+import org.dga4kp.exact.DynamicProgrammingSolver;
+
+/**
+ * Checks InstanceReduction against the dynamic programming optimum on random
+ * uncorrelated, weakly and strongly correlated instances, with items that are
+ * worth nothing or heavier than the backpack and with capacities from none to
+ * more than all items weigh: the value of the fixed items plus the optimum of
+ * the core must be the optimum of the full instance, every item that is fixed
+ * in must be in the optimal solution, and the optimal core solution must map
+ * to an optimal solution of the full instance.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class ReductionCheck extends Check {
+	private static final int[] SIZES = { 1, 2, 3, 10, 50, 200 };
+	// Capacities as fractions of the total weight of the items
+	private static final double[] CAPACITIES = { 0, 0.05, 0.3, 0.5, 0.8, 0.99, 1.2 };
+	private static final int INSTANCES = 8;
+	// Items after the reduced ones that the catalog has as well
+	private static final int EXTRA_ITEMS = 5;
+
+	private enum Correlation {
+		UNCORRELATED, WEAKLY_CORRELATED, STRONGLY_CORRELATED
+	}
+
+	@Override
+	public void run() {
+		Random randomGenerator = new Random(SEED);
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			for (Correlation correlation : Correlation.values()) {
+				for (int size : SIZES) {
+					for (int n = 0; n < INSTANCES; n++) {
+						ItemCatalog catalog = catalog(correlation, size + EXTRA_ITEMS, randomGenerator);
+						long totalWeight = 0;
+						for (int i = 0; i < size; i++) {
+							totalWeight += catalog.getWeight(i);
+						}
+						for (double fraction : CAPACITIES) {
+							checkReduction(pool, catalog, size, (int) (fraction * totalWeight), String.format(
+									"%s instance %d of %d items, capacity %.2f", correlation, n, size, fraction));
+						}
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static ItemCatalog catalog(Correlation correlation, int numberOfItems, Random randomGenerator) {
+		int[] values = new int[numberOfItems];
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			weights[i] = 1 + randomGenerator.nextInt(100);
+			switch (correlation) {
+			case UNCORRELATED:
+				values[i] = 1 + randomGenerator.nextInt(100);
+				break;
+			case WEAKLY_CORRELATED:
+				values[i] = Math.max(1, weights[i] - 10 + randomGenerator.nextInt(21));
+				break;
+			default:
+				values[i] = weights[i] + 10;
+			}
+			// Items worth nothing are never in the backpack
+			if (randomGenerator.nextInt(20) == 0) {
+				values[i] = 0;
+			}
+		}
+		return new ItemCatalog(values, weights);
+	}
+
+	private static void checkReduction(ForkJoinPool pool, ItemCatalog catalog, int numberOfItems, int capacity,
+			String what) {
+		InstanceReduction reduction = InstanceReduction.reduce(catalog, numberOfItems, capacity);
+		OrderedItemSequence optimum = new DynamicProgrammingSolver(catalog, numberOfItems, pool).solve(capacity);
+		check(reduction.getFixedWeight() <= capacity, "%s: the fixed items weigh %d", what,
+				reduction.getFixedWeight());
+		check(reduction.getLowerBound() <= optimum.getTotalValue()
+				&& optimum.getTotalValue() <= reduction.getUpperBound() + 1e-6,
+				"%s: the optimum %d is not between the bounds %d and %.2f", what, optimum.getTotalValue(),
+				reduction.getLowerBound(), reduction.getUpperBound());
+		for (int id = 0; id < numberOfItems; id++) {
+			check(!reduction.isFixedIn(id) || optimum.get(id), "%s: item %d is fixed in but not in the optimum",
+					what, id);
+		}
+		OrderedItemSequence coreOptimum = reduction.getCoreSize() == 0 ? new OrderedItemSequence()
+				: new DynamicProgrammingSolver(reduction.getCoreCatalog(), reduction.getCoreSize(), pool)
+						.solve(reduction.getCoreCapacity());
+		long coreValue = reduction.getCoreSize() == 0 ? 0 : coreOptimum.getTotalValue();
+		check(reduction.getFixedValue() + coreValue == optimum.getTotalValue(),
+				"%s: the fixed items are worth %d and the core optimum %d, but the optimum is %d", what,
+				reduction.getFixedValue(), coreValue, optimum.getTotalValue());
+		for (int core = 0; core < reduction.getCoreSize(); core++) {
+			int id = reduction.getCoreItem(core);
+			check(catalog.getValue(id) == reduction.getCoreCatalog().getValue(core)
+					&& catalog.getWeight(id) == reduction.getCoreCatalog().getWeight(core)
+					&& !reduction.isFixedIn(id), "%s: core item %d is not item %d", what, core, id);
+		}
+		OrderedItemSequence full = reduction.bestFullSequence(coreOptimum);
+		check(full.getLength() == numberOfItems && full.getTotalWeight() <= capacity
+				&& full.getTotalValue() == optimum.getTotalValue() && full.getFitnessValue() == full.getTotalValue(),
+				"%s: the optimal core solution maps to value %d and weight %d, the optimum is %d", what,
+				full.getTotalValue(), full.getTotalWeight(), optimum.getTotalValue());
+		checkTotals(full, what + ", mapped optimum");
+	}
+}
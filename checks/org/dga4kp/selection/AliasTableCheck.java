@@ -0,0 +1,73 @@
+package org.dga4kp.selection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.checks.Check;
+
+/**
+ * Checks that the alias table draws every sequence with a frequency that is
+ * proportional to its fitness value, never draws a sequence with a fitness
+ * value of zero unless all are zero, and only draws from the current
+ * population when its arrays are reused for a smaller one.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class AliasTableCheck extends Check {
+	// Number of draws per table
+	private static final int DRAWS = 1000000;
+	// Allowed difference of a frequency from its probability in standard
+	// deviations of the frequency
+	private static final double DEVIATIONS = 6;
+
+	@Override
+	public void run() {
+		Random randomGenerator = new Random(SEED);
+		AliasTable table = new AliasTable();
+		checkDistribution(table, new int[] { 0, 1, 2, 3, 5, 8, 13, 21, 0, 400, 7, 1000 }, randomGenerator);
+		checkDistribution(table, new int[] { 0, 0, 0, 0 }, randomGenerator);
+		checkDistribution(table, new int[] { 42 }, randomGenerator);
+		checkDistribution(table, new int[] { 1, 1, 1, 1, 1, 1, 1 }, randomGenerator);
+		int[] fitnessValues = new int[500];
+		for (int i = 0; i < fitnessValues.length; i++) {
+			fitnessValues[i] = randomGenerator.nextInt(10) == 0 ? 0 : randomGenerator.nextInt(100000);
+		}
+		checkDistribution(table, fitnessValues, randomGenerator);
+		checkDistribution(table, new int[] { 3, 0, 9 }, randomGenerator);
+	}
+
+	private static void checkDistribution(AliasTable table, int[] fitnessValues, Random randomGenerator) {
+		List<OrderedItemSequence> sequences = new ArrayList<OrderedItemSequence>();
+		long sum = 0;
+		for (int fitnessValue : fitnessValues) {
+			OrderedItemSequence sequence = new OrderedItemSequence();
+			sequence.setFitnessValue(fitnessValue);
+			sequences.add(sequence);
+			sum += fitnessValue;
+		}
+		table.build(sequences);
+		int[] counts = new int[fitnessValues.length];
+		for (int d = 0; d < DRAWS; d++) {
+			int index = table.sample(randomGenerator);
+			check(index >= 0 && index < fitnessValues.length, "drew index %d from %d sequences", index,
+					fitnessValues.length);
+			counts[index]++;
+		}
+		for (int i = 0; i < fitnessValues.length; i++) {
+			double probability = sum == 0 ? 1.0 / fitnessValues.length : (double) fitnessValues[i] / sum;
+			double frequency = (double) counts[i] / DRAWS;
+			if (probability == 0) {
+				check(counts[i] == 0, "drew sequence %d of fitness value 0 %d times", i, counts[i]);
+				continue;
+			}
+			double deviation = Math.sqrt(probability * (1 - probability) / DRAWS);
+			check(Math.abs(frequency - probability) <= DEVIATIONS * deviation + 1e-9,
+					"drew sequence %d of %d with frequency %.5f instead of %.5f", i, fitnessValues.length, frequency,
+					probability);
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package org.dga4kp.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.dga4kp.Main;
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.adt.CrossoverStrategy;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.checks.Check;
+import org.dga4kp.instance.KnapsackInstance;
+import org.dga4kp.stopping.EvolutionProgress;
+import org.dga4kp.stopping.GenerationLimitCriterion;
+import org.dga4kp.stopping.ProgressListener;
+import org.dga4kp.stopping.StoppingCriterion;
+import org.dga4kp.stopping.StoppingEngine;
+import org.dga4kp.stopping.TargetFitnessCriterion;
+
+/**
+ * Checks the progress reports: the progress listener of a generational and a
+ * steady-state evolution is told every generation once and in order, up to and
+ * including the one after which a criterion stopped the evolution, with the
+ * best fitness value found by then, and a
+ * server job sends a progress line for every progress interval up to its last
+ * generation, whichever criterion stopped it.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class ProgressCheck extends Check {
+	private static final int NUMBER_OF_ITEMS = 150;
+	private static final int BACKPACK_LIMIT = 1500;
+	private static final int GENERATIONS = 20;
+	private static final int[] PROGRESS_INTERVALS = { 1, 4, 5, 7 };
+	private static final Pattern PROGRESS = Pattern.compile("progress job=\\d+ generation=(\\d+) .*");
+	private static final Pattern SOLUTION = Pattern.compile("solution job=\\d+ .* generations=(\\d+) .*");
+
+	@Override
+	public void run() throws Exception {
+		ItemCatalog catalog = randomCatalog(NUMBER_OF_ITEMS, new Random(SEED));
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			for (boolean steadyState : new boolean[] { false, true }) {
+				checkListener(pool, catalog, steadyState, new GenerationLimitCriterion(GENERATIONS));
+				// Stops after the first generation, as the initial population
+				// already reaches the target
+				checkListener(pool, catalog, steadyState, new TargetFitnessCriterion(1));
+			}
+			for (int progressInterval : PROGRESS_INTERVALS) {
+				checkJob(pool, catalog, progressInterval);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void checkListener(ForkJoinPool pool, ItemCatalog catalog, boolean steadyState,
+			StoppingCriterion criterion) throws Exception {
+		PopulationGenerator generator = new PopulationGenerator(pool);
+		generator.seed = SEED;
+		generator.itemCatalog = catalog;
+		generator.numberOfItems = NUMBER_OF_ITEMS;
+		generator.backpackLimit = BACKPACK_LIMIT;
+		generator.populationSize = 60;
+		generator.doCrossobverProbability = 0.7;
+		generator.crossoverStrategy = CrossoverStrategy.TWO_POINT_CROSSOVER;
+		generator.numberOfMutationBits = 2;
+		generator.percentageOfInheritedPopulation = 0.1;
+		generator.threadCount = 2;
+		generator.steadyState = steadyState;
+		generator.stoppingEngine = new StoppingEngine().addCriterion(criterion);
+		final List<Integer> generations = new ArrayList<Integer>();
+		final List<Integer> bestFitnessValues = new ArrayList<Integer>();
+		generator.progressListener = new ProgressListener() {
+			@Override
+			public void generationFinished(EvolutionProgress progress) {
+				generations.add(progress.getGeneration());
+				bestFitnessValues.add(progress.getBestFitnessValue());
+			}
+		};
+		generator.solve();
+		String what = String.format("%s evolution stopped by %s", steadyState ? "a steady-state" : "a generational",
+				criterion);
+		check(generations.size() == generator.generationNumber, "%s: %d generations reported of %d", what,
+				generations.size(), generator.generationNumber);
+		for (int i = 0; i < generations.size(); i++) {
+			check(generations.get(i) == i + 1, "%s: generation %d reported as %d", what, i + 1, generations.get(i));
+		}
+		// The steady-state workers that are still running when the evolution
+		// stops may improve the best sequence after the last generation
+		int lastBestFitnessValue = bestFitnessValues.isEmpty() ? -1
+				: bestFitnessValues.get(bestFitnessValues.size() - 1);
+		check(steadyState ? lastBestFitnessValue >= 0 && lastBestFitnessValue <= generator.bestFitnessValue
+				: lastBestFitnessValue == generator.bestFitnessValue,
+				"%s: the last report has the best fitness value %d, the evolution ended with %d", what,
+				lastBestFitnessValue, generator.bestFitnessValue);
+	}
+
+	private static void checkJob(ForkJoinPool pool, ItemCatalog catalog, int progressInterval) throws Exception {
+		int[] values = new int[NUMBER_OF_ITEMS];
+		int[] weights = new int[NUMBER_OF_ITEMS];
+		for (int i = 0; i < NUMBER_OF_ITEMS; i++) {
+			values[i] = catalog.getValue(i);
+			weights[i] = catalog.getWeight(i);
+		}
+		KnapsackInstance instance = new KnapsackInstance(new ItemCatalog(values, weights), BACKPACK_LIMIT);
+		CommandLine cl = new DefaultParser().parse(Main.createOptions(),
+				new String[] { "-seed", String.valueOf(SEED), "-populationSize", "60", "-numberOfThreads", "2",
+						"-numberOfGenerations", String.valueOf(GENERATIONS), "-doCrossoverProbability", "0.7",
+						"-crossoverStrategy", "2", "-percentageOfInheritedPopulation", "0.1",
+						"-numberOfMutationBits", "2", "-progressInterval", String.valueOf(progressInterval) });
+		SolveJob job = new SolveJob(1, cl, instance, pool);
+		job.run();
+		List<Integer> reported = new ArrayList<Integer>();
+		int generations = -1;
+		String event;
+		while ((event = job.nextEvent(0)) != null) {
+			Matcher progress = PROGRESS.matcher(event);
+			Matcher solution = SOLUTION.matcher(event);
+			if (progress.matches()) {
+				reported.add(Integer.parseInt(progress.group(1)));
+			} else if (solution.matches()) {
+				generations = Integer.parseInt(solution.group(1));
+			}
+		}
+		String what = String.format("a job with progress interval %d", progressInterval);
+		check(generations > 0, "%s sent no solution", what);
+		List<Integer> expected = new ArrayList<Integer>();
+		for (int generation = progressInterval; generation <= generations; generation += progressInterval) {
+			expected.add(generation);
+		}
+		check(reported.equals(expected), "%s of %d generations reported the generations %s instead of %s", what,
+				generations, reported, expected);
+	}
+}
@@ -1,10 +1,7 @@
 package org.dga4kp;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -14,9 +11,31 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.dga4kp.adt.BackpackItem;
 import org.dga4kp.adt.CrossoverStrategy;
-import org.dga4kp.adt.Population;
+import org.dga4kp.adt.FitnessKernel;
+import org.dga4kp.adt.FitnessKernelType;
+import org.dga4kp.adt.MutationStrategy;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.RepairStrategy;
+import org.dga4kp.adt.SelectionStrategy;
+import org.dga4kp.cache.FitnessCache;
+import org.dga4kp.checkpoint.Checkpoint;
+import org.dga4kp.checkpoint.CheckpointWriter;
+import org.dga4kp.instance.InstanceLoader;
+import org.dga4kp.instance.KnapsackInstance;
+import org.dga4kp.exact.DynamicProgrammingSolver;
+import org.dga4kp.island.IslandNode;
+import org.dga4kp.island.MigrationTopology;
+import org.dga4kp.reduction.InstanceReduction;
+import org.dga4kp.server.SolveServer;
+import org.dga4kp.stopping.ConvergenceCriterion;
+import org.dga4kp.stopping.CpuTimeBudgetCriterion;
+import org.dga4kp.stopping.EvaluationBudgetCriterion;
+import org.dga4kp.stopping.GenerationLimitCriterion;
+import org.dga4kp.stopping.StagnationCriterion;
+import org.dga4kp.stopping.StoppingEngine;
+import org.dga4kp.stopping.TargetFitnessCriterion;
+import org.dga4kp.stopping.WallClockBudgetCriterion;
 
 /**
  * Main flow
@@ -29,72 +48,356 @@ public class Main {
 	static Logger log = LogManager.getLogger(Main.class);
 
 	public static void main(String[] args) throws Exception {
-		Population initialPopulation = new Population();
-		Util.initializeRandomGenerator();
 		try {
-			Options opt = new Options();
-			opt.addOption("numberOfItems", true, "The number of items that we should choose from.");
-			opt.addOption("backpackWeightLimit", true, "The weight limit of the backpack.");
-			opt.addOption("populationSize", true, "The size of the population.");
-			opt.addOption("numberOfGenerations", true, "The numnber of generation.");
-			opt.addOption("percentageOfInheritedPopulation", true,
-					"The percentage of the population that will be inherited via elitism.");
-			opt.addOption("doCrossoverProbability", true, "The probrability to do a crossover for a certain sequence.");
-			opt.addOption("crossoverStrategy", true,
-					"1 for one-point crossover, 2 for two-point crossover and 3 for uniform crossover.");
-			opt.addOption("numberOfMutationBits", true, "The number of bits that will be mutated.");
-			opt.addOption("fileWithValues", true, "File with items' values.");
-			opt.addOption("fileWithWeights", true, "File with items' weights.");
-			opt.addOption("numberOfThreads", true, "Number of threads.");
-
+			Options opt = createOptions();
 			CommandLineParser parser = new DefaultParser();
 			CommandLine cl = parser.parse(opt, args);
 
-			if (cl.hasOption("numberOfItems") && cl.hasOption("populationSize") && cl.hasOption("fileWithValues")
-					&& cl.hasOption("fileWithWeights") && cl.hasOption("numberOfThreads")
-					&& cl.hasOption("backpackWeightLimit") && cl.hasOption("numberOfGenerations")
-					&& cl.hasOption("doCrossoverProbability") && cl.hasOption("crossoverStrategy")
-					&& cl.hasOption("percentageOfInheritedPopulation") && cl.hasOption("numberOfMutationBits")) {
-
-				// Read values and weights from file and put it in allItems
-				// array list
-				Scanner valuesScanner = new Scanner(new File(cl.getOptionValue("fileWithValues")));
-				Scanner weightScanner = new Scanner(new File(cl.getOptionValue("fileWithWeights")));
-				int index = 0;
-				PopulationGenerator.backpackItems = new HashMap<Integer, BackpackItem>();
-				PopulationGenerator.listOfBackpackItems = new ArrayList<BackpackItem>();
-				while (valuesScanner.hasNextInt() && weightScanner.hasNextInt()) {
-					BackpackItem item = new BackpackItem(index++, valuesScanner.nextInt(), weightScanner.nextInt());
-					PopulationGenerator.backpackItems.put(item.getId(), item);
-					PopulationGenerator.listOfBackpackItems.add(item);
+			boolean hasInstance = cl.hasOption("instanceFile")
+					|| (cl.hasOption("fileWithValues") && cl.hasOption("fileWithWeights"));
+			if (cl.hasOption("serverPort")) {
+				SolveServer server = new SolveServer(Integer.parseInt(cl.getOptionValue("serverPort")),
+						Integer.parseInt(cl.getOptionValue("maxConcurrentSolves", "2")),
+						Integer.parseInt(cl.getOptionValue("maxQueuedSolves", "64")),
+						Integer.parseInt(cl.getOptionValue("numberOfThreads",
+								String.valueOf(Runtime.getRuntime().availableProcessors()))),
+						args);
+				server.start();
+				server.awaitTermination();
+			} else if (hasInstance && hasSolveOptions(cl)
+					&& (cl.hasOption("backpackWeightLimit") || cl.hasOption("instanceFile"))) {
+
+				// Read values and weights from the instance files
+				boolean useCache = !cl.hasOption("noInstanceCache");
+				KnapsackInstance instance;
+				if (cl.hasOption("instanceFile")) {
+					instance = InstanceLoader.load(Paths.get(cl.getOptionValue("instanceFile")), useCache);
+				} else {
+					instance = InstanceLoader.load(Paths.get(cl.getOptionValue("fileWithValues")),
+							Paths.get(cl.getOptionValue("fileWithWeights")), useCache);
+				}
+				log.debug(String.format("Loaded %s", instance));
+				PopulationGenerator generator = new PopulationGenerator();
+				configure(generator, cl, instance);
+				log.info(String.format("Random seed: %d", generator.seed));
+
+				// Evolve only the items that cannot be fixed ahead of time
+				InstanceReduction reduction = null;
+				if (cl.hasOption("reduceInstance")) {
+					reduction = reduce(generator);
+					if (reduction.getCoreSize() == 0) {
+						log.info(String.format("Best fitness value: %s\n",
+								reduction.bestFullSequence(new OrderedItemSequence()).getFitnessValue()));
+						return;
+					}
+				}
+				long fixedValue = reduction == null ? 0 : reduction.getFixedValue();
+
+				configureEvaluation(generator, cl);
+				if (cl.hasOption("exactSolver")) {
+					if (DynamicProgrammingSolver.isManageable(generator.numberOfItems,
+							generator.backpackLimit, generator.maxTableCells)) {
+						OrderedItemSequence optimum = new DynamicProgrammingSolver(generator.itemCatalog,
+								generator.numberOfItems, generator.getWorkerPool())
+										.solve(generator.backpackLimit);
+						if (reduction != null) {
+							optimum = reduction.bestFullSequence(optimum);
+						}
+						log.info(String.format("Optimal fitness value: %s\n", optimum.getFitnessValue()));
+						return;
+					}
+					log.warn(String.format(
+							"The dynamic programming table of %d items and capacity %d exceeds %d cells, evolving instead",
+							generator.numberOfItems, generator.backpackLimit,
+							generator.maxTableCells));
+				}
+
+				StoppingEngine stoppingEngine = createStoppingEngine(cl, generator.numberOfGenerations, fixedValue);
+				generator.stoppingEngine = stoppingEngine;
+
+				if (cl.hasOption("islandAddresses")) {
+					generator.island = new IslandNode(Integer.parseInt(cl.getOptionValue("islandId", "0")),
+							IslandNode.parseAddresses(cl.getOptionValue("islandAddresses")),
+							MigrationTopology.findByKey(Integer.parseInt(cl.getOptionValue("migrationTopology", "1"))),
+							Integer.parseInt(cl.getOptionValue("migrationInterval", "10")),
+							Integer.parseInt(cl.getOptionValue("numberOfMigrants", "2")),
+							generator.itemCatalog, generator.numberOfItems, generator.backpackLimit);
+					generator.island.start();
+				}
+
+				if (cl.hasOption("checkpointFile")) {
+					generator.checkpointWriter = new CheckpointWriter(
+							Paths.get(cl.getOptionValue("checkpointFile")),
+							Integer.parseInt(cl.getOptionValue("checkpointInterval", "50")),
+							generator.itemCatalog, generator.numberOfItems, generator.backpackLimit);
+				}
+
+				// The main flow - budgets include the initial population
+				if (cl.hasOption("resumeFrom")) {
+					Checkpoint checkpoint = Checkpoint.read(Paths.get(cl.getOptionValue("resumeFrom")),
+							generator.itemCatalog, generator.numberOfItems, generator.backpackLimit);
+					log.info(String.format("Resuming from %s", checkpoint));
+					generator.resumeFrom(checkpoint);
+				}
+				try {
+					generator.solve();
+				} finally {
+					if (generator.island != null) {
+						generator.island.close();
+					}
+					if (generator.checkpointWriter != null) {
+						generator.checkpointWriter.close();
+					}
+				}
+				if (reduction != null) {
+					log.info(String.format("Best fitness value of the full instance: %s",
+							reduction.bestFullSequence(generator.bestFitnessSequence).getFitnessValue()));
 				}
-				PopulationGenerator.numberOfItems = Integer.parseInt(cl.getOptionValue("numberOfItems"));
-				PopulationGenerator.populationSize = Integer.parseInt(cl.getOptionValue("populationSize"));
-				PopulationGenerator.doCrossobverProbability = Double
-						.parseDouble(cl.getOptionValue("doCrossoverProbability"));
-				PopulationGenerator.crossoverStrategy = CrossoverStrategy
-						.findByKey(Integer.parseInt(cl.getOptionValue("crossoverStrategy")));
-				PopulationGenerator.numberOfMutationBits = Integer.parseInt(cl.getOptionValue("numberOfMutationBits"));
-				PopulationGenerator.backpackLimit = Integer.parseInt(cl.getOptionValue("backpackWeightLimit"));
-				PopulationGenerator.numberOfGenerations = Integer.parseInt(cl.getOptionValue("numberOfGenerations"));
-				PopulationGenerator.percentageOfInheritedPopulation = Double
-						.parseDouble(cl.getOptionValue("percentageOfInheritedPopulation"));
-				PopulationGenerator.threadCount = Integer.parseInt(cl.getOptionValue("numberOfThreads"));
-
-				// The main flow
-				initialPopulation = PopulationGenerator.generateInitialPopulation(PopulationGenerator.backpackItems);
-				initialPopulation.sort();
-				PopulationGenerator.population = new Population(initialPopulation);
-				PopulationGenerator.evolve();
 			} else {
 				HelpFormatter f = new HelpFormatter();
 				f.printHelp("Option Helper", opt);
 			}
 		} catch (ParseException e) {
 			e.printStackTrace();
-		} catch (FileNotFoundException e) {
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Returns the command line options of a solve and of the solve server.
+	 */
+	public static Options createOptions() {
+		Options opt = new Options();
+		opt.addOption("numberOfItems", true, "The number of items that we should choose from.");
+		opt.addOption("backpackWeightLimit", true, "The weight limit of the backpack.");
+		opt.addOption("populationSize", true, "The size of the population.");
+		opt.addOption("numberOfGenerations", true, "The numnber of generation.");
+		opt.addOption("percentageOfInheritedPopulation", true,
+				"The percentage of the population that will be inherited via elitism.");
+		opt.addOption("doCrossoverProbability", true, "The probrability to do a crossover for a certain sequence.");
+		opt.addOption("crossoverStrategy", true,
+				"1 for one-point crossover, 2 for two-point crossover and 3 for uniform crossover.");
+		opt.addOption("numberOfMutationBits", true, "The number of bits that will be mutated.");
+		opt.addOption("mutationStrategy", true,
+				"1 for numberOfItems random flips (default), 2 for flipping every bit with mutationRate and 3 for flipping exactly numberOfMutationBits distinct bits.");
+		opt.addOption("mutationRate", true,
+				"The probability to flip a bit with mutation strategy 2 (default numberOfMutationBits / numberOfItems).");
+		opt.addOption("fileWithValues", true, "File with items' values.");
+		opt.addOption("fileWithWeights", true, "File with items' weights.");
+		opt.addOption("instanceFile", true,
+				"Single instance file, either \"n capacity\" followed by \"value weight\" lines or a Pisinger benchmark file. Replaces fileWithValues and fileWithWeights.");
+		opt.addOption("noInstanceCache", false, "Do not read or write the binary cache of the instance.");
+		opt.addOption("fitnessKernel", true,
+				"1 for the scalar fitness kernel (default), 2 for the vector kernel and 0 to time both at startup and choose the faster one. The vector kernel needs --add-modules jdk.incubator.vector.");
+		opt.addOption("batchEvaluation", false,
+				"Evaluate the children of every chunk together on the transposed genomes and report the population diversity.");
+		opt.addOption("suppressDuplicates", false,
+				"Mutate children that are clones of other individuals of the next generation again before they are evaluated.");
+		opt.addOption("fitnessCacheSize", true,
+				"The number of repaired genomes kept in the fitness cache (default 0, no cache).");
+		opt.addOption("exactSolver", false,
+				"Solve the instance exactly by dynamic programming if its table fits into maxTableCells.");
+		opt.addOption("maxTableCells", true,
+				"The limit of the bits of the dynamic programming table, one per item and capacity plus 128 per capacity (default 2^30).");
+		opt.addOption("numberOfSeeds", true,
+				"The number of individuals of the initial population that are seeded with dynamic programming solutions (default 0).");
+		opt.addOption("reduceInstance", false,
+				"Fix items by comparing the LP relaxation bound with the greedy solution and evolve only the remaining core items.");
+		opt.addOption("steadyState", false,
+				"Evolve without generation barriers: every worker keeps replacing weaker individuals with its children and every populationSize evaluations count as a generation.");
+		opt.addOption("numberOfThreads", true, "Number of threads.");
+		opt.addOption("seed", true,
+				"Master seed of the random streams. Runs with the same seed and number of threads give the same result (default: random, logged).");
+		opt.addOption("repairStrategy", true,
+				"1 for random repair (default) and 2 for greedy value-to-weight ratio repair.");
+		opt.addOption("selectionStrategy", true,
+				"1 for uniform selection from the better half (default), 2 for tournament and 3 for roulette wheel selection.");
+		opt.addOption("tournamentSize", true, "The number of individuals in a tournament (default 2).");
+		opt.addOption("stagnationGenerations", true,
+				"Stop when the best fitness value has not improved for this many generations.");
+		opt.addOption("targetFitness", true, "Stop as soon as this fitness value is reached.");
+		opt.addOption("timeBudgetMillis", true, "Stop when this much wall-clock time has passed.");
+		opt.addOption("cpuTimeBudgetMillis", true, "Stop when the process has used this much CPU time.");
+		opt.addOption("evaluationBudget", true, "Stop after this many fitness evaluations.");
+		opt.addOption("islandAddresses", true,
+				"Comma separated host:port addresses of all islands. Enables the island model.");
+		opt.addOption("islandId", true, "The index of this island in islandAddresses.");
+		opt.addOption("migrationInterval", true, "The number of generations between two migrations (default 10).");
+		opt.addOption("numberOfMigrants", true,
+				"The number of best individuals sent to every neighbouring island (default 2).");
+		opt.addOption("migrationTopology", true, "1 for ring (default) and 2 for fully connected topology.");
+		opt.addOption("checkpointFile", true, "File that the state of the evolution is periodically saved to.");
+		opt.addOption("checkpointInterval", true,
+				"The number of generations between two checkpoints (default 50).");
+		opt.addOption("resumeFrom", true, "Checkpoint file to resume the evolution from.");
+		opt.addOption("serverPort", true,
+				"Start a solve server on this local port instead of solving an instance, see SolveServer.");
+		opt.addOption("maxConcurrentSolves", true, "The number of instances the server solves at a time (default 2).");
+		opt.addOption("maxQueuedSolves", true,
+				"The number of instances the server keeps waiting before it rejects new ones (default 64).");
+		opt.addOption("progressInterval", true,
+				"The number of generations between two progress lines of a server job (default 10, 0 for none).");
+		return opt;
+	}
+
+	/**
+	 * Returns true if the command line has all options of a solve except the
+	 * instance and its capacity.
+	 */
+	public static boolean hasSolveOptions(CommandLine cl) {
+		return cl.hasOption("populationSize") && cl.hasOption("numberOfThreads") && cl.hasOption("numberOfGenerations")
+				&& cl.hasOption("doCrossoverProbability") && cl.hasOption("crossoverStrategy")
+				&& cl.hasOption("percentageOfInheritedPopulation") && cl.hasOption("numberOfMutationBits");
+	}
+
+	/**
+	 * Sets the instance and the parameters of the genetic algorithm of a
+	 * generator from the command line.
+	 * 
+	 * @param generator
+	 *            - the generator to configure
+	 * @param cl
+	 *            - the command line
+	 * @param instance
+	 *            - the instance to solve
+	 */
+	public static void configure(PopulationGenerator generator, CommandLine cl, KnapsackInstance instance) {
+		if (cl.hasOption("seed")) {
+			generator.seed = Long.parseLong(cl.getOptionValue("seed"));
+		}
+		generator.itemCatalog = instance.getCatalog();
+		generator.numberOfItems = cl.hasOption("numberOfItems")
+				? Integer.parseInt(cl.getOptionValue("numberOfItems")) : instance.getCatalog().size();
+		generator.populationSize = Integer.parseInt(cl.getOptionValue("populationSize"));
+		generator.doCrossobverProbability = Double
+				.parseDouble(cl.getOptionValue("doCrossoverProbability"));
+		generator.crossoverStrategy = CrossoverStrategy
+				.findByKey(Integer.parseInt(cl.getOptionValue("crossoverStrategy")));
+		generator.numberOfMutationBits = Integer.parseInt(cl.getOptionValue("numberOfMutationBits"));
+		if (cl.hasOption("mutationStrategy")) {
+			generator.mutationStrategy = MutationStrategy
+					.findByKey(Integer.parseInt(cl.getOptionValue("mutationStrategy")));
+		}
+		if (cl.hasOption("mutationRate")) {
+			generator.mutationRate = Double.parseDouble(cl.getOptionValue("mutationRate"));
+		}
+		if (cl.hasOption("backpackWeightLimit")) {
+			generator.backpackLimit = Integer.parseInt(cl.getOptionValue("backpackWeightLimit"));
+		} else if (instance.hasCapacity()) {
+			generator.backpackLimit = instance.getCapacity();
+		} else {
+			throw new IllegalArgumentException(
+					"The instance file does not specify the capacity, set backpackWeightLimit!");
+		}
+		generator.numberOfGenerations = Integer.parseInt(cl.getOptionValue("numberOfGenerations"));
+		generator.percentageOfInheritedPopulation = Double
+				.parseDouble(cl.getOptionValue("percentageOfInheritedPopulation"));
+		generator.threadCount = Integer.parseInt(cl.getOptionValue("numberOfThreads"));
+		generator.steadyState = cl.hasOption("steadyState");
+		if (cl.hasOption("repairStrategy")) {
+			generator.repairStrategy = RepairStrategy
+					.findByKey(Integer.parseInt(cl.getOptionValue("repairStrategy")));
+		}
+
+		if (cl.hasOption("selectionStrategy")) {
+			generator.selectionStrategy = SelectionStrategy
+					.findByKey(Integer.parseInt(cl.getOptionValue("selectionStrategy")));
+		}
+		if (cl.hasOption("tournamentSize")) {
+			generator.tournamentSize = Integer.parseInt(cl.getOptionValue("tournamentSize"));
+		}
+	}
+
+	/**
+	 * Reduces the instance of a generator to its core items, see
+	 * InstanceReduction, and sets the core as the instance to evolve unless
+	 * no item is left.
+	 * 
+	 * @param generator
+	 *            - the configured generator
+	 * @return the reduction that maps the core solutions back to the full
+	 *         instance
+	 */
+	public static InstanceReduction reduce(PopulationGenerator generator) {
+		InstanceReduction reduction = InstanceReduction.reduce(generator.itemCatalog, generator.numberOfItems,
+				generator.backpackLimit);
+		log.info(reduction);
+		if (reduction.getCoreSize() > 0) {
+			generator.itemCatalog = reduction.getCoreCatalog();
+			generator.numberOfItems = reduction.getCoreSize();
+			generator.backpackLimit = reduction.getCoreCapacity();
+		}
+		return reduction;
+	}
+
+	/**
+	 * Sets how a generator evaluates its children from the command line. It is
+	 * called after the instance has been reduced, as the fitness kernel and
+	 * the cache depend on the evolved items.
+	 * 
+	 * @param generator
+	 *            - the configured generator
+	 * @param cl
+	 *            - the command line
+	 */
+	public static void configureEvaluation(PopulationGenerator generator, CommandLine cl) {
+		if (cl.hasOption("fitnessKernel")) {
+			generator.fitnessKernel = FitnessKernel.select(
+					FitnessKernelType.findByKey(Integer.parseInt(cl.getOptionValue("fitnessKernel"))),
+					generator.itemCatalog, generator.numberOfItems);
+		}
+		generator.suppressDuplicates = cl.hasOption("suppressDuplicates");
+		generator.batchEvaluation = cl.hasOption("batchEvaluation");
+		int fitnessCacheSize = Integer.parseInt(cl.getOptionValue("fitnessCacheSize", "0"));
+		if (fitnessCacheSize != 0) {
+			generator.fitnessCache = new FitnessCache(fitnessCacheSize, generator.numberOfItems);
+		}
+		if (cl.hasOption("maxTableCells")) {
+			generator.maxTableCells = Long.parseLong(cl.getOptionValue("maxTableCells"));
+		}
+		if (cl.hasOption("numberOfSeeds")) {
+			generator.numberOfSeeds = Integer.parseInt(cl.getOptionValue("numberOfSeeds"));
+		}
+	}
+
+	/**
+	 * Returns the stopping engine with the criteria of the command line.
+	 * 
+	 * @param cl
+	 *            - the command line
+	 * @param numberOfGenerations
+	 *            - the generation limit
+	 * @param fixedValue
+	 *            - the value of the items fixed by the instance reduction,
+	 *            which the target fitness is reduced by
+	 * @return the stopping engine
+	 */
+	public static StoppingEngine createStoppingEngine(CommandLine cl, int numberOfGenerations, long fixedValue) {
+		StoppingEngine stoppingEngine = new StoppingEngine()
+				.addCriterion(new GenerationLimitCriterion(numberOfGenerations))
+				.addCriterion(new ConvergenceCriterion(0.95));
+		if (cl.hasOption("stagnationGenerations")) {
+			stoppingEngine.addCriterion(
+					new StagnationCriterion(Integer.parseInt(cl.getOptionValue("stagnationGenerations"))));
+		}
+		if (cl.hasOption("targetFitness")) {
+			stoppingEngine.addCriterion(new TargetFitnessCriterion(
+					(int) (Integer.parseInt(cl.getOptionValue("targetFitness")) - fixedValue)));
+		}
+		if (cl.hasOption("timeBudgetMillis")) {
+			stoppingEngine.addCriterion(
+					new WallClockBudgetCriterion(Long.parseLong(cl.getOptionValue("timeBudgetMillis"))));
+		}
+		if (cl.hasOption("cpuTimeBudgetMillis")) {
+			stoppingEngine.addCriterion(
+					new CpuTimeBudgetCriterion(Long.parseLong(cl.getOptionValue("cpuTimeBudgetMillis"))));
+		}
+		if (cl.hasOption("evaluationBudget")) {
+			stoppingEngine.addCriterion(
+					new EvaluationBudgetCriterion(Long.parseLong(cl.getOptionValue("evaluationBudget"))));
+		}
+		return stoppingEngine;
+	}
+
 }
@@ -3,21 +3,50 @@ package org.dga4kp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.dga4kp.adt.BackpackItem;
+import org.dga4kp.adt.BatchEvaluator;
 import org.dga4kp.adt.CrossoverStrategy;
+import org.dga4kp.adt.FitnessKernel;
+import org.dga4kp.adt.GenerationStatistics;
+import org.dga4kp.adt.GenomeHashSet;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.MutationStrategy;
+import org.dga4kp.adt.MutationTable;
 import org.dga4kp.adt.OrderedItemSequence;
 import org.dga4kp.adt.Population;
+import org.dga4kp.adt.RepairStrategy;
+import org.dga4kp.adt.SelectionStrategy;
+import org.dga4kp.adt.SteadyStatePopulation;
+import org.dga4kp.cache.FitnessCache;
+import org.dga4kp.checkpoint.Checkpoint;
+import org.dga4kp.checkpoint.CheckpointWriter;
+import org.dga4kp.exact.DynamicProgrammingSolver;
+import org.dga4kp.island.IslandNode;
+import org.dga4kp.metrics.EvolutionMetrics;
+import org.dga4kp.metrics.GenerationMetrics;
+import org.dga4kp.random.XoroshiroRandom;
 import org.dga4kp.runners.EvolutionRunner;
 import org.dga4kp.runners.InitialPopulationRunner;
+import org.dga4kp.runners.SteadyStateRunner;
+import org.dga4kp.selection.ParentSelector;
+import org.dga4kp.stopping.ConvergenceCriterion;
+import org.dga4kp.stopping.EvolutionProgress;
+import org.dga4kp.stopping.GenerationLimitCriterion;
+import org.dga4kp.stopping.ProgressListener;
+import org.dga4kp.stopping.StoppingEngine;
 
 /**
  * PopulationGenerator class provides an abstraction for generating the initial
- * population and evolving the current population.
+ * population and evolving the current population. Every instance is the
+ * context of one solve: it holds the parameters, the instance and the state of
+ * the evolution, so several instances can solve different instances or
+ * configurations side by side in one JVM. They can share a worker pool, which
+ * saves the threads and keeps the code warm from one solve to the next.
  * 
  * @author Elena Kyorova <elenakyorova@gmail.com>
  * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
@@ -27,150 +56,783 @@ public class PopulationGenerator {
 
 	static Logger log = LogManager.getLogger(PopulationGenerator.class);
 
-	// Static variables to hold input parameters
-	public static int numberOfItems;
-	public static int populationSize;
-	public static double doCrossobverProbability;
-	public static CrossoverStrategy crossoverStrategy;
-	public static int backpackLimit;
-	public static int numberOfMutationBits;
-	public static int numberOfGenerations;
-	public static double percentageOfInheritedPopulation;
-	public static int threadCount;
-
-	// Static variable to hold the map between IDs and backpack items
-	public static Map<Integer, BackpackItem> backpackItems;
-	// Static variable to hold the an unordered list of backpack items
-	public static List<BackpackItem> listOfBackpackItems;
-	// Static variable to hold the current population
-	public static Population population;
-	// Static variable to hold the best fitness value found so far
-	public static int bestFitnessValue = 0;
-	// Static variable to hold the sequence with the best fitness value
-	public static OrderedItemSequence bestFitnessSequence = new OrderedItemSequence();
-	// Static value to accumulate the summation of fitness values for the
-	// current generation
-	public static int sumFitness = 0;
-
-	// Static values to hold information about the number of crossovers and
-	// number of mutations
-	public static int numberOfCrossovers = 0;
-	public static int numberOfMutation = 0;
+	// Variables to hold input parameters
+	public int numberOfItems;
+	public int populationSize;
+	public double doCrossobverProbability;
+	public CrossoverStrategy crossoverStrategy;
+	public RepairStrategy repairStrategy = RepairStrategy.RANDOM_REPAIR;
+	public SelectionStrategy selectionStrategy = SelectionStrategy.UNIFORM_TOP_HALF;
+	public int tournamentSize = 2;
+	public int backpackLimit;
+	public int numberOfMutationBits;
+	public MutationStrategy mutationStrategy = MutationStrategy.RANDOM_DRAWS;
+	// Probability to flip a bit with the per-bit mutation, 0 to flip
+	// numberOfMutationBits bits on average
+	public double mutationRate = 0;
+	public int numberOfGenerations;
+	public double percentageOfInheritedPopulation;
+	public int threadCount;
+	// Number of individuals of the initial population that are seeded with
+	// dynamic programming solutions, see DynamicProgrammingSolver
+	public int numberOfSeeds = 0;
+	// Limit of numberOfItems * capacity of the dynamic programming table
+	public long maxTableCells = DynamicProgrammingSolver.DEFAULT_MAX_CELLS;
+
+	// Variable to hold the catalog of backpack items
+	public ItemCatalog itemCatalog;
+	// Variable to hold the current population
+	public Population population;
+	// Variable to hold the buffer that the next generation is written
+	// into. It swaps roles with the current population every generation.
+	private Population nextPopulation;
+	// Variable to hold the preallocated chunks of a generation
+	private EvolutionRunner[] evolutionChunks;
+	// Variable to hold the stopping criteria of the evolution. If it is
+	// not set the evolution stops after numberOfGenerations generations or
+	// when 95% of the population shares the best fitness value.
+	public StoppingEngine stoppingEngine;
+	// Variable to hold the listener that is told the progress after every
+	// generation, null for none
+	public ProgressListener progressListener;
+	// Variable to hold the parent selection of the current generation
+	private ParentSelector parentSelector;
+	// Variable to hold the connection to the other islands, null when
+	// the population is evolved on its own
+	public IslandNode island;
+	// Variable to hold the best fitness value found so far
+	public int bestFitnessValue = 0;
+	// Variable to hold the sequence with the best fitness value
+	public OrderedItemSequence bestFitnessSequence = new OrderedItemSequence();
+	// Value to hold the summation of fitness values for the last
+	// generation
+	public long sumFitness = 0;
+
+	// Values to hold information about the number of crossovers and
+	// number of mutations in the last generation
+	public int numberOfCrossovers = 0;
+	public int numberOfMutation = 0;
+	// Variable to hold the reduced statistics of the last generation
+	private GenerationStatistics generationStatistics = new GenerationStatistics();
+
+	// Variable to hold the performance metrics of the evolution. They
+	// are registered as an MBean when the evolution starts.
+	public EvolutionMetrics metrics;
+
+	// Variable to hold the fitness kernel that calculates the totals of
+	// the initial population from scratch
+	public FitnessKernel fitnessKernel = FitnessKernel.scalar();
+	// Variable to hold the cache of repaired genomes, null when
+	// every overweight child is repaired
+	public FitnessCache fitnessCache;
+	// Variable to hold whether clones in the next generation are
+	// mutated again before they are evaluated
+	public boolean suppressDuplicates = false;
+	// Variable to hold whether the children of a chunk are evaluated
+	// together by a BatchEvaluator instead of one by one. The crossovers then
+	// leave the totals to the evaluator.
+	public boolean batchEvaluation = false;
+	// Variable to hold whether the population is evolved without
+	// generation barriers, see evolveSteadyState
+	public boolean steadyState = false;
+	// Variable to hold the population whose individuals the
+	// steady-state workers replace
+	private SteadyStatePopulation steadyStatePopulation;
+	// Variables to hold the bookkeeping of the steady-state evolution,
+	// which is guarded by steadyStateLock: the evaluations since the last
+	// generation was counted, the start of that generation, and the progress
+	// and metrics objects that are reused for every generation
+	private final Object steadyStateLock = new Object();
+	private long steadyStateEvaluations;
+	private long steadyStateGenerationStart;
+	private EvolutionProgress steadyStateProgress;
+	private GenerationMetrics steadyStateMetrics;
+	// Number of children a steady-state worker evaluates before it reports
+	// its statistics
+	private static final int STEADY_STATE_BATCH = 16;
+	// Variable to hold the hashes of the genomes of the next
+	// generation, null when duplicates are not suppressed
+	private GenomeHashSet genomeSet;
+	// Number of times a clone is mutated again before it is kept as it is
+	private static final int DUPLICATE_MUTATIONS = 3;
+	// Variable to hold the writer of the periodic checkpoints, null
+	// when no checkpoints are written
+	public CheckpointWriter checkpointWriter;
+	// Variable to hold the number of finished generations. It is set
+	// when a run is resumed from a checkpoint.
+	public int generationNumber = 0;
+	// Variable to hold the master seed that the random streams of all
+	// chunks are derived from. Runs with the same seed and number of threads
+	// are identical.
+	public long seed = new SplittableRandom().nextLong();
+	// Variable to hold the states of the random streams of the chunks
+	// read from a checkpoint, null if the streams are derived from the seed
+	public long[] resumedRandomStates;
+	// Kinds of random streams derived from the seed
+	public static final long INITIAL_POPULATION_STREAMS = 1;
+	public static final long EVOLUTION_STREAMS = 2;
+	public static final long STEADY_STATE_STREAMS = 4;
+
+	// Number of chunks per worker thread that the population is split into,
+	// so that workers that finish early can steal the remaining chunks
+	private static final int CHUNKS_PER_THREAD = 8;
+	// Variable to hold the worker pool that is reused across
+	// generations
+	private ForkJoinPool workerPool;
+	// Variable to hold whether the worker pool is shared with other solvers
+	// rather than owned by this one
+	private boolean sharedWorkerPool = false;
+	// Variable to hold the name the metrics of this solver are registered
+	// under, null for the default name
+	public String name;
+
+	/**
+	 * Constructor for a solver that creates its own worker pool with
+	 * threadCount workers.
+	 */
+	public PopulationGenerator() {
+	}
+
+	/**
+	 * Constructor for a solver that runs on a worker pool shared with other
+	 * solvers. The threadCount parameter still decides into how many parts
+	 * the population is split.
+	 * 
+	 * @param workerPool
+	 *            - the shared worker pool
+	 */
+	public PopulationGenerator(ForkJoinPool workerPool) {
+		this.workerPool = workerPool;
+		this.sharedWorkerPool = true;
+	}
+
+	/**
+	 * Returns the worker pool of the solver. Unless it is shared, it has
+	 * threadCount workers and is created on first use.
+	 * 
+	 * @return the worker pool
+	 */
+	public synchronized ForkJoinPool getWorkerPool() {
+		if (!sharedWorkerPool && (workerPool == null || workerPool.getParallelism() != threadCount)) {
+			if (workerPool != null) {
+				workerPool.shutdown();
+			}
+			workerPool = new ForkJoinPool(threadCount);
+		}
+		return workerPool;
+	}
+
+	/**
+	 * Returns the number of sequences processed by a single task of the worker
+	 * pool.
+	 */
+	private int chunkSize() {
+		int chunkSize = Math.max(1, populationSize / (threadCount * CHUNKS_PER_THREAD));
+		if (batchEvaluation) {
+			// Whole blocks of the batch evaluator
+			chunkSize = (chunkSize + BatchEvaluator.BLOCK_SIZE - 1) / BatchEvaluator.BLOCK_SIZE
+					* BatchEvaluator.BLOCK_SIZE;
+		}
+		return chunkSize;
+	}
 
 	/**
 	 * A method that implements a procedure for generating the initial
-	 * populations. Depending on the input number of threads it creates the
-	 * dedicated random generators and the corresponding threads, starts them
-	 * and after that joins the. Generated list of sequences is merged and the
-	 * current population is updated in a synchronized manner.
+	 * populations. The population is split into small chunks that are
+	 * generated by the shared worker pool. Every chunk writes its sequences
+	 * directly into their slots of the new population. If numberOfSeeds is
+	 * set, the first individuals are replaced by near-optimal solutions of the
+	 * dynamic programming solver.
 	 * 
-	 * @param items
-	 *            - the map of IDs to backpack items
+	 * @param catalog
+	 *            - the catalog of backpack items
 	 * @return
 	 * @throws Exception
 	 */
-	public static Population generateInitialPopulation(Map<Integer, BackpackItem> items) throws Exception {
-		int numberOfSequences = populationSize / threadCount;
-		Thread tr[] = new Thread[threadCount];
-		Random randomGenerators[] = new Random[threadCount];
-		InitialPopulationRunner.sequences = Collections.synchronizedList(new ArrayList<List<OrderedItemSequence>>());
-		for (int j = 0; j < threadCount; j++) {
-			randomGenerators[j] = new Random();
-			InitialPopulationRunner fitnessCalculationRunner = new InitialPopulationRunner(randomGenerators[j],
-					threadCount, j, numberOfSequences);
-			Thread t = new Thread(fitnessCalculationRunner);
-			tr[j] = t;
-			t.start();
-		}
-		for (int j = 0; j < threadCount; j++) {
-			try {
-				tr[j].join();
-			} catch (InterruptedException e) {
-				System.out.println("Exception");
-			}
-		}
-		population = new Population(Util.flatten(InitialPopulationRunner.sequences));
+	public Population generateInitialPopulation(ItemCatalog catalog) throws Exception {
+		List<OrderedItemSequence> individuals = new ArrayList<OrderedItemSequence>(
+				Collections.<OrderedItemSequence> nCopies(populationSize, null));
+		getWorkerPool().invoke(new InitialPopulationRunner(this, individuals, 0, populationSize, chunkSize()));
+		if (numberOfSeeds > 0) {
+			List<OrderedItemSequence> seeds = new DynamicProgrammingSolver(catalog, numberOfItems, getWorkerPool())
+					.solveScaled(backpackLimit, maxTableCells, Math.min(numberOfSeeds, populationSize));
+			for (int i = 0; i < seeds.size(); i++) {
+				individuals.set(i, seeds.get(i));
+			}
+			if (!seeds.isEmpty() && seeds.get(0).getFitnessValue() > bestFitnessValue) {
+				bestFitnessValue = seeds.get(0).getFitnessValue();
+				bestFitnessSequence.copyFrom(seeds.get(0));
+			}
+			log.debug(String.format("Seeded %d individuals, the best with fitness value %d", seeds.size(),
+					seeds.isEmpty() ? 0 : seeds.get(0).getFitnessValue()));
+		}
+		population = new Population(individuals);
 		return population;
 	}
 
 	/**
-	 * Method that is executed by the InitialPopulationRunner and generates a
-	 * list of randomized sequences and return the result.
+	 * Method that is executed by the InitialPopulationRunner and fills the
+	 * slots from start (inclusive) to end (exclusive) of the given list with
+	 * randomized sequences.
 	 * 
+	 * @param individuals
+	 *            - the list of individuals of the new population
+	 * @param start
+	 *            - the index of the first slot
+	 * @param end
+	 *            - the index after the last slot
 	 * @param randomGenerator
 	 *            - dedicated random generator
-	 * @param numberOfSequences
-	 *            - the number of sequences that need to be generated
-	 * @return - the generated list of randomized sequences
 	 */
-	public static List<OrderedItemSequence> generatePartialInitialPopulation(Random randomGenerator,
-			int numberOfSequences) {
-		List<OrderedItemSequence> partialPpopulation = new ArrayList<OrderedItemSequence>();
-		for (int i = 0; i < numberOfSequences; i++) {
-			OrderedItemSequence item = new OrderedItemSequence(randomGenerator);
-			item.updateFitnessValue(randomGenerator, PopulationGenerator.backpackItems,
-					PopulationGenerator.backpackLimit);
-			partialPpopulation.add(item);
+	public void generatePartialInitialPopulation(List<OrderedItemSequence> individuals, int start, int end,
+			Random randomGenerator) {
+		for (int i = start; i < end; i++) {
+			OrderedItemSequence item = new OrderedItemSequence(itemCatalog, numberOfItems, randomGenerator,
+					fitnessKernel);
+			item.updateFitnessValue(randomGenerator, itemCatalog, backpackLimit, repairStrategy);
+			individuals.set(i, item);
 		}
-		return partialPpopulation;
+	}
+
+	/**
+	 * Solves the instance: generates and sorts the initial population unless a
+	 * population was already set, e.g. from a checkpoint, and evolves it until
+	 * the stopping engine stops the evolution. The budgets include the initial
+	 * population.
+	 * 
+	 * @return the sequence with the best fitness value
+	 * @throws Exception
+	 */
+	public OrderedItemSequence solve() throws Exception {
+		if (population == null) {
+			if (stoppingEngine == null) {
+				stoppingEngine = defaultStoppingEngine();
+			}
+			if (!stoppingEngine.isStarted()) {
+				stoppingEngine.start();
+			}
+			Population initialPopulation = generateInitialPopulation(itemCatalog);
+			initialPopulation.sort();
+			population = new Population(initialPopulation);
+			stoppingEngine.addEvaluations(population.getIndividuals().size());
+			// The initial population is the answer if a budget stops the
+			// evolution before any child is evaluated
+			updateBestSequence(population.getIndividuals());
+		}
+		if (steadyState) {
+			evolveSteadyState();
+		} else {
+			evolve();
+		}
+		return bestFitnessSequence;
+	}
+
+	/**
+	 * Sets the state of the evolution to the one saved in a checkpoint, so that
+	 * {@link #solve()} continues the run where it stopped. The stopping
+	 * engine, which must be configured before, counts the evaluations and the
+	 * time of the checkpointed run.
+	 * 
+	 * @param checkpoint
+	 *            - the checkpoint of the run
+	 */
+	public void resumeFrom(Checkpoint checkpoint) {
+		if (stoppingEngine == null) {
+			stoppingEngine = defaultStoppingEngine();
+		}
+		stoppingEngine.resume(checkpoint.getEvaluations(), checkpoint.getElapsedNanos());
+		generationNumber = checkpoint.getGeneration();
+		bestFitnessValue = checkpoint.getBestSequence().getFitnessValue();
+		bestFitnessSequence = checkpoint.getBestSequence();
+		population = new Population(checkpoint.getIndividuals());
+		resumedRandomStates = checkpoint.getRandomStates();
 	}
 
 	/**
 	 * Method that evolves the current population to generate the new
-	 * population. It creates the specified amount of threads as well as their
-	 * dedicated random generators, and starts them. After the threads are
-	 * joined the population is updated and is checked for stop condition.
+	 * population. Every generation is split into small chunks that are evolved
+	 * by the shared worker pool. The chunks write the children directly into
+	 * the second population buffer. After all chunks are done the two buffers
+	 * swap roles, migrants are exchanged with the other islands if this is an
+	 * island model run, the stopping engine checks its criteria, the progress
+	 * listener is told the progress and a checkpoint is saved if it is due. Both the buffers and the chunks are
+	 * allocated once, so a generation does not allocate.
 	 * 
 	 * @throws Exception
 	 */
-	public static void evolve() throws Exception {
-		Random[] randomGenerators = new Random[threadCount];
-		for (int i = 0; i < threadCount; i++) {
-			randomGenerators[i] = new Random();
-		}
-		for (int i = 0; i < numberOfGenerations; i++) {
-			int scope = populationSize / threadCount;
-			Thread tr[] = new Thread[threadCount];
-			EvolutionRunner.setSequences(Collections.synchronizedList(new ArrayList<List<OrderedItemSequence>>()));
-			for (int j = 0; j < threadCount; j++) {
-				EvolutionRunner evolutionRunner = new EvolutionRunner(randomGenerators[j], threadCount, j, scope);
-				Thread t = new Thread(evolutionRunner);
-				tr[j] = t;
-				t.start();
-			}
-			for (int j = 0; j < threadCount; j++) {
-				try {
-					tr[j].join();
-				} catch (InterruptedException e) {
-					System.out.println("Exception");
-				}
+	public void evolve() throws Exception {
+		ForkJoinPool pool = getWorkerPool();
+		allocateGenerationBuffers();
+		int elementsTobeInherited = (int) Math.round(percentageOfInheritedPopulation * populationSize);
+		parentSelector = new ParentSelector(selectionStrategy, tournamentSize);
+		if (generationNumber > 0) {
+			// The population of a checkpoint is saved after it was prepared
+			parentSelector.restore(population.getIndividuals());
+		} else {
+			parentSelector.prepare(population.getIndividuals(), elementsTobeInherited);
+		}
+		if (stoppingEngine == null) {
+			stoppingEngine = defaultStoppingEngine();
+		}
+		if (!stoppingEngine.isStarted()) {
+			stoppingEngine.start();
+		}
+		if (metrics == null) {
+			metrics = new EvolutionMetrics();
+			metrics.register(name);
+		}
+		updateBestSequence(population.getIndividuals());
+		EvolutionProgress progress = new EvolutionProgress();
+		EvolutionRunner.Generation generation = new EvolutionRunner.Generation(evolutionChunks);
+		GenerationMetrics generationMetrics = new GenerationMetrics();
+		if (generationNumber > 0) {
+			// A resumed run may have met its criteria already
+			progress.update(generationNumber, bestFitnessValue, stoppingEngine.getEvaluations(),
+					stoppingEngine.getElapsedNanos(), population.getIndividuals());
+			stoppingEngine.checkAfterGeneration(progress);
+		}
+		resetGenomeSet(elementsTobeInherited);
+		while (!stoppingEngine.isStopRequested()) {
+			long generationStart = System.nanoTime();
+			generation.reinitialize();
+			pool.invoke(generation);
+			long mergeStart = System.nanoTime();
+			reduceStatistics();
+			Population evolved = nextPopulation;
+			nextPopulation = population;
+			population = evolved;
+			generationNumber++;
+			if (island != null && island.migrate(population, generationNumber) > 0) {
+				// A migrant may be better than the best local sequence
+				updateBestSequence(population.getIndividuals());
+			}
+			long selectionStart = System.nanoTime();
+			parentSelector.prepare(population.getIndividuals(), elementsTobeInherited);
+			resetGenomeSet(elementsTobeInherited);
+			long terminationCheckStart = System.nanoTime();
+			progress.update(generationNumber, bestFitnessValue, stoppingEngine.getEvaluations(),
+					stoppingEngine.getElapsedNanos(), population.getIndividuals());
+			stoppingEngine.checkAfterGeneration(progress);
+			long generationEnd = System.nanoTime();
+			collectMetrics(generationMetrics, generationNumber, generationStart, mergeStart, selectionStart,
+					terminationCheckStart, generationEnd);
+			metrics.record(generationMetrics);
+			if (progressListener != null) {
+				progressListener.generationFinished(progress);
+			}
+			if (checkpointWriter != null) {
+				checkpointWriter.checkpoint(generationNumber, population, bestFitnessSequence,
+						stoppingEngine.getEvaluations(), stoppingEngine.getElapsedNanos(), randomStates());
+			}
+		}
+		if (checkpointWriter != null) {
+			checkpointWriter.writeFinal(generationNumber, population, bestFitnessSequence,
+					stoppingEngine.getEvaluations(), stoppingEngine.getElapsedNanos(), randomStates());
+		}
+		log.info(String.format("Best fitness value: %s\n", bestFitnessValue));
+		log.debug(metrics);
+		if (fitnessCache != null) {
+			log.debug(fitnessCache);
+		}
+		log.info(String.format("Stopped after %d generations and %d evaluations by %s", generationNumber,
+				stoppingEngine.getEvaluations(), stoppingEngine.getMetCriterion()));
+		if (name != null) {
+			metrics.unregister();
+		}
+	}
 
+	/**
+	 * Method that evolves the current population without generation barriers.
+	 * Every worker of the shared pool keeps selecting parents by tournament,
+	 * creating and evaluating a child and replacing the weakest of a reverse
+	 * tournament with it if the child is at least as fit, so a slow repair
+	 * only holds up its own worker. The individuals are replaced in place
+	 * under per-slot locks, and children that are clones of an individual are
+	 * rejected. Every populationSize evaluations count as a generation: the
+	 * worker that completes it copies the population, checks the stopping
+	 * criteria against the copy, records the metrics and saves the copy as a
+	 * checkpoint if it is due. Parent selection is always
+	 * a tournament; batch evaluation and the island model are not used.
+	 * 
+	 * @throws Exception
+	 */
+	public void evolveSteadyState() throws Exception {
+		if (batchEvaluation || island != null) {
+			log.warn("Batch evaluation and the island model are not used by the steady-state evolution");
+			batchEvaluation = false;
+		}
+		genomeSet = null;
+		if (stoppingEngine == null) {
+			stoppingEngine = defaultStoppingEngine();
+		}
+		if (!stoppingEngine.isStarted()) {
+			stoppingEngine.start();
+		}
+		if (metrics == null) {
+			metrics = new EvolutionMetrics();
+			metrics.register(name);
+		}
+		steadyStatePopulation = new SteadyStatePopulation(population);
+		List<OrderedItemSequence> individuals = population.getIndividuals();
+		updateBestSequence(individuals);
+		// Buffer that the population is copied into for the stopping criteria
+		// and the checkpoints, as the workers replace the individuals while
+		// they are checked
+		List<OrderedItemSequence> buffer = new ArrayList<OrderedItemSequence>(individuals.size());
+		for (OrderedItemSequence individual : individuals) {
+			buffer.add(new OrderedItemSequence(individual));
+		}
+		nextPopulation = new Population(buffer);
+		steadyStateProgress = new EvolutionProgress();
+		steadyStateMetrics = new GenerationMetrics();
+		steadyStateEvaluations = 0;
+		generationStatistics.reset();
+		if (generationNumber > 0) {
+			// A resumed run may have met its criteria already
+			steadyStateProgress.update(generationNumber, bestFitnessValue, stoppingEngine.getEvaluations(),
+					stoppingEngine.getElapsedNanos(), individuals);
+			stoppingEngine.checkAfterGeneration(steadyStateProgress);
+		}
+		SteadyStateRunner[] workers = new SteadyStateRunner[threadCount];
+		for (int j = 0; j < workers.length; j++) {
+			workers[j] = new SteadyStateRunner(this,
+					XoroshiroRandom.forStream(seed, STEADY_STATE_STREAMS, ((long) generationNumber << 32) | j),
+					individuals.get(0));
+		}
+		steadyStateGenerationStart = System.nanoTime();
+		getWorkerPool().invoke(new EvolutionRunner.Generation(workers));
+		if (checkpointWriter != null) {
+			checkpointWriter.writeFinal(generationNumber, population, bestFitnessSequence,
+					stoppingEngine.getEvaluations(), stoppingEngine.getElapsedNanos(), new long[0]);
+		}
+		steadyStatePopulation = null;
+		log.info(String.format("Best fitness value: %s\n", bestFitnessValue));
+		log.debug(metrics);
+		if (fitnessCache != null) {
+			log.debug(fitnessCache);
+		}
+		log.info(String.format("Stopped after %d generations and %d evaluations by %s", generationNumber,
+				stoppingEngine.getEvaluations(), stoppingEngine.getMetCriterion()));
+		if (name != null) {
+			metrics.unregister();
+		}
+	}
+
+	/**
+	 * Method that is executed by SteadyStateRunner and runs one worker of the
+	 * steady-state evolution until the evolution stops. The children are
+	 * evaluated in small batches, after which the statistics of the worker are
+	 * added to the statistics of the current generation.
+	 * 
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @param statistics
+	 *            - the statistics of the calling worker
+	 * @param child
+	 *            - the sequence the children are built in
+	 * @param bestChild
+	 *            - the copy of the best child of the calling worker
+	 * @param mutationTable
+	 *            - the scratch table of the mutations of the calling worker
+	 */
+	public void evolveSteadyStateSequences(Random randomGenerator, GenerationStatistics statistics,
+			OrderedItemSequence child, OrderedItemSequence bestChild, MutationTable mutationTable) {
+		while (!stoppingEngine.checkDuringGeneration()) {
+			long batchStart = System.nanoTime();
+			statistics.reset();
+			for (int n = 0; n < STEADY_STATE_BATCH; n++) {
+				long variationStart = System.nanoTime();
+				createSteadyStateChild(child, randomGenerator, statistics, mutationTable);
+				statistics.addVariationNanos(System.nanoTime() - variationStart);
+				evaluateChild(child, randomGenerator, statistics);
+				// The child is reused, so only its fitness value is recorded
+				statistics.addEvaluated(child.getFitnessValue());
+				if (child.getFitnessValue() > bestChild.getFitnessValue()) {
+					bestChild.copyFrom(child);
+				}
+				int victim = steadyStatePopulation.reverseTournament(randomGenerator, tournamentSize);
+				if (steadyStatePopulation.replace(victim, child) == SteadyStatePopulation.Replacement.DUPLICATE) {
+					statistics.addDuplicate();
+				}
 			}
-			population = new Population(Util.flatten(EvolutionRunner.getSequences()));
-			population.sort();
-			int initialValue = population.getIndividuals().get(0).getFitnessValue();
-			boolean terminate = true;
-			for (int m = 0; m < population.getIndividuals().size(); m++) {
-				if (m < (populationSize * 0.95)) {
-					if (initialValue != population.getIndividuals().get(m).getFitnessValue()) {
-						terminate = false;
+			stoppingEngine.addEvaluations(statistics.getNumberOfEvaluations());
+			statistics.addBusyNanos(System.nanoTime() - batchStart);
+			finishSteadyStateBatch(statistics, bestChild);
+		}
+	}
+
+	/**
+	 * Creates a child by crossover of two parents chosen by tournament or by
+	 * mutation of one. The crossover reads the parents optimistically and is
+	 * repeated under their read locks if one of them was replaced meanwhile.
+	 */
+	private void createSteadyStateChild(OrderedItemSequence child, Random randomGenerator,
+			GenerationStatistics statistics, MutationTable mutationTable) {
+		List<OrderedItemSequence> individuals = steadyStatePopulation.getIndividuals();
+		int first = steadyStatePopulation.tournament(randomGenerator, tournamentSize);
+		if (randomGenerator.nextDouble() < doCrossobverProbability) {
+			statistics.addCrossover();
+			int second = steadyStatePopulation.tournament(randomGenerator, tournamentSize);
+			long firstStamp = steadyStatePopulation.tryOptimisticRead(first);
+			long secondStamp = steadyStatePopulation.tryOptimisticRead(second);
+			crossover(child, individuals.get(first), individuals.get(second), randomGenerator);
+			if (!steadyStatePopulation.validate(first, firstStamp)
+					|| !steadyStatePopulation.validate(second, secondStamp)) {
+				firstStamp = steadyStatePopulation.readLock(first);
+				// A read lock is not reentrant, so the same parent is
+				// locked once
+				secondStamp = second == first ? 0 : steadyStatePopulation.readLock(second);
+				try {
+					crossover(child, individuals.get(first), individuals.get(second), randomGenerator);
+				} finally {
+					if (second != first) {
+						steadyStatePopulation.unlockRead(second, secondStamp);
 					}
+					steadyStatePopulation.unlockRead(first, firstStamp);
 				}
 			}
-			if (terminate) {
-				break;
+		} else {
+			statistics.addMutation();
+			steadyStatePopulation.copyTo(first, child);
+			mutate(child, randomGenerator, mutationTable);
+		}
+	}
+
+	/**
+	 * Adds the statistics of a finished batch of a worker to the statistics
+	 * of the current generation. If the batch completes the generation, the
+	 * population is copied, the stopping criteria are checked against the copy,
+	 * the metrics are recorded, the progress listener is called and the copy is
+	 * saved as a checkpoint if it is due. The workers only wait for each other here, for
+	 * as long as it takes to add the statistics.
+	 */
+	private void finishSteadyStateBatch(GenerationStatistics statistics, OrderedItemSequence bestChild) {
+		synchronized (steadyStateLock) {
+			long mergeStart = System.nanoTime();
+			generationStatistics.merge(statistics);
+			if (bestChild.getFitnessValue() > bestFitnessValue) {
+				bestFitnessValue = bestChild.getFitnessValue();
+				bestFitnessSequence.copyFrom(bestChild);
+			}
+			steadyStateEvaluations += statistics.getNumberOfEvaluations();
+			if (steadyStateEvaluations < populationSize) {
+				return;
+			}
+			steadyStateEvaluations -= populationSize;
+			generationNumber++;
+			sumFitness = generationStatistics.getSumFitness();
+			numberOfCrossovers = generationStatistics.getNumberOfCrossovers();
+			numberOfMutation = generationStatistics.getNumberOfMutations();
+			steadyStatePopulation.snapshot(nextPopulation);
+			long terminationCheckStart = System.nanoTime();
+			steadyStateProgress.update(generationNumber, bestFitnessValue, stoppingEngine.getEvaluations(),
+					stoppingEngine.getElapsedNanos(), nextPopulation.getIndividuals());
+			stoppingEngine.checkAfterGeneration(steadyStateProgress);
+			long generationEnd = System.nanoTime();
+			collectMetrics(steadyStateMetrics, generationNumber, steadyStateGenerationStart, mergeStart,
+					terminationCheckStart, terminationCheckStart, generationEnd);
+			metrics.record(steadyStateMetrics);
+			if (progressListener != null) {
+				progressListener.generationFinished(steadyStateProgress);
+			}
+			if (checkpointWriter != null && checkpointWriter.isDue(generationNumber)) {
+				checkpointWriter.checkpoint(generationNumber, nextPopulation, bestFitnessSequence,
+						stoppingEngine.getEvaluations(), stoppingEngine.getElapsedNanos(), new long[0]);
 			}
-			sumFitness = 0;
-			numberOfCrossovers = 0;
-			numberOfMutation = 0;
+			generationStatistics.reset();
+			steadyStateGenerationStart = generationEnd;
 		}
-		log.info(String.format("Best fitness value: %s\n", bestFitnessValue));
 	}
 
 	/**
-	 * Method that is executed by EvolutionRunner and evolved a part of the
-	 * current population. It generated a list that will be a part pf the new
-	 * population.
+	 * Returns the stopping engine that is used if none is set: the evolution
+	 * stops after numberOfGenerations generations or when 95% of the
+	 * population shares the best fitness value.
+	 */
+	private StoppingEngine defaultStoppingEngine() {
+		return new StoppingEngine().addCriterion(new GenerationLimitCriterion(numberOfGenerations))
+				.addCriterion(new ConvergenceCriterion(0.95));
+	}
+
+	/**
+	 * Makes the fittest of the given individuals the best sequence if it is
+	 * better than the best sequence found so far.
+	 */
+	private void updateBestSequence(List<OrderedItemSequence> individuals) {
+		for (OrderedItemSequence individual : individuals) {
+			if (individual.getFitnessValue() > bestFitnessValue) {
+				bestFitnessValue = individual.getFitnessValue();
+				bestFitnessSequence.copyFrom(individual);
+			}
+		}
+	}
+
+	/**
+	 * Returns the states of the random streams of the chunks that are saved in
+	 * a checkpoint, two words per chunk. It is only called between
+	 * generations, when no chunk is running.
+	 */
+	private long[] randomStates() {
+		long[] states = new long[2 * evolutionChunks.length];
+		for (int j = 0; j < evolutionChunks.length; j++) {
+			XoroshiroRandom randomGenerator = evolutionChunks[j].getRandomGenerator();
+			states[2 * j] = randomGenerator.getState0();
+			states[2 * j + 1] = randomGenerator.getState1();
+		}
+		return states;
+	}
+
+	/**
+	 * Clears the genome hashes of the next generation and adds the hashes of
+	 * the elites, which are carried over unchanged.
+	 * 
+	 * @param numberOfElites
+	 *            - the number of elites at the front of the population
+	 */
+	private void resetGenomeSet(int numberOfElites) {
+		if (genomeSet == null) {
+			return;
+		}
+		genomeSet.clear();
+		List<OrderedItemSequence> individuals = population.getIndividuals();
+		for (int i = 0; i < numberOfElites && i < individuals.size(); i++) {
+			genomeSet.add(individuals.get(i).getHashHigh());
+		}
+	}
+
+	/**
+	 * Reduces the statistics of all chunks of the generation that has just
+	 * finished and updates the best sequence found so far. It is called once
+	 * per generation after all workers are done.
+	 */
+	private void reduceStatistics() {
+		generationStatistics.reset();
+		for (EvolutionRunner chunk : evolutionChunks) {
+			generationStatistics.merge(chunk.getStatistics());
+		}
+		OrderedItemSequence best = generationStatistics.getBestSequence();
+		if (best != null && best.getFitnessValue() > bestFitnessValue) {
+			bestFitnessValue = best.getFitnessValue();
+			bestFitnessSequence.copyFrom(best);
+		}
+		sumFitness = generationStatistics.getSumFitness();
+		numberOfCrossovers = generationStatistics.getNumberOfCrossovers();
+		numberOfMutation = generationStatistics.getNumberOfMutations();
+	}
+
+	/**
+	 * Fills the metrics of the generation that has just finished from the
+	 * reduced statistics and the timestamps taken by the generation loop. The
+	 * idle time of the workers is the part of the parallel phase in which a
+	 * worker of the pool had no chunk to evolve. It is not measured on a shared
+	 * pool, whose workers may be busy with the chunks of other solvers.
+	 */
+	private void collectMetrics(GenerationMetrics generationMetrics, int generationNumber,
+			long generationStart, long mergeStart, long selectionStart, long terminationCheckStart,
+			long generationEnd) {
+		long parallelNanos = mergeStart - generationStart;
+		int evaluations = generationStatistics.getNumberOfEvaluations();
+		generationMetrics.generation = generationNumber;
+		generationMetrics.generationNanos = generationEnd - generationStart;
+		generationMetrics.variationNanos = generationStatistics.getVariationNanos();
+		generationMetrics.evaluationNanos = generationStatistics.getEvaluationNanos();
+		generationMetrics.repairNanos = generationStatistics.getRepairNanos();
+		generationMetrics.mergeNanos = selectionStart - mergeStart;
+		generationMetrics.selectionNanos = terminationCheckStart - selectionStart;
+		generationMetrics.terminationCheckNanos = generationEnd - terminationCheckStart;
+		generationMetrics.workerIdleNanos = sharedWorkerPool ? 0
+				: Math.max(0, getWorkerPool().getParallelism() * parallelNanos - generationStatistics.getBusyNanos());
+		generationMetrics.evaluations = evaluations;
+		generationMetrics.evaluationsPerSecond = generationMetrics.generationNanos > 0
+				? evaluations * 1e9 / generationMetrics.generationNanos : 0;
+		generationMetrics.repairIterations = generationStatistics.getRepairIterations();
+		generationMetrics.duplicates = generationStatistics.getDuplicates();
+		generationMetrics.diversity = generationStatistics.getDiversity();
+		generationMetrics.cacheHits = generationStatistics.getCacheHits();
+		generationMetrics.cacheLookups = generationStatistics.getCacheHits() + generationStatistics.getCacheMisses();
+		generationMetrics.bestFitnessValue = bestFitnessValue;
+		generationMetrics.meanFitnessValue = evaluations > 0 ? (double) sumFitness / evaluations : 0;
+	}
+
+	/**
+	 * Allocates the second population buffer as a copy of the current
+	 * population and splits the population into the chunks that are evolved
+	 * by the worker pool. Nothing is allocated if both already match the
+	 * current population.
+	 */
+	private void allocateGenerationBuffers() {
+		List<OrderedItemSequence> current = population.getIndividuals();
+		if (nextPopulation == null || nextPopulation.getIndividuals().size() != current.size()) {
+			List<OrderedItemSequence> buffer = new ArrayList<OrderedItemSequence>(current.size());
+			for (OrderedItemSequence sequence : current) {
+				buffer.add(new OrderedItemSequence(sequence));
+			}
+			nextPopulation = new Population(buffer);
+		}
+		// With a batch evaluator the crossovers of both buffers leave the
+		// totals to the evaluator
+		for (OrderedItemSequence sequence : current) {
+			sequence.setDeferTotals(batchEvaluation);
+		}
+		for (OrderedItemSequence sequence : nextPopulation.getIndividuals()) {
+			sequence.setDeferTotals(batchEvaluation);
+		}
+		if (!suppressDuplicates) {
+			genomeSet = null;
+		} else if (genomeSet == null || genomeSet.getCapacity() != current.size()) {
+			genomeSet = new GenomeHashSet(current.size());
+		}
+		int chunkSize = chunkSize();
+		int numberOfChunks = (populationSize + chunkSize - 1) / chunkSize;
+		if (evolutionChunks == null || evolutionChunks.length != numberOfChunks
+				|| evolutionChunks[numberOfChunks - 1].getEnd() != populationSize - 1) {
+			evolutionChunks = new EvolutionRunner[numberOfChunks];
+			for (int j = 0; j < numberOfChunks; j++) {
+				evolutionChunks[j] = new EvolutionRunner(this, j * chunkSize,
+						Math.min((j + 1) * chunkSize, populationSize) - 1);
+			}
+		}
+		if (resumedRandomStates != null && resumedRandomStates.length != 2 * evolutionChunks.length) {
+			log.warn(String.format(
+					"The checkpoint has %d random states but the population is split into %d chunks, the random streams are derived from the seed",
+					resumedRandomStates.length / 2, evolutionChunks.length));
+		}
+		for (int j = 0; j < evolutionChunks.length; j++) {
+			if (evolutionChunks[j].getRandomGenerator() == null) {
+				evolutionChunks[j].setRandomGenerator(chunkRandomGenerator(j));
+			}
+		}
+		resumedRandomStates = null;
+		for (EvolutionRunner chunk : evolutionChunks) {
+			if (batchEvaluation && chunk.getBatchEvaluator() == null) {
+				chunk.setBatchEvaluator(new BatchEvaluator(itemCatalog, numberOfItems));
+				chunk.getStatistics().trackItemCounts(numberOfItems);
+			}
+		}
+	}
+
+	/**
+	 * Returns the random stream of chunk j: the state saved in the checkpoint
+	 * the run was resumed from if it has one for every chunk, otherwise a
+	 * stream derived from the seed, the generation and the chunk index.
+	 */
+	private XoroshiroRandom chunkRandomGenerator(int j) {
+		if (resumedRandomStates != null && resumedRandomStates.length == 2 * evolutionChunks.length) {
+			return new XoroshiroRandom(resumedRandomStates[2 * j], resumedRandomStates[2 * j + 1]);
+		}
+		return XoroshiroRandom.forStream(seed, EVOLUTION_STREAMS, ((long) generationNumber << 32) | j);
+	}
+
+	/**
+	 * Method that is executed by EvolutionRunner and evolves a part of the
+	 * current population. The children are written into the same slots of the
+	 * next population buffer, so the current population is only read. The
+	 * statistics are accumulated in the statistics of the calling chunk, so no
+	 * state is shared between the workers. If the stopping engine reports that
+	 * a budget is used up the chunk only copies its part of the population.
+	 * With a batch evaluator all children of the chunk are created first and
+	 * then evaluated together, which also counts the individuals that select
+	 * every item.
 	 * 
 	 * @param start
 	 *            - the index of the start element
@@ -178,64 +840,174 @@ public class PopulationGenerator {
 	 *            - the index of the end element
 	 * @param randomGenerator
 	 *            - dedicated random generator
-	 * @return
+	 * @param statistics
+	 *            - the statistics of the calling chunk
+	 * @param batchEvaluator
+	 *            - the batch evaluator of the calling chunk, null to evaluate
+	 *            every child on its own
+	 * @param mutationTable
+	 *            - the scratch table of the mutations of the calling chunk
 	 */
-	public static List<OrderedItemSequence> evolveSequences(int start, int end, Random randomGenerator) {
-		List<OrderedItemSequence> partialPpopulation = new ArrayList<OrderedItemSequence>();
-		int i = 0;
+	public void evolveSequences(int start, int end, Random randomGenerator, GenerationStatistics statistics,
+			BatchEvaluator batchEvaluator, MutationTable mutationTable) {
+		List<OrderedItemSequence> current = population.getIndividuals();
+		List<OrderedItemSequence> next = nextPopulation.getIndividuals();
+		long chunkStart = System.nanoTime();
+		if (stoppingEngine.checkDuringGeneration()) {
+			// A budget ran out in the middle of the generation - carry the
+			// rest of the population over unchanged
+			for (int i = start; i <= end; i++) {
+				next.get(i).copyFrom(current.get(i));
+			}
+			statistics.addBusyNanos(System.nanoTime() - chunkStart);
+			return;
+		}
 		int elementsTobeInherited = (int) Math.round(percentageOfInheritedPopulation * populationSize);
-		for (int j = start; j <= end; j++) {
-			partialPpopulation.add(population.getIndividuals().get(j));
-		}
-		if (start < elementsTobeInherited) {
-			i = elementsTobeInherited - start;
-		}
-		for (; i < partialPpopulation.size(); i++) {
-			if (randomGenerator.nextDouble() < doCrossobverProbability) {
-				numberOfCrossovers++;
-				int firstParentIndex = (int) Math.round(randomGenerator.nextDouble() * ((populationSize / 2) - 1));
-				int secondParentIndex = (int) Math.round(randomGenerator.nextDouble() * ((populationSize / 2) - 1));
-				switch (crossoverStrategy) {
-				case ONE_POINT_CROSSOVER:
-					int randomIndex = (int) Math
-							.round((randomGenerator.nextDouble() * (PopulationGenerator.numberOfItems - 1)));
-					partialPpopulation.get(i).onePointCrossover(randomIndex,
-							population.getIndividuals().get(firstParentIndex),
-							population.getIndividuals().get(secondParentIndex));
-					break;
+		for (int i = start; i <= end; i++) {
+			OrderedItemSequence child = next.get(i);
+			if (i < elementsTobeInherited) {
+				child.copyFrom(current.get(i));
+				continue;
+			}
+			long variationStart = System.nanoTime();
+			createChild(child, current.get(i), current, randomGenerator, statistics, mutationTable);
+			statistics.addVariationNanos(System.nanoTime() - variationStart);
+			if (batchEvaluator == null) {
+				evaluateChild(child, randomGenerator, statistics);
+				statistics.addEvaluated(child);
+			}
+		}
+		if (batchEvaluator != null) {
+			long evaluationStart = System.nanoTime();
+			batchEvaluator.evaluate(next, start, end + 1, statistics.getItemCounts());
+			statistics.addCountedIndividuals(end + 1 - start);
+			statistics.addEvaluationNanos(System.nanoTime() - evaluationStart);
+			for (int i = Math.max(start, elementsTobeInherited); i <= end; i++) {
+				evaluateChild(next.get(i), randomGenerator, statistics);
+				statistics.addEvaluated(next.get(i));
+			}
+		}
+		stoppingEngine.addEvaluations(statistics.getNumberOfEvaluations());
+		statistics.addBusyNanos(System.nanoTime() - chunkStart);
+	}
 
-				case TWO_POINT_CROSSOVER:
-					int firstIndexPoint = (int) Math
-							.round(randomGenerator.nextDouble() * (PopulationGenerator.numberOfItems - 1));
-					int secondIndexPoint = (int) Math
-							.round(randomGenerator.nextDouble() * (PopulationGenerator.numberOfItems - 1));
-					partialPpopulation.get(i).twoPointCrossover(firstIndexPoint, secondIndexPoint,
-							population.getIndividuals().get(firstParentIndex),
-							population.getIndividuals().get(secondParentIndex));
-					break;
+	/**
+	 * Creates a child in place by crossover of two selected parents or by
+	 * mutation of the individual in the same slot of the current population.
+	 */
+	private void createChild(OrderedItemSequence child, OrderedItemSequence individual,
+			List<OrderedItemSequence> current, Random randomGenerator, GenerationStatistics statistics,
+			MutationTable mutationTable) {
+		if (randomGenerator.nextDouble() < doCrossobverProbability) {
+			statistics.addCrossover();
+			OrderedItemSequence firstParent = parentSelector.select(current, randomGenerator);
+			OrderedItemSequence secondParent = parentSelector.select(current, randomGenerator);
+			crossover(child, firstParent, secondParent, randomGenerator);
+		} else {
+			statistics.addMutation();
+			child.copyFrom(individual);
+			mutate(child, randomGenerator, mutationTable);
+		}
+	}
 
-				case UNIFORM_CROSSOVER:
-					partialPpopulation.get(i).uniformCrossover(randomGenerator,
-							population.getIndividuals().get(firstParentIndex),
-							population.getIndividuals().get(secondParentIndex));
-					break;
+	/**
+	 * Overwrites the child with the crossover of two parents according to the
+	 * configured crossover strategy.
+	 */
+	private void crossover(OrderedItemSequence child, OrderedItemSequence firstParent,
+			OrderedItemSequence secondParent, Random randomGenerator) {
+		switch (crossoverStrategy) {
+		case ONE_POINT_CROSSOVER:
+			int randomIndex = (int) Math.round((randomGenerator.nextDouble() * (numberOfItems - 1)));
+			child.onePointCrossover(randomIndex, firstParent, secondParent);
+			break;
+
+		case TWO_POINT_CROSSOVER:
+			int firstIndexPoint = (int) Math
+					.round(randomGenerator.nextDouble() * (numberOfItems - 1));
+			int secondIndexPoint = (int) Math
+					.round(randomGenerator.nextDouble() * (numberOfItems - 1));
+			child.twoPointCrossover(firstIndexPoint, secondIndexPoint, firstParent, secondParent);
+			break;
+
+		case UNIFORM_CROSSOVER:
+			child.uniformCrossover(randomGenerator, firstParent, secondParent);
+			break;
+
+		default:
+			child.copyFrom(firstParent);
+			break;
+		}
+	}
+
+	/**
+	 * Mutates the child according to the configured mutation strategy.
+	 * 
+	 * @param child
+	 *            - the child to mutate
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @param mutationTable
+	 *            - the scratch table of the calling worker
+	 */
+	public void mutate(OrderedItemSequence child, Random randomGenerator, MutationTable mutationTable) {
+		switch (mutationStrategy) {
+		case PER_BIT_RATE:
+			double rate = mutationRate > 0 ? mutationRate : (double) numberOfMutationBits / numberOfItems;
+			child.mutatePerBit(randomGenerator, rate);
+			break;
+
+		case EXACT_BITS:
+			child.mutateExactBits(randomGenerator, numberOfMutationBits, mutationTable);
+			break;
+
+		default:
+			child.mutate(randomGenerator);
+			break;
+		}
+	}
 
-				default:
+	/**
+	 * Evaluates a child whose totals are up to date: clones are mutated again
+	 * if duplicates are suppressed, then the child is repaired, through the
+	 * fitness cache if there is one, and its fitness value is set.
+	 */
+	private void evaluateChild(OrderedItemSequence child, Random randomGenerator,
+			GenerationStatistics statistics) {
+		if (genomeSet != null) {
+			// Mutate clones of other individuals of the next generation
+			// again before they are evaluated
+			long variationStart = System.nanoTime();
+			for (int attempt = 0; !genomeSet.add(child.getHashHigh()); attempt++) {
+				statistics.addDuplicate();
+				if (attempt == DUPLICATE_MUTATIONS) {
 					break;
 				}
+				child.flip(randomGenerator.nextInt(child.getLength()));
+			}
+			statistics.addVariationNanos(System.nanoTime() - variationStart);
+		}
+		long evaluationStart = System.nanoTime();
+		boolean overweight = child.getTotalWeight() > backpackLimit;
+		int repairIterations;
+		if (overweight && fitnessCache != null) {
+			long keyHigh = child.getHashHigh();
+			long keyLow = child.getHashLow();
+			if (fitnessCache.lookup(child)) {
+				statistics.addCacheHit();
+				repairIterations = 0;
 			} else {
-				numberOfMutation++;
-				partialPpopulation.get(i).mutate(randomGenerator);
-			}
-			partialPpopulation.get(i).updateFitnessValue(randomGenerator, backpackItems, backpackLimit);
-			synchronized (bestFitnessSequence) {
-				if (partialPpopulation.get(i).getFitnessValue() > bestFitnessValue) {
-					bestFitnessValue = partialPpopulation.get(i).getFitnessValue();
-					bestFitnessSequence = new OrderedItemSequence(partialPpopulation.get(i));
-				}
+				statistics.addCacheMiss();
+				repairIterations = child.updateFitnessValue(randomGenerator, itemCatalog, backpackLimit, repairStrategy);
+				fitnessCache.store(keyHigh, keyLow, child);
 			}
-			sumFitness += partialPpopulation.get(i).getFitnessValue();
+		} else {
+			repairIterations = child.updateFitnessValue(randomGenerator, itemCatalog, backpackLimit, repairStrategy);
+		}
+		if (overweight) {
+			statistics.addRepair(System.nanoTime() - evaluationStart, repairIterations);
+		} else {
+			statistics.addEvaluationNanos(System.nanoTime() - evaluationStart);
 		}
-		return partialPpopulation;
 	}
 }
@@ -0,0 +1,137 @@
+package org.dga4kp.adt;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BatchEvaluator calculates the total weight, total value and hash of many
+ * sequences together. The genomes of 64 sequences are transposed into
+ * item-major columns with one bit per sequence, so the value, weight and hash
+ * keys of every item are read once per 64 sequences instead of once per
+ * sequence, and are added to the sums of the sequences whose bit is set in the
+ * column. As a side product the columns give the number of sequences that
+ * select every item. The evaluator keeps scratch buffers and must be used by
+ * one thread at a time.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class BatchEvaluator {
+	// Number of sequences evaluated together, one per bit of a column
+	public static final int BLOCK_SIZE = 64;
+
+	private final ItemCatalog catalog;
+	private final int length;
+	// The genomes of the sequences of the current block
+	private final long[][] genomes = new long[BLOCK_SIZE][];
+	// The genome words of a block, transposed in place into item columns
+	private final long[] columns = new long[BLOCK_SIZE];
+	// Sums and hashes of the sequences of the current block
+	private final int[] weightSums = new int[BLOCK_SIZE];
+	private final int[] valueSums = new int[BLOCK_SIZE];
+	private final long[] highHashes = new long[BLOCK_SIZE];
+	private final long[] lowHashes = new long[BLOCK_SIZE];
+
+	/**
+	 * Constructor of an evaluator for the sequences of one instance.
+	 * 
+	 * @param catalog
+	 *            - catalog with the values, weights and hash keys of the items
+	 * @param length
+	 *            - the number of bits in a genome
+	 */
+	public BatchEvaluator(ItemCatalog catalog, int length) {
+		this.catalog = catalog;
+		this.length = length;
+	}
+
+	/**
+	 * Calculates the totals and hashes of the sequences from index from
+	 * (inclusive) to index to (exclusive) and stores them in the sequences.
+	 * 
+	 * @param sequences
+	 *            - the sequences, all with genomes of the evaluator's length
+	 * @param from
+	 *            - the index of the first sequence
+	 * @param to
+	 *            - the index after the last sequence
+	 * @param itemCounts
+	 *            - array that the number of evaluated sequences selecting
+	 *            every item is added to, or null
+	 */
+	public void evaluate(List<OrderedItemSequence> sequences, int from, int to, int[] itemCounts) {
+		for (int blockStart = from; blockStart < to; blockStart += BLOCK_SIZE) {
+			evaluateBlock(sequences, blockStart, Math.min(blockStart + BLOCK_SIZE, to), itemCounts);
+		}
+	}
+
+	private void evaluateBlock(List<OrderedItemSequence> sequences, int from, int to, int[] itemCounts) {
+		int[] values = catalog.values;
+		int[] weights = catalog.weights;
+		long[] zobristHigh = catalog.zobristHigh;
+		long[] zobristLow = catalog.zobristLow;
+		int blockSize = to - from;
+		for (int k = 0; k < blockSize; k++) {
+			genomes[k] = sequences.get(from + k).getGenes();
+		}
+		Arrays.fill(weightSums, 0);
+		Arrays.fill(valueSums, 0);
+		Arrays.fill(highHashes, 0L);
+		Arrays.fill(lowHashes, 0L);
+		int words = OrderedItemSequence.wordCount(length);
+		for (int w = 0; w < words; w++) {
+			for (int k = 0; k < BLOCK_SIZE; k++) {
+				columns[k] = k < blockSize ? genomes[k][w] : 0L;
+			}
+			transpose(columns);
+			int items = Math.min(BLOCK_SIZE, length - w * BLOCK_SIZE);
+			for (int b = 0; b < items; b++) {
+				long column = columns[b];
+				if (column == 0) {
+					continue;
+				}
+				int index = w * BLOCK_SIZE + b;
+				if (itemCounts != null) {
+					itemCounts[index] += Long.bitCount(column);
+				}
+				int weight = weights[index];
+				int value = values[index];
+				long high = zobristHigh[index];
+				long low = zobristLow[index];
+				for (long bits = column; bits != 0; bits &= bits - 1) {
+					int k = Long.numberOfTrailingZeros(bits);
+					weightSums[k] += weight;
+					valueSums[k] += value;
+					highHashes[k] ^= high;
+					lowHashes[k] ^= low;
+				}
+			}
+		}
+		for (int k = 0; k < blockSize; k++) {
+			sequences.get(from + k).setTotals(weightSums[k], valueSums[k], highHashes[k], lowHashes[k]);
+			genomes[k] = null;
+		}
+	}
+
+	/**
+	 * Transposes a 64x64 bit matrix in place, so that bit c of word r moves
+	 * to bit r of word c. The quadrants are swapped recursively, from blocks
+	 * of 32x32 bits down to single bits.
+	 */
+	static void transpose(long[] matrix) {
+		long mask = 0x00000000FFFFFFFFL;
+		for (int j = 32; j != 0; j >>>= 1, mask ^= mask << j) {
+			for (int k = 0; k < BLOCK_SIZE; k = ((k | j) + 1) & ~j) {
+				long swap = ((matrix[k] >>> j) ^ matrix[k | j]) & mask;
+				matrix[k] ^= swap << j;
+				matrix[k | j] ^= swap;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("BatchEvaluator [length=%s]", length);
+	}
+}
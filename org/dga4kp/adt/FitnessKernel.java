@@ -0,0 +1,169 @@
+package org.dga4kp.adt;
+
+import java.util.SplittableRandom;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * FitnessKernel calculates the total weight, total value and hash of a packed
+ * genome from scratch, i.e. the masked sums of the values and weights of the
+ * catalog. The scalar kernel walks the set bits of every word. The vector
+ * kernel uses the jdk.incubator.vector API and is loaded by name, so it is
+ * only available on a JVM started with --add-modules jdk.incubator.vector.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public abstract class FitnessKernel {
+	static Logger log = LogManager.getLogger(FitnessKernel.class);
+
+	// Name of the implementation that uses jdk.incubator.vector
+	private static final String VECTOR_KERNEL = "org.dga4kp.adt.VectorFitnessKernel";
+	// Number of random genomes the kernels are timed on
+	private static final int CALIBRATION_GENOMES = 16;
+	// Number of items every kernel processes during one timed round
+	private static final long CALIBRATION_ITEMS = 1L << 23;
+	private static final int CALIBRATION_ROUNDS = 5;
+
+	private static final FitnessKernel SCALAR = new FitnessKernel() {
+		@Override
+		public String getName() {
+			return "scalar";
+		}
+
+		@Override
+		void computeTotals(OrderedItemSequence sequence, long[] genes, ItemCatalog catalog) {
+			int totalWeight = 0;
+			int totalValue = 0;
+			long hashHigh = 0;
+			long hashLow = 0;
+			for (int w = 0; w < genes.length; w++) {
+				long word = genes[w];
+				while (word != 0) {
+					int index = (w << 6) + Long.numberOfTrailingZeros(word);
+					totalWeight += catalog.weights[index];
+					totalValue += catalog.values[index];
+					hashHigh ^= catalog.zobristHigh[index];
+					hashLow ^= catalog.zobristLow[index];
+					word &= word - 1;
+				}
+			}
+			sequence.setTotals(totalWeight, totalValue, hashHigh, hashLow);
+		}
+	};
+
+	public abstract String getName();
+
+	/**
+	 * Calculates the totals and the hash of a genome and stores them in the
+	 * sequence.
+	 * 
+	 * @param sequence
+	 *            - the sequence that receives the totals
+	 * @param genes
+	 *            - the packed genome of the sequence, with the unused bits of
+	 *            the last word cleared
+	 * @param catalog
+	 *            - catalog with the values, weights and hash keys of the items
+	 */
+	abstract void computeTotals(OrderedItemSequence sequence, long[] genes, ItemCatalog catalog);
+
+	/**
+	 * Returns the kernel that walks the set bits one at a time and works on
+	 * every JVM.
+	 */
+	public static FitnessKernel scalar() {
+		return SCALAR;
+	}
+
+	/**
+	 * Returns the Vector API kernel or null if the JVM does not provide the
+	 * jdk.incubator.vector module.
+	 */
+	public static FitnessKernel vector() {
+		try {
+			Class.forName("jdk.incubator.vector.IntVector");
+			return (FitnessKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			log.debug("The Vector API is not available, start the JVM with --add-modules jdk.incubator.vector to use it");
+		} catch (ReflectiveOperationException e) {
+			log.warn(String.format("Could not create the vector fitness kernel: %s", e.getMessage()));
+		} catch (LinkageError e) {
+			log.warn(String.format("Could not create the vector fitness kernel: %s", e.getMessage()));
+		}
+		return null;
+	}
+
+	/**
+	 * Chooses the kernel for an instance. For AUTO both kernels are timed on
+	 * random genomes of the instance and the faster one is chosen; a requested
+	 * vector kernel falls back to the scalar one if it is not available.
+	 * 
+	 * @param type
+	 *            - the requested kernel
+	 * @param catalog
+	 *            - catalog with the items of the instance
+	 * @param length
+	 *            - the number of bits in a genome
+	 * @return the chosen kernel
+	 */
+	public static FitnessKernel select(FitnessKernelType type, ItemCatalog catalog, int length) {
+		if (type == FitnessKernelType.SCALAR) {
+			return SCALAR;
+		}
+		FitnessKernel vector = vector();
+		if (vector == null) {
+			if (type == FitnessKernelType.VECTOR) {
+				log.warn("The vector fitness kernel is not available, the scalar kernel is used");
+			}
+			return SCALAR;
+		}
+		if (type == FitnessKernelType.VECTOR || length == 0) {
+			return vector;
+		}
+		OrderedItemSequence[] genomes = calibrationGenomes(catalog, length);
+		int repetitions = (int) Math.max(1, CALIBRATION_ITEMS / ((long) length * genomes.length));
+		long scalarNanos = Long.MAX_VALUE;
+		long vectorNanos = Long.MAX_VALUE;
+		for (int round = 0; round < CALIBRATION_ROUNDS; round++) {
+			scalarNanos = Math.min(scalarNanos, time(SCALAR, genomes, catalog, repetitions));
+			vectorNanos = Math.min(vectorNanos, time(vector, genomes, catalog, repetitions));
+		}
+		FitnessKernel chosen = vectorNanos < scalarNanos ? vector : SCALAR;
+		log.info(String.format("Fitness kernel calibration: scalar %d ns, vector %d ns per genome, using %s",
+				scalarNanos / ((long) repetitions * genomes.length),
+				vectorNanos / ((long) repetitions * genomes.length), chosen.getName()));
+		return chosen;
+	}
+
+	private static OrderedItemSequence[] calibrationGenomes(ItemCatalog catalog, int length) {
+		SplittableRandom random = new SplittableRandom(length);
+		OrderedItemSequence[] genomes = new OrderedItemSequence[CALIBRATION_GENOMES];
+		for (int i = 0; i < genomes.length; i++) {
+			long[] genes = new long[OrderedItemSequence.wordCount(length)];
+			for (int w = 0; w < genes.length; w++) {
+				genes[w] = random.nextLong();
+			}
+			genomes[i] = new OrderedItemSequence(catalog, length, genes);
+		}
+		return genomes;
+	}
+
+	private static long time(FitnessKernel kernel, OrderedItemSequence[] genomes, ItemCatalog catalog,
+			int repetitions) {
+		long start = System.nanoTime();
+		for (int r = 0; r < repetitions; r++) {
+			for (OrderedItemSequence genome : genomes) {
+				kernel.computeTotals(genome, genome.getGenes(), catalog);
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("FitnessKernel [name=%s]", getName());
+	}
+}
@@ -0,0 +1,39 @@
+package org.dga4kp.adt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enum that provides direct mapping from specific fitness kernel to integer.
+ * AUTO chooses the faster of the available kernels at startup.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public enum FitnessKernelType {
+	AUTO(0), SCALAR(1), VECTOR(2);
+	private int id;
+
+	private FitnessKernelType(int s) {
+		id = s;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	private static final Map<Integer, FitnessKernelType> map;
+
+	static {
+		map = new HashMap<Integer, FitnessKernelType>();
+		for (FitnessKernelType type : FitnessKernelType.values()) {
+			map.put(type.getId(), type);
+		}
+	}
+
+	public static FitnessKernelType findByKey(int i) {
+		return map.get(i);
+	}
+
+}
@@ -0,0 +1,284 @@
+package org.dga4kp.adt;
+
+import java.util.Arrays;
+
+/**
+ * GenerationStatistics accumulates the statistics of one part of a generation:
+ * the best child, the sum of the fitness values, the number of crossovers and
+ * mutations, the fitness cache hits, the clones, the time spent in every phase
+ * and, with batch evaluation, the number of individuals that select every
+ * item. Every worker chunk owns its own instance, so nothing is shared while
+ * the generation runs, and the instances are reduced into one at the end of
+ * the generation. The best child is only kept by reference if it stays
+ * unchanged until the statistics are reduced, and the reduction compares the
+ * fitness values that were recorded, never the children themselves.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class GenerationStatistics {
+	// The child with the best fitness value, null if no child was evaluated
+	// or the children are not kept
+	private OrderedItemSequence bestSequence;
+	// The best fitness value of the evaluated children, Integer.MIN_VALUE if
+	// no child was evaluated
+	private int bestFitnessValue;
+	private long sumFitness;
+	private int numberOfEvaluations;
+	private int numberOfCrossovers;
+	private int numberOfMutations;
+	// Time spent in crossover and mutation in nanoseconds
+	private long variationNanos;
+	// Time spent evaluating children that did not need a repair
+	private long evaluationNanos;
+	// Time spent evaluating children that needed a repair, including the
+	// repair itself
+	private long repairNanos;
+	private long repairIterations;
+	// Time the chunks were running in nanoseconds
+	private long busyNanos;
+	private int cacheHits;
+	private int cacheMisses;
+	// Children that were mutated again because they were clones
+	private int duplicates;
+	// Number of individuals that select every item, null unless the
+	// individuals are batch evaluated
+	private int[] itemCounts;
+	private int numberOfCountedIndividuals;
+
+	public GenerationStatistics() {
+		reset();
+	}
+
+	/**
+	 * Clears the statistics before the next generation.
+	 */
+	public void reset() {
+		bestSequence = null;
+		bestFitnessValue = Integer.MIN_VALUE;
+		sumFitness = 0;
+		numberOfEvaluations = 0;
+		numberOfCrossovers = 0;
+		numberOfMutations = 0;
+		variationNanos = 0;
+		evaluationNanos = 0;
+		repairNanos = 0;
+		repairIterations = 0;
+		busyNanos = 0;
+		cacheHits = 0;
+		cacheMisses = 0;
+		duplicates = 0;
+		if (itemCounts != null) {
+			Arrays.fill(itemCounts, 0);
+		}
+		numberOfCountedIndividuals = 0;
+	}
+
+	/**
+	 * Starts counting the individuals that select every item.
+	 * 
+	 * @param numberOfItems
+	 *            - the number of items of the instance
+	 */
+	public void trackItemCounts(int numberOfItems) {
+		if (itemCounts == null || itemCounts.length != numberOfItems) {
+			itemCounts = new int[numberOfItems];
+		}
+	}
+
+	/**
+	 * Records an evaluated child that is kept unchanged until the statistics
+	 * are reduced, e.g. one in its slot of the next generation.
+	 * 
+	 * @param sequence
+	 *            - the child whose fitness value is up to date
+	 */
+	public void addEvaluated(OrderedItemSequence sequence) {
+		if (sequence.getFitnessValue() > bestFitnessValue) {
+			bestSequence = sequence;
+		}
+		addEvaluated(sequence.getFitnessValue());
+	}
+
+	/**
+	 * Records the fitness value of an evaluated child whose sequence is reused
+	 * for the next child, so it is not kept.
+	 * 
+	 * @param fitnessValue
+	 *            - the fitness value of the child
+	 */
+	public void addEvaluated(int fitnessValue) {
+		if (fitnessValue > bestFitnessValue) {
+			bestFitnessValue = fitnessValue;
+		}
+		sumFitness += fitnessValue;
+		numberOfEvaluations++;
+	}
+
+	public void addCrossover() {
+		numberOfCrossovers++;
+	}
+
+	public void addMutation() {
+		numberOfMutations++;
+	}
+
+	public void addVariationNanos(long nanos) {
+		variationNanos += nanos;
+	}
+
+	public void addEvaluationNanos(long nanos) {
+		evaluationNanos += nanos;
+	}
+
+	public void addRepair(long nanos, int iterations) {
+		repairNanos += nanos;
+		repairIterations += iterations;
+	}
+
+	public void addBusyNanos(long nanos) {
+		busyNanos += nanos;
+	}
+
+	public void addCacheHit() {
+		cacheHits++;
+	}
+
+	public void addCacheMiss() {
+		cacheMisses++;
+	}
+
+	public void addDuplicate() {
+		duplicates++;
+	}
+
+	public void addCountedIndividuals(int count) {
+		numberOfCountedIndividuals += count;
+	}
+
+	/**
+	 * Adds the statistics of another part of the generation to these. The best
+	 * sequence of the other part wins only if it is strictly better, so the
+	 * result does not depend on the order of equal children.
+	 * 
+	 * @param other
+	 *            - the statistics of the other part
+	 */
+	public void merge(GenerationStatistics other) {
+		if (other.getBestFitnessValue() > bestFitnessValue) {
+			bestFitnessValue = other.getBestFitnessValue();
+			bestSequence = other.getBestSequence();
+		}
+		sumFitness += other.getSumFitness();
+		numberOfEvaluations += other.getNumberOfEvaluations();
+		numberOfCrossovers += other.getNumberOfCrossovers();
+		numberOfMutations += other.getNumberOfMutations();
+		variationNanos += other.getVariationNanos();
+		evaluationNanos += other.getEvaluationNanos();
+		repairNanos += other.getRepairNanos();
+		repairIterations += other.getRepairIterations();
+		busyNanos += other.getBusyNanos();
+		cacheHits += other.getCacheHits();
+		cacheMisses += other.getCacheMisses();
+		duplicates += other.getDuplicates();
+		if (other.getItemCounts() != null) {
+			trackItemCounts(other.getItemCounts().length);
+			int[] counts = other.getItemCounts();
+			for (int i = 0; i < counts.length; i++) {
+				itemCounts[i] += counts[i];
+			}
+			numberOfCountedIndividuals += other.getNumberOfCountedIndividuals();
+		}
+	}
+
+	public OrderedItemSequence getBestSequence() {
+		return bestSequence;
+	}
+
+	public int getBestFitnessValue() {
+		return bestFitnessValue;
+	}
+
+	public long getSumFitness() {
+		return sumFitness;
+	}
+
+	public int getNumberOfEvaluations() {
+		return numberOfEvaluations;
+	}
+
+	public int getNumberOfCrossovers() {
+		return numberOfCrossovers;
+	}
+
+	public int getNumberOfMutations() {
+		return numberOfMutations;
+	}
+
+	public long getVariationNanos() {
+		return variationNanos;
+	}
+
+	public long getEvaluationNanos() {
+		return evaluationNanos;
+	}
+
+	public long getRepairNanos() {
+		return repairNanos;
+	}
+
+	public long getRepairIterations() {
+		return repairIterations;
+	}
+
+	public long getBusyNanos() {
+		return busyNanos;
+	}
+
+	public int getCacheHits() {
+		return cacheHits;
+	}
+
+	public int getCacheMisses() {
+		return cacheMisses;
+	}
+
+	public int getDuplicates() {
+		return duplicates;
+	}
+
+	public int[] getItemCounts() {
+		return itemCounts;
+	}
+
+	public int getNumberOfCountedIndividuals() {
+		return numberOfCountedIndividuals;
+	}
+
+	/**
+	 * Returns the diversity of the counted individuals: the expected fraction
+	 * of items in which two individuals drawn at random differ, from 0 when
+	 * all individuals are equal up to 0.5. It is 0 if no individual was
+	 * counted.
+	 */
+	public double getDiversity() {
+		if (itemCounts == null || itemCounts.length == 0 || numberOfCountedIndividuals == 0) {
+			return 0;
+		}
+		double sum = 0;
+		for (int count : itemCounts) {
+			double frequency = (double) count / numberOfCountedIndividuals;
+			sum += 2 * frequency * (1 - frequency);
+		}
+		return sum / itemCounts.length;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"GenerationStatistics [bestFitnessValue=%s, sumFitness=%s, numberOfEvaluations=%s, numberOfCrossovers=%s, numberOfMutations=%s]",
+				numberOfEvaluations == 0 ? null : bestFitnessValue, sumFitness, numberOfEvaluations,
+				numberOfCrossovers, numberOfMutations);
+	}
+}
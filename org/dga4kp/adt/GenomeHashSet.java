@@ -0,0 +1,78 @@
+package org.dga4kp.adt;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * GenomeHashSet is a lock-free set of genome hashes that the workers fill
+ * while they write the children of a generation, so a child that is a clone of
+ * another individual of the next population is detected with a single probe.
+ * It is an open-addressing table with linear probing that is at most half
+ * full, allocated once and cleared every generation.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class GenomeHashSet {
+	// Marks a free slot. A hash that is 0 is stored as 1 instead.
+	private static final long EMPTY = 0L;
+
+	private AtomicLongArray slots;
+	private int mask;
+	private int capacity;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            - the maximal number of hashes in the set
+	 */
+	public GenomeHashSet(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+		this.slots = new AtomicLongArray(size);
+		this.mask = size - 1;
+		this.capacity = capacity;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Adds a hash to the set.
+	 * 
+	 * @param hash
+	 *            - the hash of a genome
+	 * @return false if the hash is already in the set
+	 */
+	public boolean add(long hash) {
+		if (hash == EMPTY) {
+			hash = 1L;
+		}
+		int slot = (int) (hash ^ (hash >>> 32)) & mask;
+		while (true) {
+			long current = slots.get(slot);
+			if (current == hash) {
+				return false;
+			}
+			if (current == EMPTY) {
+				if (slots.compareAndSet(slot, EMPTY, hash)) {
+					return true;
+				}
+				// Another worker took the slot, check what it stored
+				continue;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Removes all hashes. It must not run concurrently with
+	 * {@link #add(long)}.
+	 */
+	public void clear() {
+		for (int slot = 0; slot < slots.length(); slot++) {
+			slots.lazySet(slot, EMPTY);
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package org.dga4kp.adt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * ItemCatalog is an immutable, struct-of-arrays representation of all backpack
+ * items. The values and weights are held in contiguous primitive arrays
+ * indexed by item ID so that fitness evaluation never boxes, hashes or
+ * dereferences BackpackItem objects. The catalog also holds the item IDs
+ * ordered by ascending value-to-weight ratio and the random keys that the
+ * genomes are hashed with.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public final class ItemCatalog {
+	// Values of the items indexed by ID
+	final int[] values;
+	// Weights of the items indexed by ID
+	final int[] weights;
+	// Item IDs sorted by ascending value-to-weight ratio
+	final int[] ratioOrder;
+	// Random keys of the items for the two halves of the Zobrist hash of a
+	// genome. They depend only on the number of items, so all processes that
+	// load the same instance hash genomes the same way.
+	final long[] zobristHigh;
+	final long[] zobristLow;
+
+	private static final long ZOBRIST_HIGH_SEED = 0x44474134L;
+	private static final long ZOBRIST_LOW_SEED = 0x4B6E6170L;
+	// Ranges up to this length are sorted by insertion sort
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * Constructor that builds the catalog from a list of backpack items. The
+	 * ID of every item must be equal to its position in the list.
+	 * 
+	 * @param items
+	 *            - the backpack items
+	 */
+	public ItemCatalog(List<BackpackItem> items) {
+		this.values = new int[items.size()];
+		this.weights = new int[items.size()];
+		for (BackpackItem item : items) {
+			if (item.getId() < 0 || item.getId() >= items.size()) {
+				throw new IllegalArgumentException(String.format(
+						"Item ID %d is out of range. Item IDs must be between 0 and %d!", item.getId(),
+						items.size() - 1));
+			}
+			values[item.getId()] = item.getValue();
+			weights[item.getId()] = item.getWeight();
+		}
+		this.ratioOrder = sortByRatio(items);
+		this.zobristHigh = zobristKeys(items.size(), ZOBRIST_HIGH_SEED);
+		this.zobristLow = zobristKeys(items.size(), ZOBRIST_LOW_SEED);
+	}
+
+	/**
+	 * Constructor that builds the catalog from arrays of values and weights
+	 * where the index is the item ID. The arrays are copied.
+	 * 
+	 * @param values
+	 *            - the values of the items
+	 * @param weights
+	 *            - the weights of the items
+	 */
+	public ItemCatalog(int[] values, int[] weights) {
+		if (values.length != weights.length) {
+			throw new IllegalArgumentException(String.format(
+					"The number of values is %d and the number of weights is %d. They must be equal!", values.length,
+					weights.length));
+		}
+		this.values = values.clone();
+		this.weights = weights.clone();
+		this.ratioOrder = sortByRatio(values, weights);
+		this.zobristHigh = zobristKeys(values.length, ZOBRIST_HIGH_SEED);
+		this.zobristLow = zobristKeys(values.length, ZOBRIST_LOW_SEED);
+	}
+
+	/**
+	 * Constructor that builds the catalog from arrays of values and weights
+	 * and an already computed ratio order, e.g. one read from an instance
+	 * cache. The arrays are copied.
+	 * 
+	 * @param values
+	 *            - the values of the items
+	 * @param weights
+	 *            - the weights of the items
+	 * @param ratioOrder
+	 *            - the item IDs sorted by ascending value-to-weight ratio
+	 */
+	public ItemCatalog(int[] values, int[] weights, int[] ratioOrder) {
+		if (values.length != weights.length || values.length != ratioOrder.length) {
+			throw new IllegalArgumentException(String.format(
+					"The number of values is %d, the number of weights is %d and the ratio order has %d items. They must be equal!",
+					values.length, weights.length, ratioOrder.length));
+		}
+		this.values = values.clone();
+		this.weights = weights.clone();
+		this.ratioOrder = ratioOrder.clone();
+		this.zobristHigh = zobristKeys(values.length, ZOBRIST_HIGH_SEED);
+		this.zobristLow = zobristKeys(values.length, ZOBRIST_LOW_SEED);
+	}
+
+	private static long[] zobristKeys(int size, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		long[] keys = new long[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = random.nextLong();
+		}
+		return keys;
+	}
+
+	/**
+	 * Sorts the item IDs by ascending value-to-weight ratio with a stable merge
+	 * sort on primitive arrays. The order is the same as the one of
+	 * {@link BackpackItemComparator}, but large instances are sorted without
+	 * creating an object per item. The ratios are moved together with the IDs,
+	 * so every merge reads its input sequentially.
+	 */
+	private static int[] sortByRatio(int[] values, int[] weights) {
+		double[] ratios = new double[values.length];
+		int[] order = new int[values.length];
+		for (int i = 0; i < order.length; i++) {
+			ratios[i] = ((double) values[i]) / ((double) weights[i]);
+			order[i] = i;
+		}
+		mergeSort(order, ratios, order.clone(), ratios.clone(), 0, order.length);
+		return order;
+	}
+
+	/**
+	 * Sorts the range from start (inclusive) to end (exclusive) of order and
+	 * ratios, using the buffers, which hold the same items, as the source of
+	 * the merge.
+	 */
+	private static void mergeSort(int[] order, double[] ratios, int[] orderBuffer, double[] ratioBuffer, int start,
+			int end) {
+		if (end - start <= INSERTION_SORT_THRESHOLD) {
+			insertionSort(order, ratios, start, end);
+			return;
+		}
+		int middle = (start + end) >>> 1;
+		mergeSort(orderBuffer, ratioBuffer, order, ratios, start, middle);
+		mergeSort(orderBuffer, ratioBuffer, order, ratios, middle, end);
+		int left = start;
+		int right = middle;
+		for (int i = start; i < end; i++) {
+			if (right >= end || (left < middle && !(ratioBuffer[left] > ratioBuffer[right]))) {
+				order[i] = orderBuffer[left];
+				ratios[i] = ratioBuffer[left++];
+			} else {
+				order[i] = orderBuffer[right];
+				ratios[i] = ratioBuffer[right++];
+			}
+		}
+	}
+
+	private static void insertionSort(int[] order, double[] ratios, int start, int end) {
+		for (int i = start + 1; i < end; i++) {
+			int id = order[i];
+			double ratio = ratios[i];
+			int j = i - 1;
+			while (j >= start && ratios[j] > ratio) {
+				order[j + 1] = order[j];
+				ratios[j + 1] = ratios[j];
+				j--;
+			}
+			order[j + 1] = id;
+			ratios[j + 1] = ratio;
+		}
+	}
+
+	private static int[] sortByRatio(List<BackpackItem> items) {
+		List<BackpackItem> sorted = new ArrayList<BackpackItem>(items);
+		Collections.sort(sorted, new BackpackItemComparator());
+		int[] order = new int[sorted.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = sorted.get(i).getId();
+		}
+		return order;
+	}
+
+	public int size() {
+		return values.length;
+	}
+
+	public int getValue(int id) {
+		return values[id];
+	}
+
+	public int getWeight(int id) {
+		return weights[id];
+	}
+
+	/**
+	 * Returns the ID of the item at the given rank when the items are sorted
+	 * by ascending value-to-weight ratio.
+	 * 
+	 * @param rank
+	 *            - 0 for the item with the worst ratio
+	 * @return the ID of the item
+	 */
+	public int getItemByRatio(int rank) {
+		return ratioOrder[rank];
+	}
+
+	public BackpackItem getItem(int id) {
+		return new BackpackItem(id, values[id], weights[id]);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ItemCatalog [size=%s]", values.length);
+	}
+}
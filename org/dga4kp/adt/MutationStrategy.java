@@ -0,0 +1,39 @@
+package org.dga4kp.adt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enum that provides direct mapping from specific mutation strategy to
+ * integer.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public enum MutationStrategy {
+	RANDOM_DRAWS(1), PER_BIT_RATE(2), EXACT_BITS(3);
+	private int id;
+
+	private MutationStrategy(int s) {
+		id = s;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	private static final Map<Integer, MutationStrategy> map;
+
+	static {
+		map = new HashMap<Integer, MutationStrategy>();
+		for (MutationStrategy strategy : MutationStrategy.values()) {
+			map.put(strategy.getId(), strategy);
+		}
+	}
+
+	public static MutationStrategy findByKey(int i) {
+		return map.get(i);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package org.dga4kp.adt;
+
+import java.util.Arrays;
+
+/**
+ * MutationTable is the scratch table of the indices already flipped by an
+ * exact-bits mutation, see
+ * {@link OrderedItemSequence#mutateExactBits(java.util.Random, int, MutationTable)}.
+ * It is an open-addressing table with linear probing that is at least twice
+ * as large as the number of flipped bits and empty between mutations. It is
+ * not thread-safe: every worker owns one and uses it for all of its children.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class MutationTable {
+	// Indices + 1 of the flipped bits, 0 marks a free slot
+	private int[] slots = new int[0];
+	// Number of bits of a slot number of the current mutation
+	private int tableBits;
+
+	/**
+	 * Prepares the table for a mutation that flips the given number of bits,
+	 * growing it if it is too small.
+	 *
+	 * @param count
+	 *            - the number of bits to flip, at least 1
+	 */
+	void start(int count) {
+		// At least twice the number of bits, so the probes stay short
+		tableBits = 32 - Integer.numberOfLeadingZeros(2 * count - 1) + 1;
+		if (slots.length < 1 << tableBits) {
+			slots = new int[1 << tableBits];
+		}
+	}
+
+	/**
+	 * Adds an index to the table.
+	 *
+	 * @return false if the index was already in the table
+	 */
+	boolean add(int index) {
+		int mask = (1 << tableBits) - 1;
+		int slot = (index * 0x9E3779B9) >>> (32 - tableBits);
+		while (slots[slot] != 0) {
+			if (slots[slot] == index + 1) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = index + 1;
+		return true;
+	}
+
+	/**
+	 * Empties the part of the table that the current mutation used.
+	 */
+	void finish() {
+		Arrays.fill(slots, 0, 1 << tableBits, 0);
+	}
+}
@@ -1,20 +1,20 @@
 package org.dga4kp.adt;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Map;
 import java.util.Random;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.dga4kp.PopulationGenerator;
 
 /**
  * OrderedItemSequence is a class providing abstract structure for an individual
  * or candidate solution in GA. We represent each individual as a sequence of 0
  * and 1 (True and False) where 0 means the item with id equal to the index
  * won't be taken and 1 means the item with id equal to the index will be taken.
+ * The sequence is bit-packed into 64-bit words so that the genetic operators
+ * work on whole words at a time.
  * Sequence has a fitness field which represents what is the total value of all
  * items that will be put in the backpack.
  * 
@@ -23,8 +23,29 @@ import org.dga4kp.PopulationGenerator;
  *
  */
 public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
+	// Number of bits (items) packed into a single word of the genome
+	private static final int BITS_PER_WORD = 64;
+
 	private int fitnessValue;
-	private List<Boolean> items;
+	// Bit-packed genome - bit i of the sequence is bit (i % 64) of word i / 64
+	private long[] genes;
+	// Number of meaningful bits in the genome
+	private int length;
+	// Running totals of the items marked with True, kept up to date by every
+	// operator that changes a bit
+	private int totalWeight;
+	private int totalValue;
+	// Zobrist hash of the genome in two independent halves: the XOR of the
+	// random keys of the items marked with True, kept up to date together with
+	// the totals
+	private long hashHigh;
+	private long hashLow;
+	// Catalog with the values and weights of the items
+	private ItemCatalog catalog;
+	// True if the crossovers leave the totals and the hash to a
+	// BatchEvaluator, which is set on the population buffers with batch
+	// evaluation
+	private boolean deferTotals;
 
 	static Logger log = LogManager.getLogger(OrderedItemSequence.class);
 
@@ -33,24 +54,48 @@ public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
 	 */
 	public OrderedItemSequence() {
 		this.fitnessValue = 0;
-		this.items = new ArrayList<Boolean>();
+		this.length = 0;
+		this.genes = new long[0];
 	}
 
 	/**
 	 * Constructor that produces a new OrderedItemSequence object with
 	 * randomized items
 	 * 
+	 * @param catalog
+	 *            - the catalog of the items
+	 * @param length
+	 *            - the number of items in the sequence
+	 * @param randomGenerator
+	 *            - the dedicated random generator
+	 */
+	public OrderedItemSequence(ItemCatalog catalog, int length, Random randomGenerator) {
+		this(catalog, length, randomGenerator, FitnessKernel.scalar());
+	}
+
+	/**
+	 * Constructor that produces a new OrderedItemSequence object with
+	 * randomized items whose totals are calculated by the given fitness kernel
+	 * 
+	 * @param catalog
+	 *            - the catalog of the items
+	 * @param length
+	 *            - the number of items in the sequence
 	 * @param randomGenerator
 	 *            - the dedicated random generator
+	 * @param kernel
+	 *            - the fitness kernel that calculates the totals
 	 */
-	public OrderedItemSequence(Random randomGenerator) {
+	public OrderedItemSequence(ItemCatalog catalog, int length, Random randomGenerator, FitnessKernel kernel) {
 		this.fitnessValue = 0;
-		long value;
-		this.items = new ArrayList<Boolean>();
-		for (int i = 0; i < PopulationGenerator.numberOfItems; i++) {
-			value = Math.round(randomGenerator.nextDouble());
-			this.items.add((value == 1) ? new Boolean(true) : new Boolean(false));
+		this.length = length;
+		this.catalog = catalog;
+		this.genes = new long[wordCount(length)];
+		for (int w = 0; w < genes.length; w++) {
+			genes[w] = randomGenerator.nextLong();
 		}
+		clearTail();
+		recomputeTotals(kernel);
 	}
 
 	/**
@@ -60,12 +105,116 @@ public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
 	 *            - OrderedItemSequence object that shoudl be copies
 	 */
 	public OrderedItemSequence(OrderedItemSequence sequence) {
-		this.items = sequence.getItems();
+		this.length = sequence.getLength();
+		this.catalog = sequence.getCatalog();
+		this.genes = sequence.getGenes().clone();
+		this.fitnessValue = sequence.getFitnessValue();
+		this.totalWeight = sequence.getTotalWeight();
+		this.totalValue = sequence.getTotalValue();
+		this.hashHigh = sequence.getHashHigh();
+		this.hashLow = sequence.getHashLow();
+	}
+
+	/**
+	 * Constructor that wraps an already packed genome, e.g. one that was
+	 * received from another island. The totals are calculated from the genome.
+	 * 
+	 * @param catalog
+	 *            - catalog with the values and weights of the items
+	 * @param length
+	 *            - the number of bits in the genome
+	 * @param genes
+	 *            - the packed genome, which is not copied
+	 */
+	public OrderedItemSequence(ItemCatalog catalog, int length, long[] genes) {
+		if (genes.length != wordCount(length)) {
+			throw new IllegalArgumentException(String.format(
+					"A genome of %d bits needs %d words but %d words were given!", length, wordCount(length),
+					genes.length));
+		}
+		this.catalog = catalog;
+		this.length = length;
+		this.genes = genes;
+		clearTail();
+		recomputeTotals();
+	}
+
+	public OrderedItemSequence(ItemCatalog catalog, List<Boolean> items) {
+		this.length = items.size();
+		this.catalog = catalog;
+		this.genes = new long[wordCount(length)];
+		ListIterator<Boolean> iterator = items.listIterator();
+		while (iterator.hasNext()) {
+			int nextIndex = iterator.nextIndex();
+			if (iterator.next()) {
+				genes[nextIndex / BITS_PER_WORD] |= 1L << nextIndex;
+			}
+		}
+		recomputeTotals();
+	}
+
+	/**
+	 * Overwrites "this" sequence with the genome, totals and fitness value of
+	 * another sequence. The genome array is reused when the lengths match, so
+	 * copying between sequences of the same instance does not allocate.
+	 * 
+	 * @param sequence
+	 *            - OrderedItemSequence object that should be copied
+	 */
+	public void copyFrom(OrderedItemSequence sequence) {
+		long[] source = sequence.getGenes();
+		if (genes.length != source.length) {
+			genes = new long[source.length];
+		}
+		System.arraycopy(source, 0, genes, 0, source.length);
+		this.length = sequence.getLength();
+		this.catalog = sequence.getCatalog();
 		this.fitnessValue = sequence.getFitnessValue();
+		this.totalWeight = sequence.getTotalWeight();
+		this.totalValue = sequence.getTotalValue();
+		this.hashHigh = sequence.getHashHigh();
+		this.hashLow = sequence.getHashLow();
+	}
+
+	/**
+	 * Overwrites "this" sequence with a genome that is stored in a larger
+	 * array, e.g. by a cache, together with its totals, hash and fitness
+	 * value.
+	 * 
+	 * @param source
+	 *            - the array that holds the genome
+	 * @param offset
+	 *            - the index of the first word of the genome
+	 * @param fitnessValue
+	 *            - the fitness value of the genome
+	 * @param totalWeight
+	 *            - the total weight of the genome
+	 * @param totalValue
+	 *            - the total value of the genome
+	 * @param hashHigh
+	 *            - the high half of the hash of the genome
+	 * @param hashLow
+	 *            - the low half of the hash of the genome
+	 */
+	public void restore(long[] source, int offset, int fitnessValue, int totalWeight, int totalValue,
+			long hashHigh, long hashLow) {
+		System.arraycopy(source, offset, genes, 0, genes.length);
+		this.fitnessValue = fitnessValue;
+		this.totalWeight = totalWeight;
+		this.totalValue = totalValue;
+		this.hashHigh = hashHigh;
+		this.hashLow = hashLow;
 	}
 
-	public OrderedItemSequence(List<Boolean> items) {
-		this.items = new ArrayList<Boolean>(items);
+	/**
+	 * Returns the number of words needed to hold a genome of the given length.
+	 * 
+	 * @param length
+	 *            - the number of bits in the genome
+	 * @return the number of 64-bit words
+	 */
+	public static int wordCount(int length) {
+		return (length + BITS_PER_WORD - 1) / BITS_PER_WORD;
 	}
 
 	public int getFitnessValue() {
@@ -76,79 +225,259 @@ public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
 		this.fitnessValue = fitnessValue;
 	}
 
-	public List<Boolean> getItems() {
-		return items;
+	public int getTotalWeight() {
+		return totalWeight;
+	}
+
+	public int getTotalValue() {
+		return totalValue;
+	}
+
+	public long getHashHigh() {
+		return hashHigh;
+	}
+
+	public long getHashLow() {
+		return hashLow;
+	}
+
+	/**
+	 * Returns true if the genome of "this" sequence is the same as the genome
+	 * of another sequence of the same instance.
+	 * 
+	 * @param sequence
+	 *            - the sequence to compare with
+	 */
+	public boolean sameGenome(OrderedItemSequence sequence) {
+		return hashHigh == sequence.getHashHigh() && hashLow == sequence.getHashLow()
+				&& Arrays.equals(genes, sequence.getGenes());
+	}
+
+	public void setDeferTotals(boolean deferTotals) {
+		this.deferTotals = deferTotals;
+	}
+
+	public ItemCatalog getCatalog() {
+		return catalog;
+	}
+
+	public long[] getGenes() {
+		return genes;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public boolean get(int index) {
+		return (genes[index / BITS_PER_WORD] & (1L << index)) != 0;
+	}
+
+	public void set(int index, boolean value) {
+		if (get(index) != value) {
+			flip(index);
+		}
+	}
+
+	public void flip(int index) {
+		genes[index / BITS_PER_WORD] ^= 1L << index;
+		hashHigh ^= catalog.zobristHigh[index];
+		hashLow ^= catalog.zobristLow[index];
+		if (get(index)) {
+			totalWeight += catalog.weights[index];
+			totalValue += catalog.values[index];
+		} else {
+			totalWeight -= catalog.weights[index];
+			totalValue -= catalog.values[index];
+		}
+	}
+
+	/**
+	 * Recalculates the total weight, total value and hash of the sequence from
+	 * scratch with the scalar fitness kernel. The operators keep them up to
+	 * date, so this is only needed when the genome is built directly.
+	 */
+	public void recomputeTotals() {
+		recomputeTotals(FitnessKernel.scalar());
+	}
+
+	/**
+	 * Recalculates the total weight, total value and hash of the sequence from
+	 * scratch with the given fitness kernel.
+	 * 
+	 * @param kernel
+	 *            - the fitness kernel that calculates the totals
+	 */
+	public void recomputeTotals(FitnessKernel kernel) {
+		kernel.computeTotals(this, genes, catalog);
+	}
+
+	void setTotals(int totalWeight, int totalValue, long hashHigh, long hashLow) {
+		this.totalWeight = totalWeight;
+		this.totalValue = totalValue;
+		this.hashHigh = hashHigh;
+		this.hashLow = hashLow;
 	}
 
-	public void setItems(List<Boolean> items) {
-		this.items = items;
+	/**
+	 * Returns the number of items that are marked with True in the sequence.
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (long word : genes) {
+			count += Long.bitCount(word);
+		}
+		return count;
 	}
 
 	/**
-	 * Method that implements mutation operator used in GA.
+	 * Method that implements mutation operator used in GA. It flips as many
+	 * random positions as the sequence has items, so a position may be drawn
+	 * more than once.
 	 * 
 	 * @param randomGenerator
 	 *            - dedicated random generator
 	 */
 	public void mutate(Random randomGenerator) {
-		for (int i = 0; i < PopulationGenerator.numberOfItems; i++) {
-			int index = (int) (randomGenerator.nextDouble() * (items.size() - 1));
-			items.set(index, !items.get(index));
+		for (int i = 0; i < length; i++) {
+			int index = (int) (randomGenerator.nextDouble() * (length - 1));
+			flip(index);
+		}
+	}
+
+	/**
+	 * Flips every bit independently with the given probability. Instead of
+	 * drawing a number for every bit, the gap to the next flipped bit is drawn
+	 * from the geometric distribution, so the cost is proportional to the
+	 * number of flipped bits.
+	 * 
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @param rate
+	 *            - the probability to flip a bit
+	 */
+	public void mutatePerBit(Random randomGenerator, double rate) {
+		if (rate <= 0) {
+			return;
+		}
+		// Logarithm of the probability to keep a bit, -Infinity for rate 1
+		double logKeep = Math.log1p(-Math.min(rate, 1));
+		int index = -1;
+		while (true) {
+			// 1 - nextDouble() is in (0, 1], so the logarithm is finite
+			double skip = Math.floor(Math.log(1 - randomGenerator.nextDouble()) / logKeep);
+			if (skip >= length - 1 - index) {
+				return;
+			}
+			index += (int) skip + 1;
+			flip(index);
+		}
+	}
+
+	/**
+	 * Flips exactly the given number of distinct bits, all sets of bits being
+	 * equally likely. The bits are chosen by Floyd's sampling algorithm, which
+	 * draws one number per flipped bit and checks the bits flipped so far in
+	 * the small hash table of the calling worker.
+	 * 
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @param numberOfBits
+	 *            - the number of bits to flip, at most the length of the
+	 *            sequence
+	 * @param table
+	 *            - the scratch table of the calling worker
+	 */
+	public void mutateExactBits(Random randomGenerator, int numberOfBits, MutationTable table) {
+		int count = Math.min(numberOfBits, length);
+		if (count <= 0) {
+			return;
+		}
+		table.start(count);
+		for (int j = length - count; j < length; j++) {
+			int index = randomGenerator.nextInt(j + 1);
+			if (!table.add(index)) {
+				// Floyd's algorithm takes j, which cannot be taken yet
+				index = j;
+				table.add(index);
+			}
+			flip(index);
 		}
+		table.finish();
 	}
 
 	/**
-	 * Updates fitness value for this sequence. Fitness value is calculated for
-	 * the sequence by sum of the values of all the items that are are marked
-	 * with True in the sequence. If the weight of the values marked with True
-	 * exceeds the limit of the backpack a random True item is changed to False
-	 * and the fitness value is calculated again.
+	 * Updates fitness value for this sequence. Fitness value is the sum of the
+	 * values of all the items that are are marked with True in the sequence,
+	 * which is tracked incrementally by the operators. If the weight of the
+	 * values marked with True exceeds the limit of the backpack the sequence is
+	 * repaired according to the given repair strategy.
 	 * 
 	 * 
 	 * @param randomGenerator
 	 *            - the dedicated random generator
-	 * @param backpackItems
-	 *            - map of backpack values to their unique identifiers
+	 * @param itemCatalog
+	 *            - catalog with the values and weights of the backpack items
 	 * @param backpackLimitWeight
 	 *            - limit of the backpack
+	 * @param repairStrategy
+	 *            - the repair strategy for overweight sequences
+	 * @return the number of iterations the repair needed, 0 if the sequence
+	 *         already fit into the backpack
 	 */
-	public void updateFitnessValue(Random randomGenerator, Map<Integer, BackpackItem> backpackItems,
-			int backpackLimitWeight) {
-		if (items.size() > backpackItems.size()) {
+	public int updateFitnessValue(Random randomGenerator, ItemCatalog itemCatalog, int backpackLimitWeight,
+			RepairStrategy repairStrategy) {
+		if (length > itemCatalog.size()) {
 			throw new IllegalArgumentException(String.format(
-					"The number of bits in the ordered item sequence is %d and the size of the map containing backpack items is %d. They must be equal!",
-					items.size(), backpackItems.size()));
+					"The number of bits in the ordered item sequence is %d and the size of the item catalog is %d. They must be equal!",
+					length, itemCatalog.size()));
 		}
-		int totalWeight = 0;
-		int totalValue = 0;
-		ListIterator<Boolean> itemsIterator = this.items.listIterator();
-		while (itemsIterator.hasNext()) {
-			int nextIndex = itemsIterator.nextIndex();
-			if (itemsIterator.next()) {
-				totalWeight += backpackItems.get(new Integer(nextIndex)).getWeight();
-				totalValue += backpackItems.get(new Integer(nextIndex)).getValue();
-			}
+		int repairIterations = 0;
+		if (totalWeight > backpackLimitWeight && repairStrategy == RepairStrategy.GREEDY_REPAIR) {
+			repairIterations += greedyRepair(itemCatalog, backpackLimitWeight);
 		}
 		while (totalWeight > backpackLimitWeight) {
 			while (true) {
-				int index = (int) Math.round(randomGenerator.nextDouble() * (PopulationGenerator.numberOfItems - 1));
-				if (items.get(index)) {
-					items.set(index, new Boolean(false));
+				repairIterations++;
+				int index = (int) Math.round(randomGenerator.nextDouble() * (length - 1));
+				if (get(index)) {
+					set(index, false);
 					break;
 				}
 			}
-			totalWeight = 0;
-			totalValue = 0;
-			itemsIterator = items.listIterator();
-			while (itemsIterator.hasNext()) {
-				int nextIndex = itemsIterator.nextIndex();
-				if (itemsIterator.next()) {
-					totalWeight += backpackItems.get(new Integer(nextIndex)).getWeight();
-					totalValue += backpackItems.get(new Integer(nextIndex)).getValue();
-				}
-			}
 		}
 		this.fitnessValue = totalValue;
+		return repairIterations;
+	}
+
+	/**
+	 * Repairs an overweight sequence by walking the items from the worst to
+	 * the best value-to-weight ratio and changing True items to False until
+	 * the sequence fits. After that the items are walked from the best ratio
+	 * down and every False item that still fits is changed to True.
+	 * 
+	 * @param itemCatalog
+	 *            - catalog with the value-to-weight ratio order of the items
+	 * @param backpackLimitWeight
+	 *            - limit of the backpack
+	 * @return the number of items that were visited
+	 */
+	public int greedyRepair(ItemCatalog itemCatalog, int backpackLimitWeight) {
+		int[] ratioOrder = itemCatalog.ratioOrder;
+		int dropped = 0;
+		for (; dropped < ratioOrder.length && totalWeight > backpackLimitWeight; dropped++) {
+			if (ratioOrder[dropped] < length && get(ratioOrder[dropped])) {
+				flip(ratioOrder[dropped]);
+			}
+		}
+		int added = 0;
+		for (int i = ratioOrder.length - 1; i >= 0 && totalWeight < backpackLimitWeight; i--, added++) {
+			int index = ratioOrder[i];
+			if (index < length && !get(index) && totalWeight + catalog.weights[index] <= backpackLimitWeight) {
+				flip(index);
+			}
+		}
+		return dropped + added;
 	}
 
 	/**
@@ -167,16 +496,7 @@ public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
 	 */
 	public void onePointCrossover(int randomIndex, OrderedItemSequence firstSequence,
 			OrderedItemSequence secondSequence) {
-		ListIterator<Boolean> iterator = firstSequence.getItems().listIterator();
-		while (iterator.hasNext()) {
-			int nextIndex = iterator.nextIndex();
-			if (nextIndex < randomIndex) {
-				this.items.set(nextIndex, secondSequence.getItems().get(nextIndex));
-			} else {
-				this.items.set(nextIndex, firstSequence.getItems().get(nextIndex));
-			}
-			iterator.next();
-		}
+		blend(0, randomIndex, firstSequence, secondSequence);
 	}
 
 	/**
@@ -198,16 +518,8 @@ public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
 	 */
 	public void twoPointCrossover(int firstIndexPoint, int secondIndexPoint, OrderedItemSequence firstSequence,
 			OrderedItemSequence secondSequence) {
-		ListIterator<Boolean> iterator = firstSequence.getItems().listIterator();
-		while (iterator.hasNext()) {
-			if ((Math.min(firstIndexPoint, secondIndexPoint) < iterator.nextIndex())
-					&& (iterator.nextIndex() < Math.max(firstIndexPoint, secondIndexPoint))) {
-				this.items.set(iterator.nextIndex(), secondSequence.getItems().get(iterator.nextIndex()));
-			} else {
-				this.items.set(iterator.nextIndex(), firstSequence.getItems().get(iterator.nextIndex()));
-			}
-			iterator.next();
-		}
+		blend(Math.min(firstIndexPoint, secondIndexPoint) + 1, Math.max(firstIndexPoint, secondIndexPoint),
+				firstSequence, secondSequence);
 	}
 
 	/**
@@ -227,14 +539,78 @@ public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
 	 */
 	public void uniformCrossover(Random randomGenerator, OrderedItemSequence firstSequence,
 			OrderedItemSequence secondSequence) {
-		ListIterator<Boolean> iterator = firstSequence.getItems().listIterator();
-		while (iterator.hasNext()) {
-			if (randomGenerator.nextBoolean()) {
-				this.items.set(iterator.nextIndex(), secondSequence.getItems().get(iterator.nextIndex()));
+		long[] first = firstSequence.getGenes();
+		long[] second = secondSequence.getGenes();
+		for (int w = 0; w < genes.length; w++) {
+			// Every bit of the random word decides which parent the
+			// corresponding item is taken from
+			long mask = randomGenerator.nextLong();
+			assignWord(w, (second[w] & mask) | (first[w] & ~mask));
+		}
+	}
+
+	/**
+	 * Copies the bits in [from, to) from the second parent and all other bits
+	 * from the first parent into "this" sequence, one 64-bit word at a time.
+	 */
+	private void blend(int from, int to, OrderedItemSequence firstSequence, OrderedItemSequence secondSequence) {
+		long[] first = firstSequence.getGenes();
+		long[] second = secondSequence.getGenes();
+		for (int w = 0; w < genes.length; w++) {
+			long mask = rangeMask(w, from, to);
+			assignWord(w, (second[w] & mask) | (first[w] & ~mask));
+		}
+	}
+
+	/**
+	 * Replaces word w of the genome and updates the totals and the hash for
+	 * the bits that actually changed. If the totals are deferred only the word
+	 * is replaced and the totals are left to the {@link BatchEvaluator}.
+	 */
+	private void assignWord(int w, long word) {
+		long changed = genes[w] ^ word;
+		genes[w] = word;
+		if (deferTotals) {
+			return;
+		}
+		while (changed != 0) {
+			int bit = Long.numberOfTrailingZeros(changed);
+			int index = w * BITS_PER_WORD + bit;
+			hashHigh ^= catalog.zobristHigh[index];
+			hashLow ^= catalog.zobristLow[index];
+			if ((word & (1L << bit)) != 0) {
+				totalWeight += catalog.weights[index];
+				totalValue += catalog.values[index];
 			} else {
-				this.items.set(iterator.nextIndex(), firstSequence.getItems().get(iterator.nextIndex()));
+				totalWeight -= catalog.weights[index];
+				totalValue -= catalog.values[index];
 			}
-			iterator.next();
+			changed &= changed - 1;
+		}
+	}
+
+	/**
+	 * Returns the bits of word w that fall in the index range [from, to).
+	 */
+	private static long rangeMask(int w, int from, int to) {
+		int wordStart = w * BITS_PER_WORD;
+		int lo = Math.max(from - wordStart, 0);
+		int hi = Math.min(to - wordStart, BITS_PER_WORD);
+		if (lo >= hi) {
+			return 0L;
+		}
+		long upper = (hi == BITS_PER_WORD) ? -1L : (1L << hi) - 1;
+		return upper & (-1L << lo);
+	}
+
+	/**
+	 * Clears the unused bits of the last word so that they never contribute to
+	 * the sequence.
+	 */
+	private void clearTail() {
+		int tail = length % BITS_PER_WORD;
+		if (tail != 0) {
+			genes[genes.length - 1] &= (1L << tail) - 1;
 		}
 	}
 
@@ -242,13 +618,13 @@ public class OrderedItemSequence implements Comparable<OrderedItemSequence> {
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append(String.format("OrderedItemSequence [fitnessValue=%s, items(weight, value)=[ ", this.fitnessValue));
-		ListIterator<Boolean> iterator = items.listIterator();
-		while (iterator.hasNext()) {
-			int nextIndex = iterator.nextIndex();
-			if (iterator.next()) {
-				sb.append(String.format("#%d(%d, %d) ", nextIndex,
-						PopulationGenerator.backpackItems.get(nextIndex).getWeight(),
-						PopulationGenerator.backpackItems.get(nextIndex).getValue()));
+		for (int w = 0; w < genes.length; w++) {
+			long word = genes[w];
+			while (word != 0) {
+				int nextIndex = w * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+				sb.append(String.format("#%d(%d, %d) ", nextIndex, catalog.getWeight(nextIndex),
+						catalog.getValue(nextIndex)));
+				word &= word - 1;
 			}
 		}
 		sb.append("]");
@@ -0,0 +1,39 @@
+package org.dga4kp.adt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enum that provides direct mapping from specific repair strategy for
+ * overweight sequences to integer.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public enum RepairStrategy {
+	RANDOM_REPAIR(1), GREEDY_REPAIR(2);
+	private int id;
+
+	private RepairStrategy(int s) {
+		id = s;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	private static final Map<Integer, RepairStrategy> map;
+
+	static {
+		map = new HashMap<Integer, RepairStrategy>();
+		for (RepairStrategy strategy : RepairStrategy.values()) {
+			map.put(strategy.getId(), strategy);
+		}
+	}
+
+	public static RepairStrategy findByKey(int i) {
+		return map.get(i);
+	}
+
+}
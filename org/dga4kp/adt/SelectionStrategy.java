@@ -0,0 +1,39 @@
+package org.dga4kp.adt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enum that provides direct mapping from specific parent selection strategy to
+ * integer.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public enum SelectionStrategy {
+	UNIFORM_TOP_HALF(1), TOURNAMENT(2), ROULETTE(3);
+	private int id;
+
+	private SelectionStrategy(int s) {
+		id = s;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	private static final Map<Integer, SelectionStrategy> map;
+
+	static {
+		map = new HashMap<Integer, SelectionStrategy>();
+		for (SelectionStrategy strategy : SelectionStrategy.values()) {
+			map.put(strategy.getId(), strategy);
+		}
+	}
+
+	public static SelectionStrategy findByKey(int i) {
+		return map.get(i);
+	}
+
+}
@@ -0,0 +1,205 @@
+package org.dga4kp.adt;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * SteadyStatePopulation guards the slots of a population that the workers of
+ * a steady-state evolution read and replace concurrently. Every slot has its
+ * own StampedLock: a child replaces the individual of a slot under its write
+ * lock, and parents are read optimistically, so a reader only takes read
+ * locks when a parent was replaced while it was being read. A writer never
+ * holds more than one lock, so the locks cannot deadlock. The fitness values
+ * compared by the tournaments are read without locks and may be slightly out
+ * of date.
+ * 
+ * Without generations a fit individual would quickly fill the population with
+ * its clones, so the genome hashes of the individuals are kept in a
+ * concurrent set and a child whose genome is already in the population is
+ * rejected. The hash of the child is added to the set under the write lock of
+ * the slot it replaces, so two workers cannot both add the same genome.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class SteadyStatePopulation {
+	/**
+	 * Outcome of {@link SteadyStatePopulation#replace(int, OrderedItemSequence)}.
+	 */
+	public enum Replacement {
+		// The child replaced the individual
+		REPLACED,
+		// The child is less fit than the individual
+		WEAKER,
+		// The genome of the child is already in the population
+		DUPLICATE
+	}
+
+	private List<OrderedItemSequence> individuals;
+	private StampedLock[] locks;
+	// High halves of the genome hashes of the individuals
+	private Set<Long> hashes = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+
+	/**
+	 * Constructor
+	 *
+	 * @param population
+	 *            - the population whose individuals are replaced in place
+	 */
+	public SteadyStatePopulation(Population population) {
+		this.individuals = population.getIndividuals();
+		this.locks = new StampedLock[individuals.size()];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new StampedLock();
+			hashes.add(individuals.get(i).getHashHigh());
+		}
+	}
+
+	public List<OrderedItemSequence> getIndividuals() {
+		return individuals;
+	}
+
+	public int size() {
+		return locks.length;
+	}
+
+	/**
+	 * Returns the slot of the fittest of tournamentSize individuals drawn at
+	 * random.
+	 *
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @param tournamentSize
+	 *            - the number of individuals in the tournament
+	 */
+	public int tournament(Random randomGenerator, int tournamentSize) {
+		int winner = randomGenerator.nextInt(locks.length);
+		for (int i = 1; i < tournamentSize; i++) {
+			int competitor = randomGenerator.nextInt(locks.length);
+			if (individuals.get(competitor).getFitnessValue() > individuals.get(winner).getFitnessValue()) {
+				winner = competitor;
+			}
+		}
+		return winner;
+	}
+
+	/**
+	 * Returns the slot of the weakest of tournamentSize individuals drawn at
+	 * random.
+	 *
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @param tournamentSize
+	 *            - the number of individuals in the tournament
+	 */
+	public int reverseTournament(Random randomGenerator, int tournamentSize) {
+		int loser = randomGenerator.nextInt(locks.length);
+		for (int i = 1; i < tournamentSize; i++) {
+			int competitor = randomGenerator.nextInt(locks.length);
+			if (individuals.get(competitor).getFitnessValue() < individuals.get(loser).getFitnessValue()) {
+				loser = competitor;
+			}
+		}
+		return loser;
+	}
+
+	/**
+	 * Returns a stamp for reading the individual of a slot without a lock, see
+	 * {@link #validate(int, long)}.
+	 */
+	public long tryOptimisticRead(int slot) {
+		return locks[slot].tryOptimisticRead();
+	}
+
+	/**
+	 * Returns true if the individual of a slot was not replaced since the
+	 * stamp was taken, so what was read from it is consistent.
+	 */
+	public boolean validate(int slot, long stamp) {
+		return stamp != 0 && locks[slot].validate(stamp);
+	}
+
+	public long readLock(int slot) {
+		return locks[slot].readLock();
+	}
+
+	public void unlockRead(int slot, long stamp) {
+		locks[slot].unlockRead(stamp);
+	}
+
+	/**
+	 * Copies the individual of a slot under its read lock.
+	 *
+	 * @param slot
+	 *            - the slot to read
+	 * @param target
+	 *            - the sequence that is overwritten with the individual
+	 */
+	public void copyTo(int slot, OrderedItemSequence target) {
+		long stamp = locks[slot].readLock();
+		try {
+			target.copyFrom(individuals.get(slot));
+		} finally {
+			locks[slot].unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Replaces the individual of a slot with a copy of the child if the child
+	 * is not a clone of an individual and at least as fit. Both checks are
+	 * made under the write lock, as the slot may have been replaced since it
+	 * was chosen and another worker may be adding the same genome.
+	 *
+	 * @param slot
+	 *            - the slot to replace
+	 * @param child
+	 *            - the evaluated child
+	 * @return whether the child replaced the individual or why not
+	 */
+	public Replacement replace(int slot, OrderedItemSequence child) {
+		long stamp = locks[slot].writeLock();
+		try {
+			OrderedItemSequence individual = individuals.get(slot);
+			if (hashes.contains(child.getHashHigh())) {
+				return Replacement.DUPLICATE;
+			}
+			if (child.getFitnessValue() < individual.getFitnessValue()) {
+				return Replacement.WEAKER;
+			}
+			if (!hashes.add(child.getHashHigh())) {
+				// Another worker has just added the same genome to another slot
+				return Replacement.DUPLICATE;
+			}
+			hashes.remove(individual.getHashHigh());
+			individual.copyFrom(child);
+			return Replacement.REPLACED;
+		} finally {
+			locks[slot].unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns the number of distinct genomes of the population.
+	 */
+	int distinctGenomes() {
+		return hashes.size();
+	}
+
+	/**
+	 * Copies every individual under its read lock, e.g. for a checkpoint.
+	 *
+	 * @param snapshot
+	 *            - the population of the same size that is overwritten
+	 */
+	public void snapshot(Population snapshot) {
+		List<OrderedItemSequence> target = snapshot.getIndividuals();
+		for (int i = 0; i < locks.length; i++) {
+			copyTo(i, target.get(i));
+		}
+	}
+}
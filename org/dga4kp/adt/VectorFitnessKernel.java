@@ -0,0 +1,97 @@
+package org.dga4kp.adt;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorFitnessKernel calculates the totals of a genome with the Vector API.
+ * The genome bits of a vector of items are broadcast to all lanes and turned
+ * into a lane select of all ones or all zeros, so the values and weights of
+ * the whole vector are added and the hash keys are combined without a branch
+ * per item. The items past the last full vector are added one at a time. The
+ * class needs the jdk.incubator.vector module and is only loaded by
+ * {@link FitnessKernel#vector()}.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class VectorFitnessKernel extends FitnessKernel {
+	private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+	// Species of the same bit size as INT_SPECIES, with half as many lanes
+	private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+	private static final int INT_LANES = INT_SPECIES.length();
+	private static final int LONG_LANES = LONG_SPECIES.length();
+	private static final long INT_LANE_MASK = (1L << INT_LANES) - 1;
+	private static final long LONG_LANE_MASK = (1L << LONG_LANES) - 1;
+	// Lane i holds bit i, so the broadcast genome bits ANDed with it are
+	// non-zero exactly in the lanes of the selected items
+	private static final IntVector INT_LANE_BITS = IntVector.fromArray(INT_SPECIES, intLaneBits(), 0);
+	private static final LongVector LONG_LANE_BITS = LongVector.fromArray(LONG_SPECIES, longLaneBits(), 0);
+
+	private static int[] intLaneBits() {
+		int[] bits = new int[INT_LANES];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = 1 << i;
+		}
+		return bits;
+	}
+
+	private static long[] longLaneBits() {
+		long[] bits = new long[LONG_LANES];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = 1L << i;
+		}
+		return bits;
+	}
+
+	@Override
+	public String getName() {
+		return String.format("vector (%d int lanes)", INT_LANES);
+	}
+
+	@Override
+	void computeTotals(OrderedItemSequence sequence, long[] genes, ItemCatalog catalog) {
+		int[] values = catalog.values;
+		int[] weights = catalog.weights;
+		long[] zobristHigh = catalog.zobristHigh;
+		long[] zobristLow = catalog.zobristLow;
+		int length = sequence.getLength();
+		IntVector weightSum = IntVector.zero(INT_SPECIES);
+		IntVector valueSum = IntVector.zero(INT_SPECIES);
+		LongVector highHash = LongVector.zero(LONG_SPECIES);
+		LongVector lowHash = LongVector.zero(LONG_SPECIES);
+		int index = 0;
+		// The lane counts divide 64, so a vector of items never spans two
+		// genome words
+		for (; index + INT_LANES <= length; index += INT_LANES) {
+			long bits = (genes[index >>> 6] >>> index) & INT_LANE_MASK;
+			IntVector select = INT_LANE_BITS.and((int) bits).neg().lanewise(VectorOperators.ASHR, 31);
+			weightSum = weightSum.add(IntVector.fromArray(INT_SPECIES, weights, index).and(select));
+			valueSum = valueSum.add(IntVector.fromArray(INT_SPECIES, values, index).and(select));
+			for (int half = 0; half < INT_LANES; half += LONG_LANES, bits >>>= LONG_LANES) {
+				LongVector longSelect = LONG_LANE_BITS.and(bits & LONG_LANE_MASK).neg()
+						.lanewise(VectorOperators.ASHR, 63);
+				highHash = highHash.lanewise(VectorOperators.XOR,
+						LongVector.fromArray(LONG_SPECIES, zobristHigh, index + half).and(longSelect));
+				lowHash = lowHash.lanewise(VectorOperators.XOR,
+						LongVector.fromArray(LONG_SPECIES, zobristLow, index + half).and(longSelect));
+			}
+		}
+		int totalWeight = weightSum.reduceLanes(VectorOperators.ADD);
+		int totalValue = valueSum.reduceLanes(VectorOperators.ADD);
+		long hashHigh = highHash.reduceLanes(VectorOperators.XOR);
+		long hashLow = lowHash.reduceLanes(VectorOperators.XOR);
+		for (; index < length; index++) {
+			if ((genes[index >>> 6] & (1L << index)) != 0) {
+				totalWeight += weights[index];
+				totalValue += values[index];
+				hashHigh ^= zobristHigh[index];
+				hashLow ^= zobristLow[index];
+			}
+		}
+		sequence.setTotals(totalWeight, totalValue, hashHigh, hashLow);
+	}
+}
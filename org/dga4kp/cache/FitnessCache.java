@@ -0,0 +1,208 @@
+package org.dga4kp.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * FitnessCache remembers the result of evaluating overweight genomes: the
+ * repaired genome, its totals and its fitness value, keyed by the 128-bit
+ * Zobrist hash of the genome before the repair, which every sequence keeps up
+ * to date. Children that fit into the backpack are not
+ * cached because their fitness value is their total value, which the operators
+ * keep up to date.
+ * 
+ * The cache is a set-associative table with a fixed number of entries, so its
+ * memory is bounded and allocated once. Every set holds {@link #WAYS} entries
+ * and replaces them with the CLOCK policy: a hit marks an entry as referenced
+ * and the hand of the set passes over referenced entries once before it
+ * evicts them. The sets are guarded by striped locks, so the workers rarely
+ * contend. The probability that two different genomes share a 128-bit key is
+ * negligible, so a hit does not compare the genomes.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class FitnessCache {
+	// Number of entries of every set
+	public static final int WAYS = 4;
+	// Maximal number of locks that guard the sets
+	private static final int MAX_LOCKS = 1024;
+	// Largest length of an array that every JVM can allocate
+	private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+	private static final byte OCCUPIED = 1;
+	private static final byte REFERENCED = 2;
+
+	private int words;
+	private int setMask;
+	private long[] keyHigh;
+	private long[] keyLow;
+	private byte[] state;
+	private int[] fitnessValues;
+	private int[] totalWeights;
+	private int[] totalValues;
+	// Hash of the evaluated genome of every entry
+	private long[] hashHighs;
+	private long[] hashLows;
+	// Genomes of all entries, words words per entry
+	private long[] genomes;
+	// CLOCK hand of every set
+	private byte[] hands;
+	private Object[] locks;
+
+	private LongAdder hits = new LongAdder();
+	private LongAdder misses = new LongAdder();
+	private LongAdder evictions = new LongAdder();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            - the maximal number of entries, rounded up to a power of two
+	 * @param numberOfItems
+	 *            - the length of the genomes
+	 * @throws IllegalArgumentException
+	 *             if the capacity is not positive or the genomes of all
+	 *             entries do not fit into an array
+	 */
+	public FitnessCache(int capacity, int numberOfItems) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					String.format("A fitness cache needs at least one entry, %d given!", capacity));
+		}
+		long sets = Long.highestOneBit(((long) capacity + WAYS - 1) / WAYS);
+		if (sets * WAYS < capacity) {
+			sets <<= 1;
+		}
+		this.words = OrderedItemSequence.wordCount(numberOfItems);
+		// The genomes of all entries are kept in one array
+		if (sets * WAYS * words > MAX_ARRAY_LENGTH) {
+			throw new IllegalArgumentException(String.format(
+					"A fitness cache of %d entries of %d items needs %d words, more than an array can hold!",
+					sets * WAYS, numberOfItems, sets * WAYS * words));
+		}
+		int entries = (int) (sets * WAYS);
+		this.setMask = (int) sets - 1;
+		this.keyHigh = new long[entries];
+		this.keyLow = new long[entries];
+		this.state = new byte[entries];
+		this.fitnessValues = new int[entries];
+		this.totalWeights = new int[entries];
+		this.totalValues = new int[entries];
+		this.hashHighs = new long[entries];
+		this.hashLows = new long[entries];
+		this.genomes = new long[entries * words];
+		this.hands = new byte[(int) sets];
+		this.locks = new Object[(int) Math.min(sets, MAX_LOCKS)];
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	/**
+	 * Looks up the evaluated genome of an overweight sequence and copies it
+	 * into the sequence.
+	 * 
+	 * @param sequence
+	 *            - the sequence that is looked up by its hash and receives the
+	 *            cached genome on a hit
+	 * @return true on a hit
+	 */
+	public boolean lookup(OrderedItemSequence sequence) {
+		long high = sequence.getHashHigh();
+		long low = sequence.getHashLow();
+		int set = (int) low & setMask;
+		synchronized (locks[set & (locks.length - 1)]) {
+			for (int entry = set * WAYS; entry < (set + 1) * WAYS; entry++) {
+				if ((state[entry] & OCCUPIED) != 0 && keyHigh[entry] == high && keyLow[entry] == low) {
+					state[entry] |= REFERENCED;
+					sequence.restore(genomes, entry * words, fitnessValues[entry], totalWeights[entry],
+							totalValues[entry], hashHighs[entry], hashLows[entry]);
+					hits.increment();
+					return true;
+				}
+			}
+		}
+		misses.increment();
+		return false;
+	}
+
+	/**
+	 * Stores the evaluated genome of a key.
+	 * 
+	 * @param high
+	 *            - the high half of the hash before the evaluation
+	 * @param low
+	 *            - the low half of the hash before the evaluation
+	 * @param sequence
+	 *            - the evaluated sequence
+	 */
+	public void store(long high, long low, OrderedItemSequence sequence) {
+		int set = (int) low & setMask;
+		synchronized (locks[set & (locks.length - 1)]) {
+			int entry = victim(set);
+			if ((state[entry] & OCCUPIED) != 0) {
+				evictions.increment();
+			}
+			keyHigh[entry] = high;
+			keyLow[entry] = low;
+			state[entry] = OCCUPIED;
+			fitnessValues[entry] = sequence.getFitnessValue();
+			totalWeights[entry] = sequence.getTotalWeight();
+			totalValues[entry] = sequence.getTotalValue();
+			hashHighs[entry] = sequence.getHashHigh();
+			hashLows[entry] = sequence.getHashLow();
+			System.arraycopy(sequence.getGenes(), 0, genomes, entry * words, words);
+		}
+	}
+
+	/**
+	 * Returns the entry of the set that is replaced next: a free entry if
+	 * there is one and otherwise the first entry at or after the hand that is
+	 * not referenced. The hand clears the referenced entries it passes.
+	 */
+	private int victim(int set) {
+		int first = set * WAYS;
+		for (int entry = first; entry < first + WAYS; entry++) {
+			if ((state[entry] & OCCUPIED) == 0) {
+				return entry;
+			}
+		}
+		int hand = hands[set];
+		while ((state[first + hand] & REFERENCED) != 0) {
+			state[first + hand] &= ~REFERENCED;
+			hand = (hand + 1) % WAYS;
+		}
+		hands[set] = (byte) ((hand + 1) % WAYS);
+		return first + hand;
+	}
+
+	public int getCapacity() {
+		return state.length;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public double getHitRate() {
+		long lookups = getHits() + getMisses();
+		return lookups == 0 ? 0 : (double) getHits() / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("FitnessCache [capacity=%s, hits=%s, misses=%s, evictions=%s, hitRate=%.3f]",
+				getCapacity(), getHits(), getMisses(), getEvictions(), getHitRate());
+	}
+}
@@ -0,0 +1,248 @@
+package org.dga4kp.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * Checkpoint is the state of a running evolution that is needed to resume it.
+ * It is stored in a compact binary file with the layout
+ * 
+ * <pre>
+ * int magic, int version,
+ * int number of items, int genome length, int backpack limit,
+ * long catalog fingerprint,
+ * int generation, long evaluations, long elapsed nanoseconds,
+ * int number of random states, long[] random states,
+ * int population size,
+ * best sequence: int fitness, long[] packed genome,
+ * then for every individual: int fitness, long[] packed genome
+ * </pre>
+ * 
+ * so a genome costs one bit per evolved item plus four bytes. The genome length
+ * is the number of evolved items, which is smaller than the number of items of
+ * the catalog if only a prefix is evolved. The file is read through
+ * a memory mapping, so resuming does not copy it through an intermediate
+ * buffer.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class Checkpoint {
+	// Marks the start of every checkpoint file ("DGCP")
+	public static final int MAGIC = 0x44474350;
+	public static final int VERSION = 2;
+
+	private int generation;
+	private long evaluations;
+	private long elapsedNanos;
+	private long[] randomStates;
+	private OrderedItemSequence bestSequence;
+	private List<OrderedItemSequence> individuals;
+
+	private Checkpoint() {
+	}
+
+	/**
+	 * Returns the number of bytes of a checkpoint.
+	 * 
+	 * @param genomeLength
+	 *            - the length of the genomes
+	 * @param populationSize
+	 *            - the number of individuals
+	 * @param numberOfRandomStates
+	 *            - the number of saved random states
+	 */
+	static int size(int genomeLength, int populationSize, int numberOfRandomStates) {
+		int sequenceBytes = 4 + 8 * OrderedItemSequence.wordCount(genomeLength);
+		return 5 * 4 + 8 + 4 + 8 + 8 + 4 + 8 * numberOfRandomStates + 4 + (populationSize + 1) * sequenceBytes;
+	}
+
+	/**
+	 * Returns a fingerprint of the values and weights of the catalog, so that a
+	 * checkpoint is not resumed on a different instance.
+	 * 
+	 * @param catalog
+	 *            - the catalog of backpack items
+	 */
+	static long fingerprint(ItemCatalog catalog) {
+		long hash = 1125899906842597L;
+		for (int i = 0; i < catalog.size(); i++) {
+			hash = 31 * hash + catalog.getValue(i);
+			hash = 31 * hash + catalog.getWeight(i);
+		}
+		return hash;
+	}
+
+	/**
+	 * Writes the header of a checkpoint.
+	 */
+	static void writeHeader(ByteBuffer buffer, ItemCatalog catalog, int genomeLength, int backpackLimit,
+			int generation, long evaluations, long elapsedNanos, long[] randomStates, int populationSize) {
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(catalog.size());
+		buffer.putInt(genomeLength);
+		buffer.putInt(backpackLimit);
+		buffer.putLong(fingerprint(catalog));
+		buffer.putInt(generation);
+		buffer.putLong(evaluations);
+		buffer.putLong(elapsedNanos);
+		buffer.putInt(randomStates.length);
+		for (long state : randomStates) {
+			buffer.putLong(state);
+		}
+		buffer.putInt(populationSize);
+	}
+
+	/**
+	 * Writes the fitness value and the packed genome of a sequence.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the sequence is not genomeLength items long
+	 */
+	static void writeSequence(ByteBuffer buffer, OrderedItemSequence sequence, int genomeLength) {
+		if (sequence.getLength() != genomeLength) {
+			throw new IllegalArgumentException(String.format(
+					"A sequence of %d items cannot be saved in a checkpoint of genomes of %d items!",
+					sequence.getLength(), genomeLength));
+		}
+		buffer.putInt(sequence.getFitnessValue());
+		long[] genes = sequence.getGenes();
+		for (int w = 0; w < OrderedItemSequence.wordCount(genomeLength); w++) {
+			buffer.putLong(genes[w]);
+		}
+	}
+
+	private static OrderedItemSequence readSequence(ByteBuffer buffer, ItemCatalog catalog, int genomeLength) {
+		int fitnessValue = buffer.getInt();
+		long[] genes = new long[OrderedItemSequence.wordCount(genomeLength)];
+		for (int w = 0; w < genes.length; w++) {
+			genes[w] = buffer.getLong();
+		}
+		OrderedItemSequence sequence = new OrderedItemSequence(catalog, genomeLength, genes);
+		sequence.setFitnessValue(fitnessValue);
+		return sequence;
+	}
+
+	/**
+	 * Reads the number of elements that follow and rejects it if it is
+	 * negative or the rest of the file cannot hold that many, before the
+	 * elements are allocated.
+	 * 
+	 * @param elementBytes
+	 *            - the number of bytes of an element
+	 */
+	private static int readCount(ByteBuffer buffer, int elementBytes, Path file) throws IOException {
+		int count = buffer.getInt();
+		if (count < 0 || count > buffer.remaining() / elementBytes) {
+			throw new IOException(String.format("Checkpoint %s is truncated or corrupt (count %d at byte %d)!", file,
+					count, buffer.position() - 4));
+		}
+		return count;
+	}
+
+	/**
+	 * Reads a checkpoint written by {@link CheckpointWriter}.
+	 * 
+	 * @param file
+	 *            - the checkpoint file
+	 * @param catalog
+	 *            - the catalog of the instance that is resumed
+	 * @param genomeLength
+	 *            - the number of evolved items of the run that is resumed
+	 * @param backpackLimit
+	 *            - the limit of the backpack of the instance that is resumed
+	 * @return the checkpoint
+	 * @throws IOException
+	 *             if the file is not a checkpoint or it was written for a
+	 *             different instance
+	 */
+	public static Checkpoint read(Path file, ItemCatalog catalog, int genomeLength, int backpackLimit)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(String.format("%s is larger than 2 GB!", file));
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < size(genomeLength, 0, 0)) {
+				throw new IOException(String.format("Checkpoint %s is truncated!", file));
+			}
+			int magic = buffer.getInt();
+			if (magic != MAGIC) {
+				throw new IOException(String.format("%s is not a checkpoint file!", file));
+			}
+			int version = buffer.getInt();
+			if (version != VERSION) {
+				throw new IOException(String.format("Checkpoint version %d is not supported!", version));
+			}
+			int numberOfItems = buffer.getInt();
+			int savedGenomeLength = buffer.getInt();
+			int limit = buffer.getInt();
+			long fingerprint = buffer.getLong();
+			if (numberOfItems != catalog.size() || savedGenomeLength != genomeLength || limit != backpackLimit
+					|| fingerprint != fingerprint(catalog)) {
+				throw new IOException(String.format(
+						"Checkpoint %s was written for a different instance (%d items, %d evolved, limit %d)!", file,
+						numberOfItems, savedGenomeLength, limit));
+			}
+			Checkpoint checkpoint = new Checkpoint();
+			checkpoint.generation = buffer.getInt();
+			checkpoint.evaluations = buffer.getLong();
+			checkpoint.elapsedNanos = buffer.getLong();
+			checkpoint.randomStates = new long[readCount(buffer, 8, file)];
+			for (int i = 0; i < checkpoint.randomStates.length; i++) {
+				checkpoint.randomStates[i] = buffer.getLong();
+			}
+			int populationSize = readCount(buffer, 4 + 8 * OrderedItemSequence.wordCount(genomeLength), file);
+			if (channel.size() != size(genomeLength, populationSize, checkpoint.randomStates.length)) {
+				throw new IOException(String.format("Checkpoint %s is truncated!", file));
+			}
+			checkpoint.bestSequence = readSequence(buffer, catalog, genomeLength);
+			checkpoint.individuals = new ArrayList<OrderedItemSequence>(populationSize);
+			for (int i = 0; i < populationSize; i++) {
+				checkpoint.individuals.add(readSequence(buffer, catalog, genomeLength));
+			}
+			return checkpoint;
+		}
+	}
+
+	public int getGeneration() {
+		return generation;
+	}
+
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public long[] getRandomStates() {
+		return randomStates;
+	}
+
+	public OrderedItemSequence getBestSequence() {
+		return bestSequence;
+	}
+
+	public List<OrderedItemSequence> getIndividuals() {
+		return individuals;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Checkpoint [generation=%s, evaluations=%s, elapsedMillis=%s, bestFitnessValue=%s]",
+				generation, evaluations, elapsedNanos / 1000000, bestSequence.getFitnessValue());
+	}
+}
@@ -0,0 +1,227 @@
+package org.dga4kp.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.Population;
+
+/**
+ * CheckpointWriter periodically saves the state of the evolution in the
+ * format described in {@link Checkpoint}. The generation loop only copies the
+ * packed genomes into a reused buffer; the buffer is written by a background
+ * thread into a temporary file that then replaces the checkpoint, so a crash
+ * while writing never destroys the last good checkpoint. If the previous
+ * checkpoint is still being written when the next one is due, the next one is
+ * skipped instead of waiting.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class CheckpointWriter {
+	static Logger log = LogManager.getLogger(CheckpointWriter.class);
+
+	private Path file;
+	private Path temporaryFile;
+	private int checkpointInterval;
+	private ItemCatalog catalog;
+	private int genomeLength;
+	private int backpackLimit;
+	private ByteBuffer buffer;
+	// Set while the buffer is being written
+	private AtomicBoolean writing = new AtomicBoolean(false);
+	private ExecutorService writer;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param file
+	 *            - the checkpoint file
+	 * @param checkpointInterval
+	 *            - the number of generations between two checkpoints
+	 * @param catalog
+	 *            - the catalog of the instance
+	 * @param genomeLength
+	 *            - the number of evolved items
+	 * @param backpackLimit
+	 *            - the limit of the backpack
+	 */
+	public CheckpointWriter(Path file, int checkpointInterval, ItemCatalog catalog, int genomeLength,
+			int backpackLimit) {
+		if (checkpointInterval < 1) {
+			throw new IllegalArgumentException(
+					String.format("Checkpoint interval is %d but it must be positive!", checkpointInterval));
+		}
+		this.file = file;
+		this.temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		this.checkpointInterval = checkpointInterval;
+		this.catalog = catalog;
+		this.genomeLength = genomeLength;
+		this.backpackLimit = backpackLimit;
+		this.writer = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "checkpoint-writer");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Returns true if a checkpoint is saved after the given generation.
+	 * 
+	 * @param generation
+	 *            - the number of finished generations
+	 */
+	public boolean isDue(int generation) {
+		return generation % checkpointInterval == 0;
+	}
+
+	/**
+	 * Saves a checkpoint if the generation is a multiple of the checkpoint
+	 * interval.
+	 * 
+	 * @param generation
+	 *            - the number of finished generations
+	 * @param population
+	 *            - the current population
+	 * @param bestSequence
+	 *            - the best sequence found so far
+	 * @param evaluations
+	 *            - the number of fitness evaluations so far
+	 * @param elapsedNanos
+	 *            - the time since the start of the run
+	 * @param randomStates
+	 *            - the states of the random generators
+	 */
+	public void checkpoint(int generation, Population population, OrderedItemSequence bestSequence,
+			long evaluations, long elapsedNanos, long[] randomStates) {
+		if (isDue(generation)) {
+			write(generation, population, bestSequence, evaluations, elapsedNanos, randomStates);
+		}
+	}
+
+	/**
+	 * Saves a checkpoint unless the previous one is still being written. If
+	 * no best sequence was found yet, the fittest individual is saved as the
+	 * best sequence.
+	 * 
+	 * @return true if the checkpoint is saved
+	 */
+	public boolean write(int generation, Population population, OrderedItemSequence bestSequence,
+			long evaluations, long elapsedNanos, long[] randomStates) {
+		if (!writing.compareAndSet(false, true)) {
+			log.debug(String.format("Skipped the checkpoint of generation %d, the previous one is still written",
+					generation));
+			return false;
+		}
+		List<OrderedItemSequence> individuals = population.getIndividuals();
+		if (bestSequence.getLength() == 0) {
+			bestSequence = fittest(individuals);
+		}
+		int size = Checkpoint.size(genomeLength, individuals.size(), randomStates.length);
+		if (buffer == null || buffer.capacity() != size) {
+			buffer = ByteBuffer.allocateDirect(size);
+		}
+		buffer.clear();
+		try {
+			Checkpoint.writeHeader(buffer, catalog, genomeLength, backpackLimit, generation, evaluations,
+					elapsedNanos, randomStates, individuals.size());
+			Checkpoint.writeSequence(buffer, bestSequence, genomeLength);
+			for (OrderedItemSequence individual : individuals) {
+				Checkpoint.writeSequence(buffer, individual, genomeLength);
+			}
+		} catch (IllegalArgumentException e) {
+			writing.set(false);
+			throw e;
+		}
+		buffer.flip();
+		final int checkpointGeneration = generation;
+		writer.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					writeFile();
+					log.debug(String.format("Saved the checkpoint of generation %d", checkpointGeneration));
+				} catch (IOException e) {
+					log.warn(String.format("Could not save the checkpoint of generation %d: %s",
+							checkpointGeneration, e.getMessage()));
+				} finally {
+					writing.set(false);
+				}
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Waits for the checkpoint that is being written and then saves the final
+	 * state of the evolution.
+	 */
+	public void writeFinal(int generation, Population population, OrderedItemSequence bestSequence,
+			long evaluations, long elapsedNanos, long[] randomStates) throws IOException {
+		try {
+			writer.submit(new Runnable() {
+				@Override
+				public void run() {
+				}
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		write(generation, population, bestSequence, evaluations, elapsedNanos, randomStates);
+	}
+
+	private static OrderedItemSequence fittest(List<OrderedItemSequence> individuals) {
+		OrderedItemSequence fittest = individuals.get(0);
+		for (OrderedItemSequence individual : individuals) {
+			if (individual.getFitnessValue() > fittest.getFitnessValue()) {
+				fittest = individual;
+			}
+		}
+		return fittest;
+	}
+
+	private void writeFile() throws IOException {
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Waits for the checkpoint that is being written and stops the writer.
+	 */
+	public void close() {
+		writer.shutdown();
+		try {
+			writer.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
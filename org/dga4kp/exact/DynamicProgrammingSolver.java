@@ -0,0 +1,269 @@
+package org.dga4kp.exact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * DynamicProgrammingSolver solves the knapsack problem exactly with the
+ * classic dynamic program over the capacity. For every item the best values
+ * of all capacities are computed from the values of the previous item into a
+ * second array, so the capacities of one item are independent and are split
+ * between the workers of the pool. Whether an item improves a capacity is
+ * kept in one bit per item and capacity, from which the solution is
+ * reconstructed, so the memory is numberOfItems * capacity bits plus two
+ * arrays of capacity longs. The limit of the table is given in cells of one
+ * bit and covers both.
+ * 
+ * The same table also yields near-optimal solutions to seed the population:
+ * the weights and the capacity are divided by a common factor and rounded up
+ * and down so the table fits into the memory limit, and the optimal solutions
+ * of the scaled instance for the largest capacities are feasible for the real
+ * one. The capacity they leave unused is filled greedily.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class DynamicProgrammingSolver {
+	// Default limit of the bits of the table, i.e. 128 MiB
+	public static final long DEFAULT_MAX_CELLS = 1L << 30;
+	// Capacities below this are computed by a single worker per item
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+	// Number of capacities that are tried for every requested seed, since
+	// neighbouring capacities often have the same solution
+	private static final int CAPACITIES_PER_SEQUENCE = 8;
+
+	private ItemCatalog catalog;
+	private int numberOfItems;
+	private ForkJoinPool pool;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param catalog
+	 *            - the catalog of backpack items
+	 * @param numberOfItems
+	 *            - the number of items of the instance, starting from the
+	 *            first item of the catalog
+	 * @param pool
+	 *            - the pool that computes the capacities of an item
+	 */
+	public DynamicProgrammingSolver(ItemCatalog catalog, int numberOfItems, ForkJoinPool pool) {
+		this.catalog = catalog;
+		this.numberOfItems = numberOfItems;
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns true if the table of the instance fits into the given number of
+	 * cells: a word aligned row of keep bits for every item and the two arrays
+	 * of the best values, 2 * 64 bits per capacity.
+	 */
+	public static boolean isManageable(int numberOfItems, int capacity, long maxCells) {
+		return cells(numberOfItems, capacity) <= maxCells;
+	}
+
+	private static long cells(int numberOfItems, int capacity) {
+		long keepBits = (long) Long.SIZE * OrderedItemSequence.wordCount(capacity + 1);
+		return numberOfItems * keepBits + 2L * Long.SIZE * (capacity + 1L);
+	}
+
+	/**
+	 * Solves the instance exactly.
+	 * 
+	 * @param capacity
+	 *            - the limit of the backpack
+	 * @return an optimal sequence, whose fitness value is its total value
+	 */
+	public OrderedItemSequence solve(int capacity) {
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			weights[i] = catalog.getWeight(i);
+		}
+		return toSequence(new Table(weights, capacity).reconstruct(capacity));
+	}
+
+	/**
+	 * Computes near-optimal sequences with the weights scaled down so that the
+	 * table has at most maxCells cells. The sequences are the optimal solutions
+	 * of the scaled instance for the count largest capacities and are all
+	 * feasible for the real capacity. If the instance does not need to be
+	 * scaled the first sequence is optimal.
+	 * 
+	 * @param capacity
+	 *            - the limit of the backpack
+	 * @param maxCells
+	 *            - the limit of numberOfItems * capacity of the table
+	 * @param count
+	 *            - the number of sequences
+	 * @return at most count distinct sequences, best first
+	 */
+	public List<OrderedItemSequence> solveScaled(int capacity, long maxCells, int count) {
+		if (!isManageable(numberOfItems, 0, maxCells)) {
+			throw new IllegalArgumentException(String.format(
+					"A table of %d items does not fit into %d cells for any capacity!", numberOfItems, maxCells));
+		}
+		long scale = Math.max(1, (long) Math.ceil((double) cells(numberOfItems, capacity) / maxCells));
+		while (!isManageable(numberOfItems, (int) (capacity / scale), maxCells)) {
+			scale++;
+		}
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			// Rounding the weights up keeps the solutions feasible
+			weights[i] = (int) ((catalog.getWeight(i) + scale - 1) / scale);
+		}
+		int scaledCapacity = (int) (capacity / scale);
+		Table table = new Table(weights, scaledCapacity);
+		List<OrderedItemSequence> sequences = new ArrayList<OrderedItemSequence>(count);
+		int lowestCapacity = (int) Math.max(0, scaledCapacity - (long) CAPACITIES_PER_SEQUENCE * count);
+		for (int x = scaledCapacity; x >= lowestCapacity && sequences.size() < count; x--) {
+			long[] genes = table.reconstruct(x);
+			if (scale > 1) {
+				fillGreedily(genes, capacity);
+			}
+			if (!contains(sequences, genes)) {
+				sequences.add(toSequence(genes));
+			}
+		}
+		Collections.sort(sequences, Collections.reverseOrder());
+		return sequences;
+	}
+
+	private static boolean contains(List<OrderedItemSequence> sequences, long[] genes) {
+		for (OrderedItemSequence sequence : sequences) {
+			if (Arrays.equals(sequence.getGenes(), genes)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds the items that still fit into the real capacity by descending
+	 * value-to-weight ratio. The rounded up weights of a scaled solution leave
+	 * some of the real capacity unused.
+	 */
+	private void fillGreedily(long[] genes, int capacity) {
+		long weight = 0;
+		for (int i = 0; i < numberOfItems; i++) {
+			if ((genes[i / Long.SIZE] & (1L << i)) != 0) {
+				weight += catalog.getWeight(i);
+			}
+		}
+		for (int rank = catalog.size() - 1; rank >= 0; rank--) {
+			int id = catalog.getItemByRatio(rank);
+			if (id < numberOfItems && (genes[id / Long.SIZE] & (1L << id)) == 0
+					&& weight + catalog.getWeight(id) <= capacity) {
+				genes[id / Long.SIZE] |= 1L << id;
+				weight += catalog.getWeight(id);
+			}
+		}
+	}
+
+	private OrderedItemSequence toSequence(long[] genes) {
+		OrderedItemSequence sequence = new OrderedItemSequence(catalog, numberOfItems, genes);
+		sequence.setFitnessValue(sequence.getTotalValue());
+		return sequence;
+	}
+
+	/**
+	 * The dynamic programming table of an instance.
+	 */
+	private class Table {
+		private int[] weights;
+		// keep[i] has a bit for every capacity that item i improves
+		private long[][] keep;
+
+		Table(int[] weights, int capacity) {
+			this.weights = weights;
+			this.keep = new long[numberOfItems][];
+			long[] current = new long[capacity + 1];
+			long[] next = new long[capacity + 1];
+			for (int i = 0; i < numberOfItems; i++) {
+				keep[i] = new long[OrderedItemSequence.wordCount(capacity + 1)];
+				ItemUpdate update = new ItemUpdate(current, next, keep[i], weights[i], catalog.getValue(i), 0,
+						capacity + 1);
+				if (capacity + 1 >= PARALLEL_THRESHOLD && pool != null) {
+					pool.invoke(update);
+				} else {
+					update.compute();
+				}
+				long[] swap = current;
+				current = next;
+				next = swap;
+			}
+		}
+
+		/**
+		 * Returns the genome of the optimal solution for the given capacity.
+		 */
+		long[] reconstruct(int capacity) {
+			long[] genes = new long[OrderedItemSequence.wordCount(numberOfItems)];
+			int x = capacity;
+			for (int i = numberOfItems - 1; i >= 0; i--) {
+				if ((keep[i][x / Long.SIZE] & (1L << x)) != 0) {
+					genes[i / Long.SIZE] |= 1L << i;
+					x -= weights[i];
+				}
+			}
+			return genes;
+		}
+	}
+
+	/**
+	 * Computes the best values of the capacities from start (inclusive) to end
+	 * (exclusive) for one item. The range is split at word boundaries of the
+	 * keep bits, so no two tasks write the same word.
+	 */
+	private static class ItemUpdate extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private long[] current;
+		private long[] next;
+		private long[] keep;
+		private int weight;
+		private int value;
+		private int start;
+		private int end;
+
+		ItemUpdate(long[] current, long[] next, long[] keep, int weight, int value, int start, int end) {
+			this.current = current;
+			this.next = next;
+			this.keep = keep;
+			this.weight = weight;
+			this.value = value;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > PARALLEL_THRESHOLD) {
+				int middle = ((start + end) >>> 1) & ~(Long.SIZE - 1);
+				invokeAll(new ItemUpdate(current, next, keep, weight, value, start, middle),
+						new ItemUpdate(current, next, keep, weight, value, middle, end));
+				return;
+			}
+			int x = start;
+			for (; x < end && x < weight; x++) {
+				next[x] = current[x];
+			}
+			for (; x < end; x++) {
+				long taken = current[x - weight] + value;
+				if (taken > current[x]) {
+					next[x] = taken;
+					keep[x / Long.SIZE] |= 1L << x;
+				} else {
+					next[x] = current[x];
+				}
+			}
+		}
+	}
+}
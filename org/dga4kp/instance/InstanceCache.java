@@ -0,0 +1,147 @@
+package org.dga4kp.instance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.dga4kp.adt.ItemCatalog;
+
+/**
+ * InstanceCache stores a parsed instance in a binary file next to its source
+ * files, so a repeated run reads the arrays with a bulk copy from a memory
+ * mapping instead of parsing text and sorting the items again. The cache file
+ * has the layout
+ * 
+ * <pre>
+ * int magic, int version, int number of source files,
+ * then for every source file: long size, long last modified time,
+ * int number of items, int capacity,
+ * int[] values, int[] weights, int[] item IDs by ascending ratio
+ * </pre>
+ * 
+ * A cache whose recorded size or modification time does not match a source
+ * file is ignored and rewritten.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+class InstanceCache {
+	// Marks the start of every cache file ("DGAI")
+	static final int MAGIC = 0x44474149;
+	static final int VERSION = 1;
+	// Extension that is appended to the name of the first source file
+	static final String EXTENSION = ".dgac";
+
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private InstanceCache() {
+	}
+
+	static Path cacheFile(Path[] sources) {
+		return sources[0].resolveSibling(sources[0].getFileName() + EXTENSION);
+	}
+
+	/**
+	 * Reads the cached instance of the given source files.
+	 * 
+	 * @param sources
+	 *            - the source files of the instance
+	 * @return the instance or null if there is no valid cache
+	 * @throws IOException
+	 */
+	static KnapsackInstance read(Path[] sources) throws IOException {
+		Path file = cacheFile(sources);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+					|| buffer.getInt() != sources.length) {
+				return null;
+			}
+			for (Path source : sources) {
+				if (buffer.getLong() != Files.size(source)
+						|| buffer.getLong() != Files.getLastModifiedTime(source).toMillis()) {
+					return null;
+				}
+			}
+			int numberOfItems = buffer.getInt();
+			int capacity = buffer.getInt();
+			if (buffer.remaining() != 3L * 4 * numberOfItems) {
+				return null;
+			}
+			IntBuffer ints = buffer.asIntBuffer();
+			int[] values = new int[numberOfItems];
+			int[] weights = new int[numberOfItems];
+			int[] ratioOrder = new int[numberOfItems];
+			ints.get(values);
+			ints.get(weights);
+			ints.get(ratioOrder);
+			return new KnapsackInstance(new ItemCatalog(values, weights, ratioOrder), capacity);
+		}
+	}
+
+	/**
+	 * Writes the cache of an instance. The cache is written into a temporary
+	 * file that then replaces the old cache, so a concurrent run never reads a
+	 * partial cache.
+	 * 
+	 * @param sources
+	 *            - the source files of the instance
+	 * @param instance
+	 *            - the parsed instance
+	 * @throws IOException
+	 */
+	static void write(Path[] sources, KnapsackInstance instance) throws IOException {
+		Path file = cacheFile(sources);
+		Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		ItemCatalog catalog = instance.getCatalog();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(sources.length);
+			for (Path source : sources) {
+				buffer.putLong(Files.size(source));
+				buffer.putLong(Files.getLastModifiedTime(source).toMillis());
+			}
+			buffer.putInt(catalog.size());
+			buffer.putInt(instance.getCapacity());
+			for (int i = 0; i < catalog.size(); i++) {
+				buffer = putInt(channel, buffer, catalog.getValue(i));
+			}
+			for (int i = 0; i < catalog.size(); i++) {
+				buffer = putInt(channel, buffer, catalog.getWeight(i));
+			}
+			for (int i = 0; i < catalog.size(); i++) {
+				buffer = putInt(channel, buffer, catalog.getItemByRatio(i));
+			}
+			flush(channel, buffer);
+		}
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static ByteBuffer putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+		if (buffer.remaining() < 4) {
+			flush(channel, buffer);
+		}
+		return buffer.putInt(value);
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,176 @@
+package org.dga4kp.instance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dga4kp.adt.ItemCatalog;
+
+/**
+ * InstanceLoader reads knapsack instances through memory mapped files. It
+ * supports
+ * <ul>
+ * <li>a file with the values and a file with the weights of the items, both
+ * separated by whitespace</li>
+ * <li>a single file that starts with the number of items and the capacity,
+ * followed by a "value weight" line for every item</li>
+ * <li>a single file in the format of Pisinger's benchmark instances, i.e. a
+ * name line, "n", "c", "z" and "time" lines and an "id,value,weight,x" line
+ * for every item. Only the first instance of a file is read.</li>
+ * </ul>
+ * The parsed instance is cached in a binary file next to the source files, see
+ * {@link InstanceCache}.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class InstanceLoader {
+	static Logger log = LogManager.getLogger(InstanceLoader.class);
+
+	private InstanceLoader() {
+	}
+
+	/**
+	 * Loads an instance from a file with values and a file with weights. The
+	 * number of items is the length of the shorter file.
+	 * 
+	 * @param valuesFile
+	 *            - the file with the values of the items
+	 * @param weightsFile
+	 *            - the file with the weights of the items
+	 * @param useCache
+	 *            - whether the binary cache is read and written
+	 * @return the instance, without a capacity
+	 * @throws IOException
+	 */
+	public static KnapsackInstance load(Path valuesFile, Path weightsFile, boolean useCache) throws IOException {
+		Path[] sources = new Path[] { valuesFile, weightsFile };
+		KnapsackInstance instance = useCache ? InstanceCache.read(sources) : null;
+		if (instance == null) {
+			int[] values = readInts(new MappedTextReader(valuesFile));
+			int[] weights = readInts(new MappedTextReader(weightsFile));
+			int numberOfItems = Math.min(values.length, weights.length);
+			instance = new KnapsackInstance(new ItemCatalog(Arrays.copyOf(values, numberOfItems),
+					Arrays.copyOf(weights, numberOfItems)), KnapsackInstance.UNKNOWN_CAPACITY);
+			writeCache(sources, instance, useCache);
+		}
+		return instance;
+	}
+
+	/**
+	 * Loads an instance from a single file in one of the supported formats.
+	 * 
+	 * @param instanceFile
+	 *            - the instance file
+	 * @param useCache
+	 *            - whether the binary cache is read and written
+	 * @return the instance with the capacity given in the file
+	 * @throws IOException
+	 */
+	public static KnapsackInstance load(Path instanceFile, boolean useCache) throws IOException {
+		Path[] sources = new Path[] { instanceFile };
+		KnapsackInstance instance = useCache ? InstanceCache.read(sources) : null;
+		if (instance == null) {
+			MappedTextReader reader = new MappedTextReader(instanceFile);
+			instance = reader.hasNextWord() ? readPisingerInstance(reader) : readSizeAndCapacityInstance(reader);
+			writeCache(sources, instance, useCache);
+		}
+		return instance;
+	}
+
+	/**
+	 * Reads an instance in one of the single file formats from text that is
+	 * already in memory, e.g. the body of a request. It is not cached.
+	 * 
+	 * @param text
+	 *            - the text of the instance
+	 * @param name
+	 *            - the name of the text for the error messages
+	 * @return the instance with the capacity given in the text
+	 * @throws IOException
+	 */
+	public static KnapsackInstance read(ByteBuffer text, String name) throws IOException {
+		MappedTextReader reader = new MappedTextReader(text, name);
+		return reader.hasNextWord() ? readPisingerInstance(reader) : readSizeAndCapacityInstance(reader);
+	}
+
+	private static void writeCache(Path[] sources, KnapsackInstance instance, boolean useCache) {
+		if (!useCache) {
+			return;
+		}
+		try {
+			InstanceCache.write(sources, instance);
+		} catch (IOException e) {
+			log.warn(String.format("Could not write the instance cache of %s: %s", sources[0], e.getMessage()));
+		}
+	}
+
+	private static int[] readInts(MappedTextReader reader) throws IOException {
+		// Most instances use numbers of a few digits
+		int[] numbers = new int[Math.max(16, reader.remainingBytes() / 4)];
+		int count = 0;
+		while (reader.hasNextInt()) {
+			if (count == numbers.length) {
+				numbers = Arrays.copyOf(numbers, 2 * count);
+			}
+			numbers[count++] = reader.nextInt();
+		}
+		return Arrays.copyOf(numbers, count);
+	}
+
+	private static KnapsackInstance readSizeAndCapacityInstance(MappedTextReader reader) throws IOException {
+		int numberOfItems = reader.nextInt();
+		int capacity = reader.nextInt();
+		checkNumberOfItems(numberOfItems, reader);
+		int[] values = new int[numberOfItems];
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			values[i] = reader.nextInt();
+			weights[i] = reader.nextInt();
+		}
+		return new KnapsackInstance(new ItemCatalog(values, weights), capacity);
+	}
+
+	/**
+	 * Rejects a number of items that is negative or larger than the rest of
+	 * the text can hold, before the arrays of the items are allocated. Every
+	 * item takes at least two bytes, a digit and a separator.
+	 */
+	private static void checkNumberOfItems(int numberOfItems, MappedTextReader reader) throws IOException {
+		if (numberOfItems < 0 || numberOfItems > reader.remainingBytes() / 2) {
+			throw new IOException(String.format("%s specifies %d items but only %d bytes of items follow!",
+					reader.getName(), numberOfItems, reader.remainingBytes()));
+		}
+	}
+
+	private static KnapsackInstance readPisingerInstance(MappedTextReader reader) throws IOException {
+		int numberOfItems = -1;
+		int capacity = KnapsackInstance.UNKNOWN_CAPACITY;
+		while (reader.hasNextWord()) {
+			String key = reader.nextWord();
+			if (key.equals("n")) {
+				numberOfItems = reader.nextInt();
+			} else if (key.equals("c")) {
+				capacity = reader.nextInt();
+			}
+			reader.skipLine();
+		}
+		if (numberOfItems < 0) {
+			throw new IOException("The instance file does not specify the number of items!");
+		}
+		checkNumberOfItems(numberOfItems, reader);
+		int[] values = new int[numberOfItems];
+		int[] weights = new int[numberOfItems];
+		for (int i = 0; i < numberOfItems; i++) {
+			reader.nextInt();
+			values[i] = reader.nextInt();
+			weights[i] = reader.nextInt();
+			reader.skipLine();
+		}
+		return new KnapsackInstance(new ItemCatalog(values, weights), capacity);
+	}
+}
@@ -0,0 +1,41 @@
+package org.dga4kp.instance;
+
+import org.dga4kp.adt.ItemCatalog;
+
+/**
+ * KnapsackInstance is a loaded knapsack instance: the catalog of items and, if
+ * the instance file specifies it, the capacity of the backpack.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class KnapsackInstance {
+	// Capacity of an instance whose files do not specify it
+	public static final int UNKNOWN_CAPACITY = -1;
+
+	private ItemCatalog catalog;
+	private int capacity;
+
+	public KnapsackInstance(ItemCatalog catalog, int capacity) {
+		this.catalog = catalog;
+		this.capacity = capacity;
+	}
+
+	public ItemCatalog getCatalog() {
+		return catalog;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public boolean hasCapacity() {
+		return capacity != UNKNOWN_CAPACITY;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("KnapsackInstance [numberOfItems=%s, capacity=%s]", catalog.size(), capacity);
+	}
+}
@@ -0,0 +1,142 @@
+package org.dga4kp.instance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MappedTextReader reads integers and words from a memory mapped text file. It
+ * works directly on the bytes of the mapping, so unlike Scanner it does not
+ * decode characters, match regular expressions or create a String per token.
+ * Numbers are separated by whitespace or commas. Text that is already in
+ * memory, e.g. the body of a request, is read the same way.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+class MappedTextReader {
+	// The file or the name of the text, for the error messages
+	private Object file;
+	private ByteBuffer buffer;
+	private int position;
+	private int limit;
+
+	MappedTextReader(Path file) throws IOException {
+		this.file = file;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(String.format("%s is larger than 2 GB!", file));
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		limit = buffer.limit();
+	}
+
+	MappedTextReader(ByteBuffer buffer, String name) {
+		this.file = name;
+		this.buffer = buffer;
+		this.position = buffer.position();
+		this.limit = buffer.limit();
+	}
+
+	private static boolean isSeparator(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == ',';
+	}
+
+	private static boolean isDigit(byte b) {
+		return b >= '0' && b <= '9';
+	}
+
+	private void skipSeparators() {
+		while (position < limit && isSeparator(buffer.get(position))) {
+			position++;
+		}
+	}
+
+	/**
+	 * Returns true if the next token starts with a digit or a sign.
+	 */
+	boolean hasNextInt() {
+		skipSeparators();
+		if (position >= limit) {
+			return false;
+		}
+		byte b = buffer.get(position);
+		return isDigit(b) || ((b == '-' || b == '+') && position + 1 < limit && isDigit(buffer.get(position + 1)));
+	}
+
+	/**
+	 * Returns true if the next token starts with a letter.
+	 */
+	boolean hasNextWord() {
+		skipSeparators();
+		if (position >= limit) {
+			return false;
+		}
+		byte b = buffer.get(position);
+		return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+	}
+
+	int nextInt() throws IOException {
+		if (!hasNextInt()) {
+			throw new IOException(String.format("Expected a number at byte %d of %s!", position, file));
+		}
+		boolean negative = buffer.get(position) == '-';
+		if (buffer.get(position) == '-' || buffer.get(position) == '+') {
+			position++;
+		}
+		long value = 0;
+		while (position < limit && isDigit(buffer.get(position))) {
+			value = value * 10 + (buffer.get(position++) - '0');
+			if (value > Integer.MAX_VALUE + 1L) {
+				throw new IOException(String.format("Number at byte %d of %s is too large!", position, file));
+			}
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			throw new IOException(String.format("Number at byte %d of %s is too large!", position, file));
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Returns the next token, which ends at a separator.
+	 */
+	String nextWord() {
+		skipSeparators();
+		StringBuilder word = new StringBuilder();
+		while (position < limit && !isSeparator(buffer.get(position))) {
+			word.append((char) buffer.get(position++));
+		}
+		return word.toString();
+	}
+
+	/**
+	 * Skips the rest of the current line.
+	 */
+	void skipLine() {
+		while (position < limit && buffer.get(position) != '\n') {
+			position++;
+		}
+		if (position < limit) {
+			position++;
+		}
+	}
+
+	/**
+	 * Returns the file or the name of the text.
+	 */
+	String getName() {
+		return file.toString();
+	}
+
+	/**
+	 * Returns the number of bytes that are not read yet.
+	 */
+	int remainingBytes() {
+		return limit - position;
+	}
+}
@@ -0,0 +1,119 @@
+package org.dga4kp.island;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * GenomeCodec provides the compact binary encoding of the migrants that are
+ * exchanged between islands. A batch of migrants is encoded as
+ * 
+ * <pre>
+ * int magic, int source island, int number of migrants,
+ * then for every migrant: int length, int fitness, long[] packed genome
+ * </pre>
+ * 
+ * so a genome costs one bit per item plus eight bytes. A batch is only accepted
+ * if its genomes have the length of the local genomes and it has at most
+ * {@link #MAX_MIGRANTS} migrants, so a malformed batch cannot make the reader
+ * allocate an arbitrary amount of memory.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class GenomeCodec {
+	// Marks the start of every batch of migrants ("DGA4")
+	public static final int MAGIC = 0x44474134;
+	// Upper bound of the number of migrants in one batch
+	public static final int MAX_MIGRANTS = 1 << 16;
+
+	private GenomeCodec() {
+	}
+
+	/**
+	 * Writes a batch of migrants.
+	 * 
+	 * @param out
+	 *            - the output to write to
+	 * @param sourceIsland
+	 *            - the ID of the sending island
+	 * @param migrants
+	 *            - the migrants to send
+	 * @throws IOException
+	 */
+	public static void writeBatch(DataOutput out, int sourceIsland, List<OrderedItemSequence> migrants)
+			throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(sourceIsland);
+		out.writeInt(migrants.size());
+		for (OrderedItemSequence migrant : migrants) {
+			writeSequence(out, migrant);
+		}
+	}
+
+	/**
+	 * Reads a batch of migrants written by
+	 * {@link #writeBatch(DataOutput, int, List)}.
+	 * 
+	 * @param in
+	 *            - the input to read from
+	 * @param catalog
+	 *            - the catalog of the local instance
+	 * @param numberOfItems
+	 *            - the length of the local genomes
+	 * @return the decoded migrants
+	 * @throws IOException
+	 *             if the input is not a batch of migrants or the genomes do not
+	 *             match the local instance
+	 */
+	public static List<OrderedItemSequence> readBatch(DataInput in, ItemCatalog catalog, int numberOfItems)
+			throws IOException {
+		int magic = in.readInt();
+		if (magic != MAGIC) {
+			throw new IOException(String.format("Unexpected batch header %x!", magic));
+		}
+		in.readInt();
+		int count = in.readInt();
+		if (count < 0 || count > MAX_MIGRANTS) {
+			throw new IOException(
+					String.format("Received a batch of %d migrants, at most %d are accepted!", count, MAX_MIGRANTS));
+		}
+		List<OrderedItemSequence> migrants = new ArrayList<OrderedItemSequence>(count);
+		for (int i = 0; i < count; i++) {
+			migrants.add(readSequence(in, catalog, numberOfItems));
+		}
+		return migrants;
+	}
+
+	public static void writeSequence(DataOutput out, OrderedItemSequence sequence) throws IOException {
+		out.writeInt(sequence.getLength());
+		out.writeInt(sequence.getFitnessValue());
+		long[] genes = sequence.getGenes();
+		for (int w = 0; w < OrderedItemSequence.wordCount(sequence.getLength()); w++) {
+			out.writeLong(genes[w]);
+		}
+	}
+
+	public static OrderedItemSequence readSequence(DataInput in, ItemCatalog catalog, int numberOfItems)
+			throws IOException {
+		int length = in.readInt();
+		int fitnessValue = in.readInt();
+		if (length != numberOfItems) {
+			throw new IOException(String.format("Received a genome of %d bits but the local genomes have %d!",
+					length, numberOfItems));
+		}
+		long[] genes = new long[OrderedItemSequence.wordCount(length)];
+		for (int w = 0; w < genes.length; w++) {
+			genes[w] = in.readLong();
+		}
+		OrderedItemSequence sequence = new OrderedItemSequence(catalog, length, genes);
+		sequence.setFitnessValue(fitnessValue);
+		return sequence;
+	}
+}
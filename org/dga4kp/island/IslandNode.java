@@ -0,0 +1,319 @@
+package org.dga4kp.island;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.Population;
+import org.dga4kp.selection.TopKSelector;
+
+/**
+ * IslandNode connects one PopulationGenerator process to the other islands of
+ * an island model run. Every island listens on its own TCP address and sends
+ * its best individuals to the islands chosen by the migration topology every
+ * migration interval generations. Received migrants are queued by the reader
+ * threads and replace the worst individuals of the population at the next
+ * migration, so the generation loop never waits for the network. The islands
+ * are addressed by host and port only, so the same configuration works for
+ * processes on localhost and on different machines. Every island listens only
+ * on the host of its own address, or on the loopback address if that host
+ * cannot be resolved.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class IslandNode {
+	static Logger log = LogManager.getLogger(IslandNode.class);
+
+	// Timeout for connecting to another island in milliseconds
+	private static final int CONNECT_TIMEOUT = 1000;
+
+	private int islandId;
+	private List<InetSocketAddress> islandAddresses;
+	private int[] neighbours;
+	private int migrationInterval;
+	private int numberOfMigrants;
+	private ItemCatalog catalog;
+	private int numberOfItems;
+	private int backpackLimit;
+
+	private ServerSocket serverSocket;
+	// Outgoing connections indexed by island ID, opened lazily
+	private Socket[] connections;
+	// Migrants received from the other islands and not yet integrated
+	private Queue<OrderedItemSequence> immigrants = new ConcurrentLinkedQueue<OrderedItemSequence>();
+	private ExecutorService sender;
+	private volatile boolean closed = false;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param islandId
+	 *            - the ID of this island, which is its index in the list of
+	 *            addresses
+	 * @param islandAddresses
+	 *            - the addresses of all islands
+	 * @param topology
+	 *            - the migration topology
+	 * @param migrationInterval
+	 *            - the number of generations between two migrations
+	 * @param numberOfMigrants
+	 *            - the number of individuals sent to every neighbour
+	 * @param catalog
+	 *            - the catalog of the instance
+	 * @param numberOfItems
+	 *            - the length of the genomes
+	 * @param backpackLimit
+	 *            - the limit of the backpack
+	 */
+	public IslandNode(int islandId, List<InetSocketAddress> islandAddresses, MigrationTopology topology,
+			int migrationInterval, int numberOfMigrants, ItemCatalog catalog, int numberOfItems, int backpackLimit) {
+		if (islandId < 0 || islandId >= islandAddresses.size()) {
+			throw new IllegalArgumentException(String.format("Island ID %d is not between 0 and %d!", islandId,
+					islandAddresses.size() - 1));
+		}
+		if (migrationInterval < 1) {
+			throw new IllegalArgumentException(
+					String.format("Migration interval is %d but it must be positive!", migrationInterval));
+		}
+		this.islandId = islandId;
+		this.islandAddresses = islandAddresses;
+		this.neighbours = topology.neighbours(islandId, islandAddresses.size());
+		this.migrationInterval = migrationInterval;
+		this.numberOfMigrants = numberOfMigrants;
+		this.catalog = catalog;
+		this.numberOfItems = numberOfItems;
+		this.backpackLimit = backpackLimit;
+		this.connections = new Socket[islandAddresses.size()];
+	}
+
+	/**
+	 * Parses a comma separated list of host:port addresses.
+	 * 
+	 * @param addresses
+	 *            - the addresses, e.g. "localhost:7001,localhost:7002"
+	 * @return the list of socket addresses
+	 */
+	public static List<InetSocketAddress> parseAddresses(String addresses) {
+		List<InetSocketAddress> result = new ArrayList<InetSocketAddress>();
+		for (String address : addresses.split(",")) {
+			int separator = address.lastIndexOf(':');
+			if (separator < 0) {
+				throw new IllegalArgumentException(
+						String.format("Island address %s must be in the form host:port!", address));
+			}
+			result.add(new InetSocketAddress(address.substring(0, separator).trim(),
+					Integer.parseInt(address.substring(separator + 1).trim())));
+		}
+		return result;
+	}
+
+	/**
+	 * Starts listening for migrants from the other islands on the address of
+	 * this island.
+	 * 
+	 * @throws IOException
+	 */
+	public void start() throws IOException {
+		serverSocket = new ServerSocket();
+		serverSocket.setReuseAddress(true);
+		InetSocketAddress address = islandAddresses.get(islandId);
+		InetAddress host = address.isUnresolved() ? InetAddress.getLoopbackAddress() : address.getAddress();
+		serverSocket.bind(new InetSocketAddress(host, address.getPort()));
+		sender = Executors.newSingleThreadExecutor(daemonThreads("island-" + islandId + "-sender"));
+		Thread acceptor = daemonThreads("island-" + islandId + "-acceptor").newThread(new Runnable() {
+			@Override
+			public void run() {
+				acceptConnections();
+			}
+		});
+		acceptor.start();
+		log.info(String.format("Island %d listening on %s, sending migrants to islands %s", islandId,
+				serverSocket.getLocalSocketAddress(), Arrays.toString(neighbours)));
+	}
+
+	/**
+	 * Exchanges migrants if the given generation is a migration generation.
+	 * The best individuals of the population are sent to the neighbours in the
+	 * background and the queued immigrants replace the worst individuals. The
+	 * population is reordered.
+	 * 
+	 * @param population
+	 *            - the current population
+	 * @param generation
+	 *            - the number of the generation that has just finished
+	 * @return the number of integrated migrants
+	 */
+	public int migrate(Population population, int generation) {
+		if (generation % migrationInterval != 0) {
+			return 0;
+		}
+		List<OrderedItemSequence> individuals = population.getIndividuals();
+		if (neighbours.length > 0) {
+			TopKSelector.selectTop(individuals, numberOfMigrants);
+			final byte[] batch = encode(individuals.subList(0, Math.min(numberOfMigrants, individuals.size())));
+			sender.execute(new Runnable() {
+				@Override
+				public void run() {
+					send(batch);
+				}
+			});
+		}
+		int replaced = 0;
+		OrderedItemSequence immigrant;
+		while ((immigrant = immigrants.poll()) != null) {
+			OrderedItemSequence worst = individuals.get(0);
+			for (OrderedItemSequence individual : individuals) {
+				if (individual.getFitnessValue() < worst.getFitnessValue()) {
+					worst = individual;
+				}
+			}
+			if (immigrant.getFitnessValue() > worst.getFitnessValue()) {
+				worst.copyFrom(immigrant);
+				replaced++;
+			}
+		}
+		if (replaced > 0) {
+			log.debug(String.format("Island %d integrated %d migrants in generation %d", islandId, replaced,
+					generation));
+		}
+		return replaced;
+	}
+
+	/**
+	 * Stops listening and closes all connections.
+	 */
+	public void close() {
+		closed = true;
+		if (sender != null) {
+			sender.shutdown();
+		}
+		closeQuietly(serverSocket);
+		for (int i = 0; i < connections.length; i++) {
+			closeQuietly(connections[i]);
+		}
+	}
+
+	private byte[] encode(List<OrderedItemSequence> migrants) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			GenomeCodec.writeBatch(new DataOutputStream(bytes), islandId, migrants);
+		} catch (IOException e) {
+			// Writing to memory does not fail
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private void send(byte[] batch) {
+		for (int neighbour : neighbours) {
+			if (closed) {
+				return;
+			}
+			try {
+				if (connections[neighbour] == null) {
+					Socket socket = new Socket();
+					socket.setTcpNoDelay(true);
+					socket.connect(islandAddresses.get(neighbour), CONNECT_TIMEOUT);
+					connections[neighbour] = socket;
+				}
+				OutputStream out = connections[neighbour].getOutputStream();
+				out.write(batch);
+				out.flush();
+			} catch (IOException e) {
+				// The neighbour is not up yet or went away - these migrants are
+				// lost and the connection is retried at the next migration
+				log.warn(String.format("Island %d could not send migrants to island %d: %s", islandId, neighbour,
+						e.getMessage()));
+				closeQuietly(connections[neighbour]);
+				connections[neighbour] = null;
+			}
+		}
+	}
+
+	private void acceptConnections() {
+		while (!closed) {
+			try {
+				final Socket socket = serverSocket.accept();
+				daemonThreads("island-" + islandId + "-reader").newThread(new Runnable() {
+					@Override
+					public void run() {
+						receive(socket);
+					}
+				}).start();
+			} catch (IOException e) {
+				if (!closed) {
+					log.error("Island " + islandId + " stopped accepting connections", e);
+				}
+				return;
+			}
+		}
+	}
+
+	private void receive(Socket socket) {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			while (!closed) {
+				for (OrderedItemSequence migrant : GenomeCodec.readBatch(in, catalog, numberOfItems)) {
+					if (migrant.getTotalWeight() > backpackLimit
+							|| migrant.getFitnessValue() != migrant.getTotalValue()) {
+						throw new IOException("Received a migrant that does not belong to the local instance!");
+					}
+					immigrants.add(migrant);
+				}
+			}
+		} catch (EOFException e) {
+			// The other island closed the connection
+		} catch (SocketException e) {
+			// The connection was closed
+		} catch (IOException e) {
+			log.warn(String.format("Island %d dropped a connection: %s", islandId, e.getMessage()));
+		} finally {
+			closeQuietly(socket);
+		}
+	}
+
+	private static ThreadFactory daemonThreads(final String name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			} catch (IOException e) {
+				// Nothing to do
+			}
+		}
+	}
+}
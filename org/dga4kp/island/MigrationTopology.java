@@ -0,0 +1,66 @@
+package org.dga4kp.island;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Enum that provides direct mapping from specific migration topology between
+ * islands to integer. The topology decides to which islands an island sends its
+ * migrants.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public enum MigrationTopology {
+	RING(1), FULLY_CONNECTED(2);
+	private int id;
+
+	private MigrationTopology(int s) {
+		id = s;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the IDs of the islands that receive the migrants of the given
+	 * island.
+	 * 
+	 * @param islandId
+	 *            - the ID of the sending island
+	 * @param numberOfIslands
+	 *            - the total number of islands
+	 * @return the IDs of the receiving islands
+	 */
+	public int[] neighbours(int islandId, int numberOfIslands) {
+		if (numberOfIslands < 2) {
+			return new int[0];
+		}
+		if (this == RING) {
+			return new int[] { (islandId + 1) % numberOfIslands };
+		}
+		int[] neighbours = new int[numberOfIslands - 1];
+		for (int i = 0, j = 0; i < numberOfIslands; i++) {
+			if (i != islandId) {
+				neighbours[j++] = i;
+			}
+		}
+		return neighbours;
+	}
+
+	private static final Map<Integer, MigrationTopology> map;
+
+	static {
+		map = new HashMap<Integer, MigrationTopology>();
+		for (MigrationTopology topology : MigrationTopology.values()) {
+			map.put(topology.getId(), topology);
+		}
+	}
+
+	public static MigrationTopology findByKey(int i) {
+		return map.get(i);
+	}
+
+}
@@ -0,0 +1,314 @@
+package org.dga4kp.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * EvolutionMetrics collects the per-generation metrics of the evolution. It
+ * keeps the metrics of the last generation and the totals since the start of
+ * the run, exposes both as an MXBean and emits a JFR event for every
+ * generation when the JVM supports JFR.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class EvolutionMetrics implements EvolutionMetricsMXBean {
+	static Logger log = LogManager.getLogger(EvolutionMetrics.class);
+
+	// Name the MBean is registered under
+	public static final String OBJECT_NAME = "org.dga4kp:type=EvolutionMetrics";
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	// Name the metrics are currently registered under, if any
+	private ObjectName objectName;
+	private GenerationEventEmitter eventEmitter = GenerationEventEmitter.create();
+	private GenerationMetrics last = new GenerationMetrics();
+	private long totalEvaluations;
+	private long totalRepairIterations;
+	private long totalDuplicates;
+	private long totalCacheHits;
+	private long totalCacheLookups;
+	private long totalGenerationNanos;
+	private long totalVariationNanos;
+	private long totalEvaluationNanos;
+	private long totalRepairNanos;
+	private long totalMergeNanos;
+	private long totalSelectionNanos;
+	private long totalTerminationCheckNanos;
+	private long totalWorkerIdleNanos;
+
+	/**
+	 * Registers the metrics in the platform MBean server under
+	 * {@link #OBJECT_NAME}, replacing an earlier registration.
+	 */
+	public void register() {
+		register(null);
+	}
+
+	/**
+	 * Registers the metrics in the platform MBean server, replacing an earlier
+	 * registration under the same name.
+	 * 
+	 * @param solverName
+	 *            - the name that tells the metrics of concurrent solvers apart,
+	 *            added to {@link #OBJECT_NAME} as the name key, or null
+	 */
+	public void register(String solverName) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(
+					solverName == null ? OBJECT_NAME : OBJECT_NAME + ",name=" + ObjectName.quote(solverName));
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+			objectName = name;
+		} catch (JMException e) {
+			log.warn(String.format("Could not register the evolution metrics MBean: %s", e.getMessage()));
+		}
+	}
+
+	/**
+	 * Removes the registration of the metrics, e.g. when a solver that runs
+	 * next to others has finished.
+	 */
+	public void unregister() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			log.warn(String.format("Could not unregister the evolution metrics MBean: %s", e.getMessage()));
+		}
+		objectName = null;
+	}
+
+	/**
+	 * Records the metrics of a finished generation and emits its JFR event.
+	 * 
+	 * @param metrics
+	 *            - the metrics of the generation, which are copied
+	 */
+	public void record(GenerationMetrics metrics) {
+		synchronized (this) {
+			copy(metrics, last);
+			totalEvaluations += metrics.evaluations;
+			totalRepairIterations += metrics.repairIterations;
+			totalDuplicates += metrics.duplicates;
+			totalCacheHits += metrics.cacheHits;
+			totalCacheLookups += metrics.cacheLookups;
+			totalGenerationNanos += metrics.generationNanos;
+			totalVariationNanos += metrics.variationNanos;
+			totalEvaluationNanos += metrics.evaluationNanos;
+			totalRepairNanos += metrics.repairNanos;
+			totalMergeNanos += metrics.mergeNanos;
+			totalSelectionNanos += metrics.selectionNanos;
+			totalTerminationCheckNanos += metrics.terminationCheckNanos;
+			totalWorkerIdleNanos += metrics.workerIdleNanos;
+		}
+		eventEmitter.emit(metrics);
+	}
+
+	private static void copy(GenerationMetrics from, GenerationMetrics to) {
+		to.generation = from.generation;
+		to.generationNanos = from.generationNanos;
+		to.variationNanos = from.variationNanos;
+		to.evaluationNanos = from.evaluationNanos;
+		to.repairNanos = from.repairNanos;
+		to.mergeNanos = from.mergeNanos;
+		to.selectionNanos = from.selectionNanos;
+		to.terminationCheckNanos = from.terminationCheckNanos;
+		to.workerIdleNanos = from.workerIdleNanos;
+		to.evaluations = from.evaluations;
+		to.evaluationsPerSecond = from.evaluationsPerSecond;
+		to.repairIterations = from.repairIterations;
+		to.duplicates = from.duplicates;
+		to.cacheHits = from.cacheHits;
+		to.cacheLookups = from.cacheLookups;
+		to.bestFitnessValue = from.bestFitnessValue;
+		to.meanFitnessValue = from.meanFitnessValue;
+		to.diversity = from.diversity;
+	}
+
+	@Override
+	public synchronized void reset() {
+		last = new GenerationMetrics();
+		totalEvaluations = 0;
+		totalRepairIterations = 0;
+		totalDuplicates = 0;
+		totalCacheHits = 0;
+		totalCacheLookups = 0;
+		totalGenerationNanos = 0;
+		totalVariationNanos = 0;
+		totalEvaluationNanos = 0;
+		totalRepairNanos = 0;
+		totalMergeNanos = 0;
+		totalSelectionNanos = 0;
+		totalTerminationCheckNanos = 0;
+		totalWorkerIdleNanos = 0;
+	}
+
+	@Override
+	public synchronized int getGeneration() {
+		return last.generation;
+	}
+
+	@Override
+	public synchronized int getBestFitnessValue() {
+		return last.bestFitnessValue;
+	}
+
+	@Override
+	public synchronized double getLastMeanFitnessValue() {
+		return last.meanFitnessValue;
+	}
+
+	@Override
+	public synchronized double getLastEvaluationsPerSecond() {
+		return last.evaluationsPerSecond;
+	}
+
+	@Override
+	public synchronized double getLastGenerationMillis() {
+		return last.generationNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getLastVariationMillis() {
+		return last.variationNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getLastEvaluationMillis() {
+		return last.evaluationNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getLastRepairMillis() {
+		return last.repairNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getLastMergeMillis() {
+		return last.mergeNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getLastSelectionMillis() {
+		return last.selectionNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getLastTerminationCheckMillis() {
+		return last.terminationCheckNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getLastWorkerIdleMillis() {
+		return last.workerIdleNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized long getLastRepairIterations() {
+		return last.repairIterations;
+	}
+
+	@Override
+	public synchronized int getLastDuplicates() {
+		return last.duplicates;
+	}
+
+	@Override
+	public synchronized double getLastCacheHitRate() {
+		return last.cacheLookups == 0 ? 0 : (double) last.cacheHits / last.cacheLookups;
+	}
+
+	@Override
+	public synchronized double getLastDiversity() {
+		return last.diversity;
+	}
+
+	@Override
+	public synchronized long getTotalEvaluations() {
+		return totalEvaluations;
+	}
+
+	@Override
+	public synchronized long getTotalRepairIterations() {
+		return totalRepairIterations;
+	}
+
+	@Override
+	public synchronized long getTotalDuplicates() {
+		return totalDuplicates;
+	}
+
+	@Override
+	public synchronized long getTotalCacheHits() {
+		return totalCacheHits;
+	}
+
+	@Override
+	public synchronized long getTotalCacheLookups() {
+		return totalCacheLookups;
+	}
+
+	@Override
+	public synchronized double getTotalGenerationMillis() {
+		return totalGenerationNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getTotalVariationMillis() {
+		return totalVariationNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getTotalEvaluationMillis() {
+		return totalEvaluationNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getTotalRepairMillis() {
+		return totalRepairNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getTotalMergeMillis() {
+		return totalMergeNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getTotalSelectionMillis() {
+		return totalSelectionNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getTotalTerminationCheckMillis() {
+		return totalTerminationCheckNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized double getTotalWorkerIdleMillis() {
+		return totalWorkerIdleNanos / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format(
+				"EvolutionMetrics [generation=%s, totalEvaluations=%s, totalRepairIterations=%s, totalDuplicates=%s, totalCacheHits=%s, totalCacheLookups=%s, totalGenerationMillis=%.1f, totalVariationMillis=%.1f, totalEvaluationMillis=%.1f, totalRepairMillis=%.1f, totalMergeMillis=%.1f, totalSelectionMillis=%.1f, totalTerminationCheckMillis=%.1f, totalWorkerIdleMillis=%.1f]",
+				last.generation, totalEvaluations, totalRepairIterations, totalDuplicates, totalCacheHits,
+				totalCacheLookups, getTotalGenerationMillis(), getTotalVariationMillis(),
+				getTotalEvaluationMillis(), getTotalRepairMillis(), getTotalMergeMillis(),
+				getTotalSelectionMillis(), getTotalTerminationCheckMillis(), getTotalWorkerIdleMillis());
+	}
+}
@@ -0,0 +1,73 @@
+package org.dga4kp.metrics;
+
+/**
+ * JMX view of the performance metrics of a running evolution. The "Last"
+ * attributes describe the last finished generation and the "Total" attributes
+ * are accumulated since the start of the run. All times are in milliseconds.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public interface EvolutionMetricsMXBean {
+
+	int getGeneration();
+
+	int getBestFitnessValue();
+
+	double getLastMeanFitnessValue();
+
+	double getLastEvaluationsPerSecond();
+
+	double getLastGenerationMillis();
+
+	double getLastVariationMillis();
+
+	double getLastEvaluationMillis();
+
+	double getLastRepairMillis();
+
+	double getLastMergeMillis();
+
+	double getLastSelectionMillis();
+
+	double getLastTerminationCheckMillis();
+
+	double getLastWorkerIdleMillis();
+
+	long getLastRepairIterations();
+
+	int getLastDuplicates();
+
+	double getLastCacheHitRate();
+
+	double getLastDiversity();
+
+	long getTotalEvaluations();
+
+	long getTotalRepairIterations();
+
+	long getTotalDuplicates();
+
+	long getTotalCacheHits();
+
+	long getTotalCacheLookups();
+
+	double getTotalGenerationMillis();
+
+	double getTotalVariationMillis();
+
+	double getTotalEvaluationMillis();
+
+	double getTotalRepairMillis();
+
+	double getTotalMergeMillis();
+
+	double getTotalSelectionMillis();
+
+	double getTotalTerminationCheckMillis();
+
+	double getTotalWorkerIdleMillis();
+
+	void reset();
+}
@@ -0,0 +1,50 @@
+package org.dga4kp.metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * GenerationEventEmitter emits the metrics of every generation as a JFR event.
+ * The JFR implementation is loaded by name, so the metrics keep working on a
+ * JVM without the jdk.jfr API and then simply emit nothing.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public abstract class GenerationEventEmitter {
+	static Logger log = LogManager.getLogger(GenerationEventEmitter.class);
+
+	// Name of the implementation that uses jdk.jfr
+	private static final String JFR_EMITTER = "org.dga4kp.metrics.JfrGenerationEventEmitter";
+
+	/**
+	 * Emits the event of a finished generation.
+	 * 
+	 * @param metrics
+	 *            - the metrics of the generation
+	 */
+	public abstract void emit(GenerationMetrics metrics);
+
+	/**
+	 * Returns the JFR emitter if the JVM supports JFR and an emitter that does
+	 * nothing otherwise.
+	 */
+	public static GenerationEventEmitter create() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return (GenerationEventEmitter) Class.forName(JFR_EMITTER).getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			log.debug("JFR is not available, generation events are not emitted");
+		} catch (ReflectiveOperationException e) {
+			log.warn(String.format("Could not create the JFR generation event emitter: %s", e.getMessage()));
+		} catch (LinkageError e) {
+			log.warn(String.format("Could not create the JFR generation event emitter: %s", e.getMessage()));
+		}
+		return new GenerationEventEmitter() {
+			@Override
+			public void emit(GenerationMetrics metrics) {
+			}
+		};
+	}
+}
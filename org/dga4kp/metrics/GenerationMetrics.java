@@ -0,0 +1,62 @@
+package org.dga4kp.metrics;
+
+/**
+ * GenerationMetrics holds the performance metrics of one generation. The
+ * generation loop fills a single instance in place every generation and hands
+ * it to the JMX MBean and the JFR event emitter.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class GenerationMetrics {
+	// Number of the generation
+	public int generation;
+	// Wall-clock time of the whole generation
+	public long generationNanos;
+	// Time the workers spent in crossover and mutation, summed over workers
+	public long variationNanos;
+	// Time the workers spent evaluating children that fit into the backpack,
+	// summed over workers
+	public long evaluationNanos;
+	// Time the workers spent evaluating and repairing overweight children,
+	// summed over workers
+	public long repairNanos;
+	// Wall-clock time of merging the statistics and swapping the buffers,
+	// including migration in the island model
+	public long mergeNanos;
+	// Wall-clock time of the elitism and parent selection preparation
+	public long selectionNanos;
+	// Wall-clock time of checking the stopping criteria
+	public long terminationCheckNanos;
+	// Time the workers waited at the end of the generation for the slowest
+	// chunk, summed over the workers of the pool, 0 on a pool shared with
+	// other solvers
+	public long workerIdleNanos;
+	public int evaluations;
+	public double evaluationsPerSecond;
+	public long repairIterations;
+	// Clones that were mutated again, 0 unless duplicates are suppressed
+	public int duplicates;
+	// Fitness cache hits and lookups, 0 without a cache
+	public int cacheHits;
+	public int cacheLookups;
+	// Best fitness value found so far
+	public int bestFitnessValue;
+	// Mean fitness value of the children evaluated in this generation
+	public double meanFitnessValue;
+	// Expected fraction of items in which two individuals of the new
+	// population differ, counted before the repair, 0 unless the children
+	// are batch evaluated
+	public double diversity;
+
+	@Override
+	public String toString() {
+		return String.format(
+				"GenerationMetrics [generation=%s, generationMicros=%s, variationMicros=%s, evaluationMicros=%s, repairMicros=%s, mergeMicros=%s, selectionMicros=%s, terminationCheckMicros=%s, workerIdleMicros=%s, evaluations=%s, evaluationsPerSecond=%.0f, repairIterations=%s, duplicates=%s, cacheHits=%s, cacheLookups=%s, bestFitnessValue=%s, meanFitnessValue=%.2f, diversity=%.4f]",
+				generation, generationNanos / 1000, variationNanos / 1000, evaluationNanos / 1000, repairNanos / 1000,
+				mergeNanos / 1000, selectionNanos / 1000, terminationCheckNanos / 1000, workerIdleNanos / 1000,
+				evaluations, evaluationsPerSecond, repairIterations, duplicates, cacheHits, cacheLookups, bestFitnessValue,
+				meanFitnessValue, diversity);
+	}
+}
@@ -0,0 +1,121 @@
+package org.dga4kp.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Emits the metrics of every generation as an "org.dga4kp.Generation" JFR
+ * event. It is only loaded through {@link GenerationEventEmitter#create()} when
+ * the JVM provides the jdk.jfr API.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class JfrGenerationEventEmitter extends GenerationEventEmitter {
+
+	@Override
+	public void emit(GenerationMetrics metrics) {
+		GenerationEvent event = new GenerationEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.generation = metrics.generation;
+		event.generationTime = metrics.generationNanos;
+		event.variationTime = metrics.variationNanos;
+		event.evaluationTime = metrics.evaluationNanos;
+		event.repairTime = metrics.repairNanos;
+		event.mergeTime = metrics.mergeNanos;
+		event.selectionTime = metrics.selectionNanos;
+		event.terminationCheckTime = metrics.terminationCheckNanos;
+		event.workerIdleTime = metrics.workerIdleNanos;
+		event.evaluations = metrics.evaluations;
+		event.evaluationsPerSecond = metrics.evaluationsPerSecond;
+		event.repairIterations = metrics.repairIterations;
+		event.duplicates = metrics.duplicates;
+		event.cacheHits = metrics.cacheHits;
+		event.cacheLookups = metrics.cacheLookups;
+		event.bestFitnessValue = metrics.bestFitnessValue;
+		event.meanFitnessValue = metrics.meanFitnessValue;
+		event.diversity = metrics.diversity;
+		event.commit();
+	}
+
+	@Name("org.dga4kp.Generation")
+	@Label("Generation")
+	@Category("DGA4KP")
+	@Description("Performance metrics of one generation of the evolution")
+	static class GenerationEvent extends Event {
+		@Label("Generation")
+		int generation;
+
+		@Label("Generation Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long generationTime;
+
+		@Label("Variation Time")
+		@Description("Time spent in crossover and mutation, summed over workers")
+		@Timespan(Timespan.NANOSECONDS)
+		long variationTime;
+
+		@Label("Evaluation Time")
+		@Description("Time spent evaluating children that fit, summed over workers")
+		@Timespan(Timespan.NANOSECONDS)
+		long evaluationTime;
+
+		@Label("Repair Time")
+		@Description("Time spent evaluating and repairing overweight children, summed over workers")
+		@Timespan(Timespan.NANOSECONDS)
+		long repairTime;
+
+		@Label("Merge Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long mergeTime;
+
+		@Label("Selection Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long selectionTime;
+
+		@Label("Termination Check Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long terminationCheckTime;
+
+		@Label("Worker Idle Time")
+		@Description("Time the workers waited for the slowest chunk, summed over workers, 0 on a shared pool")
+		@Timespan(Timespan.NANOSECONDS)
+		long workerIdleTime;
+
+		@Label("Evaluations")
+		int evaluations;
+
+		@Label("Evaluations per Second")
+		double evaluationsPerSecond;
+
+		@Label("Repair Iterations")
+		long repairIterations;
+
+		@Label("Duplicates")
+		@Description("Clones that were mutated again before the evaluation")
+		int duplicates;
+
+		@Label("Fitness Cache Hits")
+		int cacheHits;
+
+		@Label("Fitness Cache Lookups")
+		int cacheLookups;
+
+		@Label("Best Fitness Value")
+		int bestFitnessValue;
+
+		@Label("Mean Fitness Value")
+		double meanFitnessValue;
+
+		@Label("Diversity")
+		@Description("Expected fraction of items in which two individuals differ, 0 without batch evaluation")
+		double diversity;
+	}
+}
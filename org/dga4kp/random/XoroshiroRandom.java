@@ -0,0 +1,130 @@
+package org.dga4kp.random;
+
+import java.util.Random;
+
+/**
+ * XoroshiroRandom is a xoroshiro128++ random generator behind the
+ * java.util.Random interface, so it can be passed to every operator that takes
+ * a Random. Unlike Random it keeps its 128-bit state in two plain fields:
+ * drawing a number is a few shifts and XORs instead of a compare-and-set on a
+ * shared seed, the state can be saved and restored, and an instance must only
+ * be used by one thread at a time. Independent streams are derived from a
+ * master seed and a stream ID with the SplitMix64 mixing function, so the
+ * stream of a part of the work does not depend on the thread that runs it.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class XoroshiroRandom extends Random {
+	private static final long serialVersionUID = 1L;
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	private long state0;
+	private long state1;
+
+	/**
+	 * Constructor that seeds the generator from a single seed.
+	 * 
+	 * @param seed
+	 *            - the seed, expanded into the state by SplitMix64
+	 */
+	public XoroshiroRandom(long seed) {
+		super(seed);
+	}
+
+	/**
+	 * Constructor that restores a saved state.
+	 * 
+	 * @param state0
+	 *            - the first word of the state
+	 * @param state1
+	 *            - the second word of the state
+	 */
+	public XoroshiroRandom(long state0, long state1) {
+		super(0);
+		setState(state0, state1);
+	}
+
+	/**
+	 * Returns the generator of stream index of the given kind of streams of a
+	 * master seed. The same arguments always give the same stream.
+	 * 
+	 * @param masterSeed
+	 *            - the seed of the run
+	 * @param kind
+	 *            - the kind of streams, e.g. one per part of the algorithm
+	 * @param index
+	 *            - the index of the stream within its kind
+	 */
+	public static XoroshiroRandom forStream(long masterSeed, long kind, long index) {
+		return new XoroshiroRandom(mix(mix(masterSeed + kind * GOLDEN_GAMMA) + index * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * SplitMix64 finalizer: a bijection of 64-bit values with good avalanche.
+	 */
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Seeds the generator. It is also called by the constructor of Random.
+	 */
+	@Override
+	public void setSeed(long seed) {
+		long s0 = mix(seed + GOLDEN_GAMMA);
+		long s1 = mix(seed + 2 * GOLDEN_GAMMA);
+		setState(s0, s1);
+	}
+
+	/**
+	 * Replaces the state. An all-zero state, which xoroshiro never leaves, is
+	 * replaced by a fixed non-zero one.
+	 */
+	public void setState(long state0, long state1) {
+		if (state0 == 0 && state1 == 0) {
+			state0 = GOLDEN_GAMMA;
+		}
+		this.state0 = state0;
+		this.state1 = state1;
+	}
+
+	public long getState0() {
+		return state0;
+	}
+
+	public long getState1() {
+		return state1;
+	}
+
+	@Override
+	public long nextLong() {
+		long s0 = state0;
+		long s1 = state1;
+		long result = Long.rotateLeft(s0 + s1, 17) + s0;
+		s1 ^= s0;
+		state0 = Long.rotateLeft(s0, 49) ^ s1 ^ (s1 << 21);
+		state1 = Long.rotateLeft(s1, 28);
+		return result;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("XoroshiroRandom [state0=%s, state1=%s]", state0, state1);
+	}
+}
@@ -0,0 +1,263 @@
+package org.dga4kp.reduction;
+
+import org.dga4kp.adt.ItemCatalog;
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * InstanceReduction fixes items of a knapsack instance before the evolution.
+ * The items are taken in descending value-to-weight ratio order to compute the
+ * Dantzig bound of the LP relaxation and the value of the greedy solution. An
+ * item is fixed in the backpack if the bound of every solution without it is
+ * below the greedy value and fixed out of it if the bound of every solution
+ * with it is below the greedy value (Dembo and Hammer). Items that are worth
+ * nothing or do not fit into the capacity that is left after the fixed items
+ * are removed as well. The remaining "core" items form a smaller instance that
+ * is evolved instead of the full one, and its solutions are mapped back to
+ * the full item IDs.
+ * 
+ * An item is only fixed if no solution that is at least as good as the greedy
+ * one disagrees, so every optimal solution of the full instance is a
+ * solution of the core plus the fixed items.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class InstanceReduction {
+	// Tolerance of the floating point bounds
+	private static final double EPSILON = 1e-9;
+
+	private ItemCatalog catalog;
+	private int numberOfItems;
+	private int capacity;
+	// Original IDs of the core items, in ascending order
+	private int[] coreItems;
+	private ItemCatalog coreCatalog;
+	private boolean[] fixedIn;
+	private long fixedValue;
+	private int fixedWeight;
+	private int numberOfFixedOut;
+	private double upperBound;
+	private long lowerBound;
+	// The greedy solution over the full instance
+	private long[] greedyGenes;
+
+	private InstanceReduction() {
+	}
+
+	/**
+	 * Reduces the instance formed by the first numberOfItems items of the
+	 * catalog.
+	 * 
+	 * @param catalog
+	 *            - the catalog of backpack items
+	 * @param numberOfItems
+	 *            - the number of items of the instance
+	 * @param capacity
+	 *            - the limit of the backpack
+	 * @return the reduction
+	 */
+	public static InstanceReduction reduce(ItemCatalog catalog, int numberOfItems, int capacity) {
+		InstanceReduction reduction = new InstanceReduction();
+		reduction.catalog = catalog;
+		reduction.numberOfItems = numberOfItems;
+		reduction.capacity = capacity;
+		reduction.fixedIn = new boolean[numberOfItems];
+		reduction.greedyGenes = new long[OrderedItemSequence.wordCount(numberOfItems)];
+
+		// The candidate items by descending ratio
+		int[] order = new int[numberOfItems];
+		int count = 0;
+		for (int rank = catalog.size() - 1; rank >= 0; rank--) {
+			int id = catalog.getItemByRatio(rank);
+			if (id < numberOfItems && catalog.getValue(id) > 0 && catalog.getWeight(id) <= capacity) {
+				order[count++] = id;
+			}
+		}
+
+		// Dantzig bound and greedy solution
+		long prefixWeight = 0;
+		long prefixValue = 0;
+		int breakIndex = count;
+		for (int k = 0; k < count; k++) {
+			int id = order[k];
+			if (prefixWeight + catalog.getWeight(id) > capacity) {
+				breakIndex = k;
+				break;
+			}
+			prefixWeight += catalog.getWeight(id);
+			prefixValue += catalog.getValue(id);
+			reduction.greedyGenes[id / Long.SIZE] |= 1L << id;
+		}
+		long greedyWeight = prefixWeight;
+		long greedyValue = prefixValue;
+		for (int k = breakIndex + 1; k < count; k++) {
+			int id = order[k];
+			if (greedyWeight + catalog.getWeight(id) <= capacity) {
+				greedyWeight += catalog.getWeight(id);
+				greedyValue += catalog.getValue(id);
+				reduction.greedyGenes[id / Long.SIZE] |= 1L << id;
+			}
+		}
+		reduction.lowerBound = greedyValue;
+
+		if (breakIndex == count) {
+			// All candidates fit, the greedy solution is optimal
+			reduction.upperBound = prefixValue;
+			for (int k = 0; k < count; k++) {
+				reduction.fixedIn[order[k]] = true;
+			}
+		} else {
+			int breakItem = order[breakIndex];
+			double breakRatio = ((double) catalog.getValue(breakItem)) / catalog.getWeight(breakItem);
+			reduction.upperBound = prefixValue + (capacity - prefixWeight) * breakRatio;
+			double threshold = greedyValue - EPSILON * Math.max(1, reduction.upperBound);
+			for (int k = 0; k < breakIndex; k++) {
+				int id = order[k];
+				// Bound of the solutions without the item
+				double bound = reduction.upperBound - catalog.getValue(id) + breakRatio * catalog.getWeight(id);
+				if (bound < threshold) {
+					reduction.fixedIn[id] = true;
+				}
+			}
+			for (int k = breakIndex + 1; k < count; k++) {
+				int id = order[k];
+				// Bound of the solutions with the item
+				double bound = reduction.upperBound + catalog.getValue(id) - breakRatio * catalog.getWeight(id);
+				if (bound < threshold) {
+					order[k] = -1;
+				}
+			}
+		}
+
+		// Items that are left over are free unless they do not fit next to
+		// the fixed items
+		for (int id = 0; id < numberOfItems; id++) {
+			if (reduction.fixedIn[id]) {
+				reduction.fixedValue += catalog.getValue(id);
+				reduction.fixedWeight += catalog.getWeight(id);
+			}
+		}
+		boolean[] candidate = new boolean[numberOfItems];
+		for (int k = 0; k < count; k++) {
+			if (order[k] >= 0 && !reduction.fixedIn[order[k]]) {
+				candidate[order[k]] = true;
+			}
+		}
+		int residualCapacity = capacity - reduction.fixedWeight;
+		int coreSize = 0;
+		for (int id = 0; id < numberOfItems; id++) {
+			if (candidate[id] && catalog.getWeight(id) <= residualCapacity) {
+				coreSize++;
+			} else {
+				candidate[id] = false;
+			}
+		}
+		reduction.coreItems = new int[coreSize];
+		int[] coreValues = new int[coreSize];
+		int[] coreWeights = new int[coreSize];
+		for (int id = 0, core = 0; id < numberOfItems; id++) {
+			if (candidate[id]) {
+				reduction.coreItems[core] = id;
+				coreValues[core] = catalog.getValue(id);
+				coreWeights[core] = catalog.getWeight(id);
+				core++;
+			}
+		}
+		reduction.numberOfFixedOut = numberOfItems - coreSize;
+		for (int id = 0; id < numberOfItems; id++) {
+			if (reduction.fixedIn[id]) {
+				reduction.numberOfFixedOut--;
+			}
+		}
+		reduction.coreCatalog = new ItemCatalog(coreValues, coreWeights);
+		return reduction;
+	}
+
+	/**
+	 * Maps a solution of the core instance to a solution of the full instance.
+	 * 
+	 * @param coreSequence
+	 *            - a sequence over the core items
+	 * @return the sequence over all items with the fixed items set, whose
+	 *         fitness value is its total value
+	 */
+	public OrderedItemSequence toFullSequence(OrderedItemSequence coreSequence) {
+		long[] genes = new long[OrderedItemSequence.wordCount(numberOfItems)];
+		for (int id = 0; id < numberOfItems; id++) {
+			if (fixedIn[id]) {
+				genes[id / Long.SIZE] |= 1L << id;
+			}
+		}
+		for (int core = 0; core < coreItems.length && core < coreSequence.getLength(); core++) {
+			if (coreSequence.get(core)) {
+				int id = coreItems[core];
+				genes[id / Long.SIZE] |= 1L << id;
+			}
+		}
+		OrderedItemSequence sequence = new OrderedItemSequence(catalog, numberOfItems, genes);
+		sequence.setFitnessValue(sequence.getTotalValue());
+		return sequence;
+	}
+
+	/**
+	 * Returns the better of the mapped core solution and the greedy solution
+	 * of the full instance. The greedy solution can only be better if the
+	 * evolution did not reach its value.
+	 * 
+	 * @param coreSequence
+	 *            - the best sequence over the core items
+	 */
+	public OrderedItemSequence bestFullSequence(OrderedItemSequence coreSequence) {
+		OrderedItemSequence sequence = toFullSequence(coreSequence);
+		if (sequence.getTotalWeight() > capacity || sequence.getTotalValue() < lowerBound) {
+			sequence = new OrderedItemSequence(catalog, numberOfItems, greedyGenes.clone());
+			sequence.setFitnessValue(sequence.getTotalValue());
+		}
+		return sequence;
+	}
+
+	public ItemCatalog getCoreCatalog() {
+		return coreCatalog;
+	}
+
+	public int getCoreSize() {
+		return coreItems.length;
+	}
+
+	public int getCoreCapacity() {
+		return capacity - fixedWeight;
+	}
+
+	public int getCoreItem(int core) {
+		return coreItems[core];
+	}
+
+	public boolean isFixedIn(int id) {
+		return fixedIn[id];
+	}
+
+	public long getFixedValue() {
+		return fixedValue;
+	}
+
+	public int getFixedWeight() {
+		return fixedWeight;
+	}
+
+	public double getUpperBound() {
+		return upperBound;
+	}
+
+	public long getLowerBound() {
+		return lowerBound;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"InstanceReduction [numberOfItems=%s, coreSize=%s, fixedIn=%s, fixedOut=%s, fixedValue=%s, coreCapacity=%s, lowerBound=%s, upperBound=%.1f]",
+				numberOfItems, coreItems.length, numberOfItems - coreItems.length - numberOfFixedOut,
+				numberOfFixedOut, fixedValue, getCoreCapacity(), lowerBound, upperBound);
+	}
+}
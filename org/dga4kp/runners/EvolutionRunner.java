@@ -1,58 +1,110 @@
 package org.dga4kp.runners;
 
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.dga4kp.PopulationGenerator;
-import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.BatchEvaluator;
+import org.dga4kp.adt.GenerationStatistics;
+import org.dga4kp.adt.MutationTable;
+import org.dga4kp.random.XoroshiroRandom;
 
 /**
- * EvolutionRunner class is a runnable that executes the evolution from specific
- * start point to a specific end point in the population and appends the result
- * to a shared variable. Important note is that every thread has to use its own
- * dedicated random generator because a Random object can be accessed by only
- * one thread at a time.
+ * EvolutionRunner class is a fork-join task that executes the evolution of one
+ * chunk of the population, from specific start point to a specific end point.
+ * The children are written directly into the next population buffer and the
+ * statistics of the chunk are accumulated in its own GenerationStatistics. The
+ * chunks are allocated once and reused every generation through
+ * {@link Generation}, and idle workers of the pool steal the chunks that are
+ * still waiting. Every chunk owns its random stream, which is only used by the
+ * worker that runs the chunk, so the children do not depend on which worker
+ * that is and a run can be repeated from its seed. The scratch table of the
+ * mutations is owned by the chunk for the same reason.
  * 
  * @author Elena Kyorova <elenakyorova@gmail.com>
  * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
  *
  */
-public class EvolutionRunner implements Runnable {
-	private static List<List<OrderedItemSequence>> sequences;
-	private int threadCount;
-	private int currentThread;
-	private int scope;
-	private Random randomGenerator;
+public class EvolutionRunner extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
 
-	public static void setSequences(List<List<OrderedItemSequence>> sequences) {
-		EvolutionRunner.sequences = sequences;
+	// Solver whose population is evolved
+	private PopulationGenerator generator;
+	// Index of the first sequence evolved by this chunk
+	private int start;
+	// Index of the last sequence evolved by this chunk
+	private int end;
+	// Statistics of this chunk, reduced by the generation loop after the
+	// generation
+	private GenerationStatistics statistics = new GenerationStatistics();
+	// Evaluator of the children of this chunk, null unless the children are
+	// batch evaluated
+	private BatchEvaluator batchEvaluator;
+	// Random stream of this chunk, continued from generation to generation
+	private XoroshiroRandom randomGenerator;
+	// Scratch table of the exact-bits mutations of this chunk
+	private MutationTable mutationTable = new MutationTable();
+
+	public EvolutionRunner(PopulationGenerator generator, int start, int end) {
+		this.generator = generator;
+		this.start = start;
+		this.end = end;
+	}
+
+	public GenerationStatistics getStatistics() {
+		return statistics;
+	}
+
+	public BatchEvaluator getBatchEvaluator() {
+		return batchEvaluator;
+	}
+
+	public void setBatchEvaluator(BatchEvaluator batchEvaluator) {
+		this.batchEvaluator = batchEvaluator;
 	}
 
-	public static List<List<OrderedItemSequence>> getSequences() {
-		return EvolutionRunner.sequences;
+	public XoroshiroRandom getRandomGenerator() {
+		return randomGenerator;
 	}
 
-	public EvolutionRunner(Random randomGenerator, int threadCount, int currentThread, int scope) {
-		this.threadCount = threadCount;
-		this.currentThread = currentThread;
-		this.scope = scope;
+	public void setRandomGenerator(XoroshiroRandom randomGenerator) {
 		this.randomGenerator = randomGenerator;
 	}
 
+	public int getStart() {
+		return start;
+	}
+
+	public int getEnd() {
+		return end;
+	}
+
 	@Override
-	public void run() {
-		// Starting point for the evolution of current population
-		int start = this.scope * this.currentThread;
-		// End point for the evolution of current population
-		int end = (this.currentThread + 1) * this.scope - 1;
-		if (this.currentThread == this.threadCount - 1) {
-			// If this is the last thread created then the end should be the
-			// maximum size of the population
-			end = PopulationGenerator.populationSize - 1;
+	protected void compute() {
+		statistics.reset();
+		generator.evolveSequences(start, end, randomGenerator, statistics, batchEvaluator, mutationTable);
+	}
+
+	/**
+	 * Root task of a generation. It reinitializes the preallocated chunks and
+	 * forks all of them, so one generation does not allocate any tasks. The
+	 * steady-state evolution starts its workers through it as well.
+	 */
+	public static class Generation extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private ForkJoinTask<?>[] chunks;
+
+		public Generation(ForkJoinTask<?>[] chunks) {
+			this.chunks = chunks;
 		}
-		List<OrderedItemSequence> temporaryResult = PopulationGenerator.evolveSequences(start, end, randomGenerator);
-		synchronized (sequences) {
-			sequences.add(temporaryResult);
+
+		@Override
+		protected void compute() {
+			for (ForkJoinTask<?> chunk : chunks) {
+				chunk.reinitialize();
+			}
+			invokeAll(chunks);
 		}
 	}
-}
\ No newline at end of file
+}
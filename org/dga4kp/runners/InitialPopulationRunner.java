@@ -1,45 +1,55 @@
 package org.dga4kp.runners;
 
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.RecursiveAction;
 
 import org.dga4kp.PopulationGenerator;
 import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.random.XoroshiroRandom;
 
 /**
  * 
- * InitialPopulationRunner class is a runnable that generates a part of the
- * initial population and appends the result to a shared variable. Important
- * note is that every thread has to use its own dedicated random generator
- * because a Random object can be accessed by only one thread at a time.
+ * InitialPopulationRunner class is a fork-join task that generates a part of
+ * the initial population and writes it directly into its slots of the new
+ * population. Tasks larger than the chunk size are split in halves so that
+ * idle workers of the pool can steal them. Every chunk draws from its own
+ * random stream, derived from the seed and the index of its first slot, so
+ * the population does not depend on the worker that generates a chunk.
  * 
  * @author Elena Kyorova <elenakyorova@gmail.com>
  * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
  *
  */
-public class InitialPopulationRunner implements Runnable {
-	public static List<List<OrderedItemSequence>> sequences;
-	public int threadCount;
-	public int currentThread;
-	public int numberOfSequences;
-	public Random randomGenerator;
+public class InitialPopulationRunner extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
 
-	public InitialPopulationRunner(Random randomGenerator, int threadCount, int currentThread, int numberOfSequences) {
-		this.threadCount = threadCount;
-		this.currentThread = currentThread;
-		this.numberOfSequences = numberOfSequences;
-		this.randomGenerator = randomGenerator;
+	// Solver whose initial population is generated
+	public PopulationGenerator generator;
+	public List<OrderedItemSequence> individuals;
+	// Index of the first slot filled by this task
+	public int start;
+	// Index after the last slot filled by this task
+	public int end;
+	public int chunkSize;
+
+	public InitialPopulationRunner(PopulationGenerator generator, List<OrderedItemSequence> individuals, int start,
+			int end, int chunkSize) {
+		this.generator = generator;
+		this.individuals = individuals;
+		this.start = start;
+		this.end = end;
+		this.chunkSize = chunkSize;
 	}
 
 	@Override
-	public void run() {
-		if (currentThread == threadCount - 1) {
-			numberOfSequences += PopulationGenerator.populationSize - ((currentThread + 1) * numberOfSequences);
-		}
-		List<OrderedItemSequence> temporaryResult = PopulationGenerator.generatePartialInitialPopulation(randomGenerator,
-				numberOfSequences);
-		synchronized (sequences) {
-			sequences.add(temporaryResult);
+	protected void compute() {
+		if (end - start > chunkSize) {
+			int middle = (start + end) >>> 1;
+			invokeAll(new InitialPopulationRunner(generator, individuals, start, middle, chunkSize),
+					new InitialPopulationRunner(generator, individuals, middle, end, chunkSize));
+			return;
 		}
+		generator.generatePartialInitialPopulation(individuals, start, end,
+				XoroshiroRandom.forStream(generator.seed, PopulationGenerator.INITIAL_POPULATION_STREAMS, start));
 	}
 }
@@ -0,0 +1,70 @@
+package org.dga4kp.runners;
+
+import java.util.concurrent.RecursiveAction;
+
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.adt.GenerationStatistics;
+import org.dga4kp.adt.MutationTable;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.random.XoroshiroRandom;
+
+/**
+ * SteadyStateRunner is a fork-join task that runs one worker of the
+ * steady-state evolution. The worker keeps creating and evaluating children
+ * and replacing weaker individuals with them until the evolution stops, so it
+ * never waits for the other workers. It owns the sequence its children are
+ * built in, the best child it has seen, its statistics, the scratch table of
+ * its mutations and its random stream.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class SteadyStateRunner extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	// Solver whose population is evolved
+	private PopulationGenerator generator;
+	// Statistics of the current batch of children of this worker
+	private GenerationStatistics statistics = new GenerationStatistics();
+	// Random stream of this worker
+	private XoroshiroRandom randomGenerator;
+	// Sequence that the children of this worker are built in
+	private OrderedItemSequence child;
+	// Copy of the best child of this worker
+	private OrderedItemSequence bestChild;
+	// Scratch table of the exact-bits mutations of this worker
+	private MutationTable mutationTable = new MutationTable();
+
+	/**
+	 * Constructor
+	 *
+	 * @param generator
+	 *            - the solver whose population is evolved
+	 * @param randomGenerator
+	 *            - the random stream of the worker
+	 * @param template
+	 *            - an individual of the population that the sequences of the
+	 *            worker are copied from
+	 */
+	public SteadyStateRunner(PopulationGenerator generator, XoroshiroRandom randomGenerator,
+			OrderedItemSequence template) {
+		this.generator = generator;
+		this.randomGenerator = randomGenerator;
+		this.child = new OrderedItemSequence(template);
+		this.bestChild = new OrderedItemSequence(template);
+	}
+
+	public GenerationStatistics getStatistics() {
+		return statistics;
+	}
+
+	public XoroshiroRandom getRandomGenerator() {
+		return randomGenerator;
+	}
+
+	@Override
+	protected void compute() {
+		generator.evolveSteadyStateSequences(randomGenerator, statistics, child, bestChild, mutationTable);
+	}
+}
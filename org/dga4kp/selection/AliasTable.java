@@ -0,0 +1,90 @@
+package org.dga4kp.selection;
+
+import java.util.List;
+import java.util.Random;
+
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * AliasTable implements roulette wheel selection with Vose's alias method. The
+ * table is built in linear time from the fitness values of the population and
+ * after that every draw costs one random index and one random double, no matter
+ * how large the population is. The arrays are reused between generations.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class AliasTable {
+	// Probability of keeping the drawn column instead of taking its alias
+	private double[] probability = new double[0];
+	private int[] alias = new int[0];
+	// Work lists of the columns with less and more than the average weight
+	private int[] small = new int[0];
+	private int[] large = new int[0];
+	private int size;
+
+	/**
+	 * Builds the table so that every sequence is drawn with probability
+	 * proportional to its fitness value. If all fitness values are zero the
+	 * sequences are drawn uniformly.
+	 * 
+	 * @param sequences
+	 *            - the sequences to draw from
+	 */
+	public void build(List<OrderedItemSequence> sequences) {
+		size = sequences.size();
+		if (probability.length < size) {
+			probability = new double[size];
+			alias = new int[size];
+			small = new int[size];
+			large = new int[size];
+		}
+		long sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += sequences.get(i).getFitnessValue();
+		}
+		int smallCount = 0;
+		int largeCount = 0;
+		for (int i = 0; i < size; i++) {
+			// Weight scaled so that the average column is 1
+			probability[i] = (sum == 0) ? 1.0 : ((double) sequences.get(i).getFitnessValue()) * size / sum;
+			alias[i] = i;
+			if (probability[i] < 1.0) {
+				small[smallCount++] = i;
+			} else {
+				large[largeCount++] = i;
+			}
+		}
+		while (smallCount > 0 && largeCount > 0) {
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			alias[less] = more;
+			probability[more] = (probability[more] + probability[less]) - 1.0;
+			if (probability[more] < 1.0) {
+				small[smallCount++] = more;
+			} else {
+				large[largeCount++] = more;
+			}
+		}
+		// Whatever is left is 1 up to rounding errors
+		while (largeCount > 0) {
+			probability[large[--largeCount]] = 1.0;
+		}
+		while (smallCount > 0) {
+			probability[small[--smallCount]] = 1.0;
+		}
+	}
+
+	/**
+	 * Draws the index of a sequence.
+	 * 
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @return the index of the drawn sequence
+	 */
+	public int sample(Random randomGenerator) {
+		int column = randomGenerator.nextInt(size);
+		return (randomGenerator.nextDouble() < probability[column]) ? column : alias[column];
+	}
+}
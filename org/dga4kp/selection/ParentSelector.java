@@ -0,0 +1,127 @@
+package org.dga4kp.selection;
+
+import java.util.List;
+import java.util.Random;
+
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.adt.SelectionStrategy;
+
+/**
+ * ParentSelector prepares the population for the next generation and draws
+ * the parents for crossover. {@link #prepare(List, int)} is called once per
+ * generation by the generation loop. It moves the elite to the front of the
+ * population with linear-time partial selection instead of a full sort and
+ * builds whatever the selection strategy needs. After that
+ * {@link #select(List, Random)} can be called by all workers at the same time
+ * because it only reads the prepared state.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class ParentSelector {
+	private SelectionStrategy strategy;
+	private int tournamentSize;
+	private AliasTable aliasTable = new AliasTable();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param strategy
+	 *            - the parent selection strategy
+	 * @param tournamentSize
+	 *            - the number of individuals that compete in a tournament
+	 */
+	public ParentSelector(SelectionStrategy strategy, int tournamentSize) {
+		if (tournamentSize < 1) {
+			throw new IllegalArgumentException(
+					String.format("Tournament size is %d but it must be positive!", tournamentSize));
+		}
+		this.strategy = strategy;
+		this.tournamentSize = tournamentSize;
+	}
+
+	public SelectionStrategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Reorders the population so that the first numberOfElites individuals
+	 * are the best ones and prepares the parent selection. For uniform
+	 * selection from the top half the better half of the population is moved
+	 * in front of the worse half first.
+	 * 
+	 * @param individuals
+	 *            - the individuals of the population
+	 * @param numberOfElites
+	 *            - the number of individuals inherited via elitism
+	 */
+	public void prepare(List<OrderedItemSequence> individuals, int numberOfElites) {
+		switch (strategy) {
+		case UNIFORM_TOP_HALF:
+			int half = individuals.size() / 2;
+			TopKSelector.selectTop(individuals, half);
+			if (numberOfElites < half) {
+				TopKSelector.selectTop(individuals, 0, half, numberOfElites);
+			} else {
+				TopKSelector.selectTop(individuals, half, individuals.size(), numberOfElites - half);
+			}
+			break;
+
+		case ROULETTE:
+			TopKSelector.selectTop(individuals, numberOfElites);
+			aliasTable.build(individuals);
+			break;
+
+		default:
+			TopKSelector.selectTop(individuals, numberOfElites);
+			break;
+		}
+	}
+
+	/**
+	 * Prepares the parent selection for a population that was already
+	 * reordered by {@link #prepare(List, int)}, e.g. one read from a
+	 * checkpoint. The order is kept as it is, because the partial selection
+	 * may move individuals of equal fitness again and a resumed run would
+	 * then draw other parents than the uninterrupted one.
+	 *
+	 * @param individuals
+	 *            - the individuals of the prepared population
+	 */
+	public void restore(List<OrderedItemSequence> individuals) {
+		if (strategy == SelectionStrategy.ROULETTE) {
+			aliasTable.build(individuals);
+		}
+	}
+
+	/**
+	 * Draws a parent from the prepared population.
+	 * 
+	 * @param individuals
+	 *            - the individuals of the prepared population
+	 * @param randomGenerator
+	 *            - dedicated random generator
+	 * @return the parent
+	 */
+	public OrderedItemSequence select(List<OrderedItemSequence> individuals, Random randomGenerator) {
+		switch (strategy) {
+		case TOURNAMENT:
+			OrderedItemSequence winner = individuals.get(randomGenerator.nextInt(individuals.size()));
+			for (int i = 1; i < tournamentSize; i++) {
+				OrderedItemSequence competitor = individuals.get(randomGenerator.nextInt(individuals.size()));
+				if (competitor.getFitnessValue() > winner.getFitnessValue()) {
+					winner = competitor;
+				}
+			}
+			return winner;
+
+		case ROULETTE:
+			return individuals.get(aliasTable.sample(randomGenerator));
+
+		default:
+			return individuals
+					.get((int) Math.round(randomGenerator.nextDouble() * ((individuals.size() / 2) - 1)));
+		}
+	}
+}
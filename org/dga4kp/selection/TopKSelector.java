@@ -0,0 +1,97 @@
+package org.dga4kp.selection;
+
+import java.util.List;
+
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * TopKSelector partially orders a list of sequences by fitness value in
+ * expected linear time. After {@link #selectTop(List, int)} the first k
+ * sequences are the k best ones, but neither part is sorted. This is all the
+ * elitism and the parent selection need, so the population does not have to
+ * be fully sorted every generation.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class TopKSelector {
+
+	private TopKSelector() {
+	}
+
+	/**
+	 * Reorders the list so that the first k sequences have a fitness value
+	 * greater than or equal to every sequence after them.
+	 * 
+	 * @param sequences
+	 *            - the list to reorder
+	 * @param k
+	 *            - the number of best sequences to move to the front
+	 */
+	public static void selectTop(List<OrderedItemSequence> sequences, int k) {
+		selectTop(sequences, 0, sequences.size(), k);
+	}
+
+	/**
+	 * Reorders the range [from, to) of the list so that its first k sequences
+	 * have a fitness value greater than or equal to every other sequence of
+	 * the range.
+	 * 
+	 * @param sequences
+	 *            - the list to reorder
+	 * @param from
+	 *            - the first index of the range
+	 * @param to
+	 *            - the index after the last index of the range
+	 * @param k
+	 *            - the number of best sequences to move to the front of the
+	 *            range
+	 */
+	public static void selectTop(List<OrderedItemSequence> sequences, int from, int to, int k) {
+		if (k <= 0 || k >= to - from) {
+			return;
+		}
+		// Quickselect of the element that belongs at position from + k in
+		// descending order
+		int target = from + k;
+		int lo = from;
+		int hi = to - 1;
+		while (lo < hi) {
+			int pivot = medianOfThree(fitness(sequences, lo), fitness(sequences, (lo + hi) >>> 1),
+					fitness(sequences, hi));
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (fitness(sequences, i) > pivot) {
+					i++;
+				}
+				while (fitness(sequences, j) < pivot) {
+					j--;
+				}
+				if (i <= j) {
+					swap(sequences, i++, j--);
+				}
+			}
+			if (target <= j) {
+				hi = j;
+			} else if (target >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private static int fitness(List<OrderedItemSequence> sequences, int index) {
+		return sequences.get(index).getFitnessValue();
+	}
+
+	private static void swap(List<OrderedItemSequence> sequences, int i, int j) {
+		sequences.set(i, sequences.set(j, sequences.get(i)));
+	}
+
+	private static int medianOfThree(int a, int b, int c) {
+		return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+	}
+}
@@ -0,0 +1,44 @@
+package org.dga4kp.server;
+
+import org.dga4kp.stopping.EvolutionProgress;
+import org.dga4kp.stopping.StoppingCriterion;
+import org.dga4kp.stopping.StoppingEngine;
+
+/**
+ * CancellationCriterion is met when a server job is cancelled, e.g. because
+ * the client has disconnected. The workers check it before every chunk, so the
+ * chunks that have not started when the job is cancelled carry their
+ * individuals over and the evolution stops after the current chunks.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class CancellationCriterion extends StoppingCriterion {
+	private SolveJob job;
+
+	/**
+	 * Constructor
+	 *
+	 * @param job
+	 *            - the job that may be cancelled
+	 */
+	public CancellationCriterion(SolveJob job) {
+		this.job = job;
+	}
+
+	@Override
+	public boolean isMetDuringGeneration(StoppingEngine engine) {
+		return job.isCancelled();
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		return job.isCancelled();
+	}
+
+	@Override
+	public String toString() {
+		return "CancellationCriterion";
+	}
+}
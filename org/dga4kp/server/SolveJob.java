@@ -0,0 +1,208 @@
+package org.dga4kp.server;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dga4kp.Main;
+import org.dga4kp.PopulationGenerator;
+import org.dga4kp.adt.OrderedItemSequence;
+import org.dga4kp.exact.DynamicProgrammingSolver;
+import org.dga4kp.instance.KnapsackInstance;
+import org.dga4kp.reduction.InstanceReduction;
+import org.dga4kp.stopping.EvolutionProgress;
+import org.dga4kp.stopping.ProgressListener;
+import org.dga4kp.stopping.StoppingEngine;
+
+/**
+ * SolveJob solves one instance that was sent to the SolveServer. It runs the
+ * same flow as a solve from the command line, with its own PopulationGenerator
+ * on the worker pool of the server, and turns its progress into text lines
+ * that the request thread sends to the client:
+ * <ul>
+ * <li>"started job=... seed=..." when a solver thread picks the job up</li>
+ * <li>"progress job=... generation=... best=... evaluations=...
+ * elapsedMillis=..." every progress interval generations</li>
+ * <li>"solution job=... best=... weight=... generations=... evaluations=...
+ * elapsedMillis=... stoppedBy=... items=..." with the indices of the selected
+ * items, or "error job=... message=..." at the end</li>
+ * </ul>
+ * The values are those of the full instance, also when only its core is
+ * evolved.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class SolveJob implements Runnable {
+	static Logger log = LogManager.getLogger(SolveJob.class);
+
+	private long id;
+	private CommandLine cl;
+	private KnapsackInstance instance;
+	private PopulationGenerator generator;
+	private int progressInterval;
+	// Value of the items fixed by the instance reduction
+	private long fixedValue = 0;
+	private long startNanos;
+	// What ended the solve, for the solution line
+	private String stoppedBy;
+	// Lines that are not yet sent to the client, followed by END once the
+	// job has finished
+	private BlockingQueue<String> events = new LinkedBlockingQueue<String>();
+	private volatile boolean cancelled = false;
+
+	// Marks the end of the lines of a job, compared by identity
+	private static final String END = new String("end");
+
+	/**
+	 * Constructor
+	 *
+	 * @param id
+	 *            - the ID of the job
+	 * @param cl
+	 *            - the options of the job
+	 * @param instance
+	 *            - the instance to solve
+	 * @param workerPool
+	 *            - the worker pool shared by all jobs
+	 */
+	public SolveJob(long id, CommandLine cl, KnapsackInstance instance, ForkJoinPool workerPool) {
+		this.id = id;
+		this.cl = cl;
+		this.instance = instance;
+		this.progressInterval = Integer.parseInt(cl.getOptionValue("progressInterval", "10"));
+		this.generator = new PopulationGenerator(workerPool);
+		this.generator.name = "job-" + id;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Stops the job, or skips it if it has not started yet.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Waits for the next line of the job.
+	 *
+	 * @param timeoutMillis
+	 *            - the longest time to wait
+	 * @return the line, an empty line if the job has not produced one within
+	 *         the timeout, or null if the job has finished
+	 * @throws InterruptedException
+	 */
+	public String nextEvent(long timeoutMillis) throws InterruptedException {
+		String event = events.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+		if (event == null) {
+			return "";
+		}
+		return event == END ? null : event;
+	}
+
+	@Override
+	public void run() {
+		startNanos = System.nanoTime();
+		try {
+			if (cancelled) {
+				return;
+			}
+			Main.configure(generator, cl, instance);
+			events.add(String.format("started job=%d seed=%d", id, generator.seed));
+			OrderedItemSequence solution = solve();
+			events.add(String.format(
+					"solution job=%d best=%d weight=%d generations=%d evaluations=%d elapsedMillis=%d stoppedBy=%s items=%s",
+					id, solution.getTotalValue(), solution.getTotalWeight(), generator.generationNumber,
+					generator.stoppingEngine == null ? 0 : generator.stoppingEngine.getEvaluations(), elapsedMillis(),
+					stoppedBy, selectedItems(solution)));
+		} catch (Exception e) {
+			log.warn(String.format("Job %d failed: %s", id, e));
+			events.add(String.format("error job=%d message=%s", id, e.getMessage()));
+		} finally {
+			events.add(END);
+		}
+	}
+
+	/**
+	 * Solves the instance, exactly if that was asked for and the table fits,
+	 * and returns the best sequence over the full instance.
+	 */
+	private OrderedItemSequence solve() throws Exception {
+		InstanceReduction reduction = null;
+		if (cl.hasOption("reduceInstance")) {
+			reduction = Main.reduce(generator);
+			if (reduction.getCoreSize() == 0) {
+				stoppedBy = "reduceInstance";
+				return reduction.bestFullSequence(new OrderedItemSequence());
+			}
+			fixedValue = reduction.getFixedValue();
+		}
+		Main.configureEvaluation(generator, cl);
+		OrderedItemSequence best = null;
+		if (cl.hasOption("exactSolver") && DynamicProgrammingSolver.isManageable(generator.numberOfItems,
+				generator.backpackLimit, generator.maxTableCells)) {
+			best = new DynamicProgrammingSolver(generator.itemCatalog, generator.numberOfItems,
+					generator.getWorkerPool()).solve(generator.backpackLimit);
+			stoppedBy = "exactSolver";
+		} else {
+			StoppingEngine stoppingEngine = Main.createStoppingEngine(cl, generator.numberOfGenerations,
+					fixedValue);
+			generator.stoppingEngine = stoppingEngine.addCriterion(new CancellationCriterion(this));
+			if (progressInterval > 0) {
+				generator.progressListener = new ProgressListener() {
+					@Override
+					public void generationFinished(EvolutionProgress progress) {
+						if (progress.getGeneration() % progressInterval == 0) {
+							reportProgress(progress);
+						}
+					}
+				};
+			}
+			best = generator.solve();
+			stoppedBy = cancelled ? "cancelled" : stoppingEngine.getMetCriterion().getClass().getSimpleName();
+		}
+		return reduction == null ? best : reduction.bestFullSequence(best);
+	}
+
+	/**
+	 * Queues a progress line. It is called by the progress listener of the
+	 * generator.
+	 *
+	 * @param progress
+	 *            - the progress of the evolution
+	 */
+	void reportProgress(EvolutionProgress progress) {
+		events.add(String.format("progress job=%d generation=%d best=%d evaluations=%d elapsedMillis=%d", id,
+				progress.getGeneration(), progress.getBestFitnessValue() + fixedValue, progress.getEvaluations(),
+				elapsedMillis()));
+	}
+
+	private long elapsedMillis() {
+		return (System.nanoTime() - startNanos) / 1000000;
+	}
+
+	private static String selectedItems(OrderedItemSequence sequence) {
+		StringBuilder items = new StringBuilder();
+		for (int i = 0; i < sequence.getLength(); i++) {
+			if (sequence.get(i)) {
+				if (items.length() > 0) {
+					items.append(',');
+				}
+				items.append(i);
+			}
+		}
+		return items.toString();
+	}
+}
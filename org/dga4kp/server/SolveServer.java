@@ -0,0 +1,320 @@
+package org.dga4kp.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.dga4kp.Main;
+import org.dga4kp.instance.InstanceLoader;
+import org.dga4kp.instance.KnapsackInstance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * SolveServer keeps one JVM running to solve many instances, so they do not
+ * pay for the startup of the JVM and the compilation of the code every time.
+ * It listens on a local HTTP port:
+ * <ul>
+ * <li>POST /solve takes an instance in one of the single file formats as the
+ * body and the options of the solve as the query, e.g.
+ * /solve?populationSize=100&amp;seed=7. The options of the command line the
+ * server was started with are the defaults of every job. The response streams
+ * the lines of the job, see {@link SolveJob}, as they are produced.</li>
+ * <li>GET /status returns the number of queued, running, finished and
+ * rejected jobs.</li>
+ * </ul>
+ * At most maxConcurrentSolves jobs are solved at a time, all on one shared
+ * worker pool, and up to maxQueuedSolves further jobs wait for a solver
+ * thread. More jobs are rejected with status 503, so a client can back off.
+ * The steady-state evolution is not available to jobs, since it keeps every
+ * worker of the shared pool busy until it stops.
+ * <p>
+ * The server only notices that a client has disconnected when a write to it
+ * fails, so it writes an empty line whenever a job has not produced a line
+ * for {@link #KEEP_ALIVE_MILLIS}. The job of a disconnected client is removed
+ * from the queue, or cancelled if it is running, within about two keep-alive
+ * intervals.
+ *
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class SolveServer {
+	static Logger log = LogManager.getLogger(SolveServer.class);
+
+	// Options that configure the server, that read or write files or that
+	// would take over the shared worker pool, so they are not taken from the
+	// query of a job
+	private static final Set<String> SERVER_OPTIONS = new HashSet<String>(Arrays.asList("serverPort",
+			"maxConcurrentSolves", "maxQueuedSolves", "instanceFile", "fileWithValues", "fileWithWeights",
+			"noInstanceCache", "checkpointFile", "checkpointInterval", "resumeFrom", "islandAddresses", "islandId",
+			"migrationInterval", "numberOfMigrants", "migrationTopology", "cpuTimeBudgetMillis", "steadyState"));
+
+	// Time without a line of the job after which an empty line is written to
+	// check that the client is still connected
+	static final long KEEP_ALIVE_MILLIS = 1000;
+
+	private int port;
+	private Options options = Main.createOptions();
+	// Options of the command line of the server, the defaults of every job
+	private List<String> defaultArguments = new ArrayList<String>();
+	private ForkJoinPool workerPool;
+	private ThreadPoolExecutor solvers;
+	private ExecutorService requestThreads;
+	private HttpServer httpServer;
+	private CountDownLatch stopped = new CountDownLatch(1);
+
+	private AtomicLong nextJobId = new AtomicLong();
+	private AtomicLong finishedJobs = new AtomicLong();
+	private AtomicLong rejectedJobs = new AtomicLong();
+
+	/**
+	 * Constructor
+	 *
+	 * @param port
+	 *            - the local port to listen on
+	 * @param maxConcurrentSolves
+	 *            - the number of jobs that are solved at a time
+	 * @param maxQueuedSolves
+	 *            - the number of jobs that wait for a solver thread
+	 * @param numberOfThreads
+	 *            - the number of workers of the shared worker pool
+	 * @param args
+	 *            - the command line of the server
+	 * @throws ParseException
+	 */
+	public SolveServer(int port, int maxConcurrentSolves, int maxQueuedSolves, int numberOfThreads, String[] args)
+			throws ParseException {
+		this.port = port;
+		CommandLine cl = new DefaultParser().parse(options, args);
+		for (Option option : cl.getOptions()) {
+			if (!SERVER_OPTIONS.contains(option.getOpt())) {
+				defaultArguments.add("-" + option.getOpt());
+				if (option.hasArg()) {
+					defaultArguments.add(option.getValue());
+				}
+			}
+		}
+		if (!cl.hasOption("numberOfThreads")) {
+			// Jobs split their population for the whole worker pool
+			defaultArguments.add("-numberOfThreads");
+			defaultArguments.add(String.valueOf(numberOfThreads));
+		}
+		this.workerPool = new ForkJoinPool(numberOfThreads);
+		this.solvers = new ThreadPoolExecutor(maxConcurrentSolves, maxConcurrentSolves, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(1, maxQueuedSolves)), daemonThreads("solve-server-job"));
+		this.requestThreads = Executors.newCachedThreadPool(daemonThreads("solve-server-request"));
+	}
+
+	private static ThreadFactory daemonThreads(final String name) {
+		final AtomicLong count = new AtomicLong();
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * Starts listening on the loopback address.
+	 *
+	 * @throws IOException
+	 */
+	public void start() throws IOException {
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		httpServer.setExecutor(requestThreads);
+		httpServer.createContext("/solve", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					handleSolve(exchange);
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		httpServer.createContext("/status", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					respond(exchange, 200,
+							String.format("queued=%d running=%d finished=%d rejected=%d\n", solvers.getQueue().size(),
+									solvers.getActiveCount(), finishedJobs.get(), rejectedJobs.get()));
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		httpServer.start();
+		log.info(String.format("Solve server listening on %s with %d solver threads and %d workers",
+				httpServer.getAddress(), solvers.getMaximumPoolSize(), workerPool.getParallelism()));
+	}
+
+	/**
+	 * Waits until the server is closed.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void awaitTermination() throws InterruptedException {
+		stopped.await();
+	}
+
+	/**
+	 * Stops listening, cancels the running jobs and shuts the threads down.
+	 */
+	public void close() {
+		if (httpServer != null) {
+			httpServer.stop(0);
+		}
+		solvers.shutdownNow();
+		requestThreads.shutdownNow();
+		workerPool.shutdownNow();
+		stopped.countDown();
+	}
+
+	private void handleSolve(HttpExchange exchange) throws IOException {
+		if (!"POST".equals(exchange.getRequestMethod())) {
+			respond(exchange, 405, "POST the instance to /solve\n");
+			return;
+		}
+		SolveJob job;
+		try {
+			CommandLine cl = parseJobOptions(exchange.getRequestURI().getRawQuery());
+			KnapsackInstance instance = InstanceLoader.read(ByteBuffer.wrap(readBody(exchange.getRequestBody())),
+					"the request body");
+			if (!cl.hasOption("backpackWeightLimit") && !instance.hasCapacity()) {
+				throw new IllegalArgumentException("The instance does not specify the capacity, set backpackWeightLimit!");
+			}
+			job = new SolveJob(nextJobId.incrementAndGet(), cl, instance, workerPool);
+		} catch (ParseException | IOException | IllegalArgumentException e) {
+			respond(exchange, 400, String.format("error message=%s\n", e.getMessage()));
+			return;
+		}
+		try {
+			solvers.execute(job);
+		} catch (RejectedExecutionException e) {
+			rejectedJobs.incrementAndGet();
+			respond(exchange, 503, String.format("rejected job=%d queued=%d\n", job.getId(), solvers.getQueue().size()));
+			return;
+		}
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		// Length 0 streams the response in chunks
+		exchange.sendResponseHeaders(200, 0);
+		Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+		try {
+			out.write(String.format("queued job=%d\n", job.getId()));
+			out.flush();
+			String event;
+			while ((event = job.nextEvent(KEEP_ALIVE_MILLIS)) != null) {
+				out.write(event);
+				out.write('\n');
+				out.flush();
+			}
+			out.close();
+		} catch (IOException e) {
+			log.debug(String.format("The client of job %d disconnected: %s", job.getId(), e.getMessage()));
+			cancel(job);
+		} catch (InterruptedException e) {
+			cancel(job);
+			Thread.currentThread().interrupt();
+		} finally {
+			finishedJobs.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Cancels a job and removes it from the queue if it has not started yet.
+	 */
+	private void cancel(SolveJob job) {
+		job.cancel();
+		if (solvers.remove(job)) {
+			log.debug(String.format("Removed job %d from the queue", job.getId()));
+		}
+	}
+
+	/**
+	 * Parses the query of a job into options, followed by the defaults of the
+	 * server. A parameter without a value sets a flag.
+	 */
+	private CommandLine parseJobOptions(String query) throws ParseException, UnsupportedEncodingException {
+		List<String> arguments = new ArrayList<String>();
+		if (query != null && !query.isEmpty()) {
+			for (String parameter : query.split("&")) {
+				int separator = parameter.indexOf('=');
+				String name = URLDecoder.decode(separator < 0 ? parameter : parameter.substring(0, separator), "UTF-8");
+				if (!options.hasOption(name) || SERVER_OPTIONS.contains(name)) {
+					throw new ParseException(String.format("%s is not an option of a job", name));
+				}
+				arguments.add("-" + name);
+				if (options.getOption(name).hasArg()) {
+					if (separator < 0) {
+						throw new ParseException(String.format("%s needs a value", name));
+					}
+					arguments.add(URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+				}
+			}
+		}
+		// The first value of an option is the one that is used
+		arguments.addAll(defaultArguments);
+		CommandLine cl = new DefaultParser().parse(options, arguments.toArray(new String[arguments.size()]));
+		if (!Main.hasSolveOptions(cl)) {
+			throw new ParseException(
+					"populationSize, numberOfThreads, numberOfGenerations, doCrossoverProbability, crossoverStrategy, percentageOfInheritedPopulation and numberOfMutationBits must be set by the server or the job");
+		}
+		return cl;
+	}
+
+	private static byte[] readBody(InputStream body) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for (int n = body.read(buffer); n >= 0; n = body.read(buffer)) {
+			bytes.write(buffer, 0, n);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.close();
+	}
+}
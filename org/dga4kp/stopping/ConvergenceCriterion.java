@@ -0,0 +1,40 @@
+package org.dga4kp.stopping;
+
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * Stops the evolution when a given fraction of the population shares the best
+ * fitness value. It counts in a single pass, so the population does not need
+ * to be sorted.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class ConvergenceCriterion extends StoppingCriterion {
+	private double fraction;
+
+	public ConvergenceCriterion(double fraction) {
+		this.fraction = fraction;
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		int bestValue = Integer.MIN_VALUE;
+		int numberOfBest = 0;
+		for (OrderedItemSequence individual : progress.getIndividuals()) {
+			if (individual.getFitnessValue() > bestValue) {
+				bestValue = individual.getFitnessValue();
+				numberOfBest = 1;
+			} else if (individual.getFitnessValue() == bestValue) {
+				numberOfBest++;
+			}
+		}
+		return numberOfBest >= Math.ceil(progress.getIndividuals().size() * fraction);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ConvergenceCriterion [fraction=%s]", fraction);
+	}
+}
@@ -0,0 +1,57 @@
+package org.dga4kp.stopping;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops the evolution when the CPU time used by the process since the start of
+ * the run exceeds the budget. It is also checked by the workers during a
+ * generation. If the JVM does not report the process CPU time the criterion is
+ * never met.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class CpuTimeBudgetCriterion extends StoppingCriterion {
+	private long budgetNanos;
+	private long startCpuNanos;
+
+	public CpuTimeBudgetCriterion(long budgetMillis) {
+		this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+	}
+
+	/**
+	 * Returns the CPU time used by the process in nanoseconds or -1 if it is
+	 * not available.
+	 */
+	private static long processCpuNanos() {
+		OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+		if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+		}
+		return -1;
+	}
+
+	@Override
+	public void start() {
+		startCpuNanos = processCpuNanos();
+	}
+
+	@Override
+	public boolean isMetDuringGeneration(StoppingEngine engine) {
+		long cpuNanos = processCpuNanos();
+		return cpuNanos >= 0 && startCpuNanos >= 0 && cpuNanos - startCpuNanos >= budgetNanos;
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		return isMetDuringGeneration(null);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CpuTimeBudgetCriterion [budgetMillis=%s]", TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+	}
+}
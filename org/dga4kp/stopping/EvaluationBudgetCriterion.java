@@ -0,0 +1,32 @@
+package org.dga4kp.stopping;
+
+/**
+ * Stops the evolution when the number of fitness evaluations exceeds the
+ * budget. It is also checked by the workers during a generation.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class EvaluationBudgetCriterion extends StoppingCriterion {
+	private long numberOfEvaluations;
+
+	public EvaluationBudgetCriterion(long numberOfEvaluations) {
+		this.numberOfEvaluations = numberOfEvaluations;
+	}
+
+	@Override
+	public boolean isMetDuringGeneration(StoppingEngine engine) {
+		return engine.getEvaluations() >= numberOfEvaluations;
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		return progress.getEvaluations() >= numberOfEvaluations;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("EvaluationBudgetCriterion [numberOfEvaluations=%s]", numberOfEvaluations);
+	}
+}
@@ -0,0 +1,63 @@
+package org.dga4kp.stopping;
+
+import java.util.List;
+
+import org.dga4kp.adt.OrderedItemSequence;
+
+/**
+ * EvolutionProgress holds the state of the evolution that the stopping
+ * criteria are checked against after every generation. A single instance is
+ * updated in place by the generation loop.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class EvolutionProgress {
+	// Number of generations finished so far
+	private int generation;
+	// Best fitness value found so far
+	private int bestFitnessValue;
+	// Number of fitness evaluations so far
+	private long evaluations;
+	// Time since the start of the run in nanoseconds
+	private long elapsedNanos;
+	// Individuals of the current population
+	private List<OrderedItemSequence> individuals;
+
+	public void update(int generation, int bestFitnessValue, long evaluations, long elapsedNanos,
+			List<OrderedItemSequence> individuals) {
+		this.generation = generation;
+		this.bestFitnessValue = bestFitnessValue;
+		this.evaluations = evaluations;
+		this.elapsedNanos = elapsedNanos;
+		this.individuals = individuals;
+	}
+
+	public int getGeneration() {
+		return generation;
+	}
+
+	public int getBestFitnessValue() {
+		return bestFitnessValue;
+	}
+
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public List<OrderedItemSequence> getIndividuals() {
+		return individuals;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"EvolutionProgress [generation=%s, bestFitnessValue=%s, evaluations=%s, elapsedMillis=%s]",
+				generation, bestFitnessValue, evaluations, elapsedNanos / 1000000);
+	}
+}
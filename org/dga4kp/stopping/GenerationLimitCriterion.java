@@ -0,0 +1,26 @@
+package org.dga4kp.stopping;
+
+/**
+ * Stops the evolution after a fixed number of generations.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class GenerationLimitCriterion extends StoppingCriterion {
+	private int numberOfGenerations;
+
+	public GenerationLimitCriterion(int numberOfGenerations) {
+		this.numberOfGenerations = numberOfGenerations;
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		return progress.getGeneration() >= numberOfGenerations;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("GenerationLimitCriterion [numberOfGenerations=%s]", numberOfGenerations);
+	}
+}
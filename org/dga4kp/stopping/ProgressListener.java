@@ -0,0 +1,24 @@
+package org.dga4kp.stopping;
+
+/**
+ * ProgressListener is told the progress of the evolution after every
+ * generation, once the stopping criteria have been checked, so it also sees
+ * the generation after which the evolution stops, whichever criterion was met.
+ * It is called by the generation loop, in the steady-state evolution by the
+ * worker that completes the generation, and must return quickly.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public interface ProgressListener {
+
+	/**
+	 * Called after a generation has finished.
+	 * 
+	 * @param progress
+	 *            - the progress of the evolution, which is updated in place
+	 *            and only valid during the call
+	 */
+	void generationFinished(EvolutionProgress progress);
+}
@@ -0,0 +1,39 @@
+package org.dga4kp.stopping;
+
+/**
+ * Stops the evolution when the best fitness value has not improved for a given
+ * number of generations.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class StagnationCriterion extends StoppingCriterion {
+	private int numberOfGenerations;
+	private int bestFitnessValue;
+	private int lastImprovement;
+
+	public StagnationCriterion(int numberOfGenerations) {
+		this.numberOfGenerations = numberOfGenerations;
+	}
+
+	@Override
+	public void start() {
+		bestFitnessValue = Integer.MIN_VALUE;
+		lastImprovement = 0;
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		if (progress.getBestFitnessValue() > bestFitnessValue) {
+			bestFitnessValue = progress.getBestFitnessValue();
+			lastImprovement = progress.getGeneration();
+		}
+		return progress.getGeneration() - lastImprovement >= numberOfGenerations;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("StagnationCriterion [numberOfGenerations=%s]", numberOfGenerations);
+	}
+}
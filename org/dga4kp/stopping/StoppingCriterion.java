@@ -0,0 +1,45 @@
+package org.dga4kp.stopping;
+
+/**
+ * StoppingCriterion is the base class of all conditions that can stop the
+ * evolution. Every criterion is checked once per generation by
+ * {@link #isMet(EvolutionProgress)}. Criteria that can be decided cheaply, like
+ * time and evaluation budgets, also override
+ * {@link #isMetDuringGeneration(StoppingEngine)}, which the workers call while
+ * the generation is still running so that a budget is not overrun by a whole
+ * generation.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public abstract class StoppingCriterion {
+
+	/**
+	 * Resets the criterion at the start of a run.
+	 */
+	public void start() {
+	}
+
+	/**
+	 * Checks the criterion while a generation is running. It can be called by
+	 * several workers at the same time and must be cheap.
+	 * 
+	 * @param engine
+	 *            - the engine with the elapsed time and the number of
+	 *            evaluations so far
+	 * @return true if the evolution should stop
+	 */
+	public boolean isMetDuringGeneration(StoppingEngine engine) {
+		return false;
+	}
+
+	/**
+	 * Checks the criterion after a generation.
+	 * 
+	 * @param progress
+	 *            - the progress of the evolution
+	 * @return true if the evolution should stop
+	 */
+	public abstract boolean isMet(EvolutionProgress progress);
+}
@@ -0,0 +1,128 @@
+package org.dga4kp.stopping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StoppingEngine combines the configured stopping criteria. The evolution
+ * stops as soon as any criterion is met. The generation loop checks all
+ * criteria after every generation and the workers check the cheap ones before
+ * every chunk, so a time or evaluation budget stops the run in the middle of a
+ * generation and the best sequence found so far is the answer.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class StoppingEngine {
+	private List<StoppingCriterion> criteria = new ArrayList<StoppingCriterion>();
+	// Number of fitness evaluations since the start of the run
+	private AtomicLong evaluations = new AtomicLong();
+	private long startNanos;
+	private boolean started = false;
+	// The criterion that stopped the evolution, null while it runs
+	private volatile StoppingCriterion metCriterion;
+
+	public StoppingEngine addCriterion(StoppingCriterion criterion) {
+		criteria.add(criterion);
+		return this;
+	}
+
+	public List<StoppingCriterion> getCriteria() {
+		return criteria;
+	}
+
+	/**
+	 * Starts the clock and resets all criteria. Time budgets are measured from
+	 * this call.
+	 */
+	public void start() {
+		startNanos = System.nanoTime();
+		evaluations.set(0);
+		metCriterion = null;
+		for (StoppingCriterion criterion : criteria) {
+			criterion.start();
+		}
+		started = true;
+	}
+
+	/**
+	 * Starts the engine for a run that is resumed from a checkpoint. The
+	 * evaluations and the wall-clock time of the interrupted run count
+	 * towards the budgets.
+	 * 
+	 * @param evaluations
+	 *            - the number of evaluations of the interrupted run
+	 * @param elapsedNanos
+	 *            - the time the interrupted run took
+	 */
+	public void resume(long evaluations, long elapsedNanos) {
+		start();
+		startNanos -= elapsedNanos;
+		this.evaluations.set(evaluations);
+	}
+
+	public boolean isStarted() {
+		return started;
+	}
+
+	public long getElapsedNanos() {
+		return System.nanoTime() - startNanos;
+	}
+
+	public void addEvaluations(long count) {
+		evaluations.addAndGet(count);
+	}
+
+	public long getEvaluations() {
+		return evaluations.get();
+	}
+
+	public boolean isStopRequested() {
+		return metCriterion != null;
+	}
+
+	public StoppingCriterion getMetCriterion() {
+		return metCriterion;
+	}
+
+	/**
+	 * Checks the cheap criteria while a generation is running. Once a
+	 * criterion is met the engine stays stopped.
+	 * 
+	 * @return true if the evolution should stop
+	 */
+	public boolean checkDuringGeneration() {
+		if (metCriterion != null) {
+			return true;
+		}
+		for (StoppingCriterion criterion : criteria) {
+			if (criterion.isMetDuringGeneration(this)) {
+				metCriterion = criterion;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks all criteria after a generation.
+	 * 
+	 * @param progress
+	 *            - the progress of the evolution
+	 * @return true if the evolution should stop
+	 */
+	public boolean checkAfterGeneration(EvolutionProgress progress) {
+		if (metCriterion != null) {
+			return true;
+		}
+		for (StoppingCriterion criterion : criteria) {
+			if (criterion.isMet(progress)) {
+				metCriterion = criterion;
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,26 @@
+package org.dga4kp.stopping;
+
+/**
+ * Stops the evolution as soon as a sequence reaches the target fitness value.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class TargetFitnessCriterion extends StoppingCriterion {
+	private int targetFitnessValue;
+
+	public TargetFitnessCriterion(int targetFitnessValue) {
+		this.targetFitnessValue = targetFitnessValue;
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		return progress.getBestFitnessValue() >= targetFitnessValue;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("TargetFitnessCriterion [targetFitnessValue=%s]", targetFitnessValue);
+	}
+}
@@ -0,0 +1,35 @@
+package org.dga4kp.stopping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops the evolution when the wall-clock time since the start of the run
+ * exceeds the budget. It is also checked by the workers during a generation.
+ * 
+ * @author Elena Kyorova <elenakyorova@gmail.com>
+ * @author Mihaela Stoycheva <mihaela.stoycheva@gmail.com>
+ *
+ */
+public class WallClockBudgetCriterion extends StoppingCriterion {
+	private long budgetNanos;
+
+	public WallClockBudgetCriterion(long budgetMillis) {
+		this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+	}
+
+	@Override
+	public boolean isMetDuringGeneration(StoppingEngine engine) {
+		return engine.getElapsedNanos() >= budgetNanos;
+	}
+
+	@Override
+	public boolean isMet(EvolutionProgress progress) {
+		return progress.getElapsedNanos() >= budgetNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("WallClockBudgetCriterion [budgetMillis=%s]",
+				TimeUnit.NANOSECONDS.toMillis(budgetNanos));
+	}
+}